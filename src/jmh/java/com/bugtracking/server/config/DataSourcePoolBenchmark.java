@@ -0,0 +1,109 @@
+package com.bugtracking.server.config;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cost of a borrow-query-return cycle on a Hikari pool in front of an embedded MariaDB, with and without
+ * a validation query on borrow, which is what the previous {@code test-on-borrow} configuration added
+ * to every transaction. The difference of the two scores is the saving per request.
+ */
+@State(Scope.Benchmark)
+public class DataSourcePoolBenchmark {
+
+    private static final String SCHEMA = "bugtracking_benchmark";
+
+    private DB db;
+    private HikariDataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File dataDir = Files.createTempDirectory("bugtracking-benchmark-db").toFile();
+        DBConfigurationBuilder dbConfig = DBConfigurationBuilder.newBuilder();
+        dbConfig.setPort(freePort());
+        dbConfig.setDataDir(dataDir.getAbsolutePath());
+        db = DB.newEmbeddedDB(dbConfig.build());
+        db.start();
+        db.createDB(SCHEMA);
+
+        String url = "jdbc:mysql://127.0.0.1:" + dbConfig.getPort() + "/" + SCHEMA + "?useSSL=false";
+        try (Connection connection = DriverManager.getConnection(url, "root", "")) {
+            Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            new Liquibase("db/changelog/db.changelog-master.xml", new ClassLoaderResourceAccessor(), database)
+                .update(new Contexts());
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("benchmark");
+        config.setJdbcUrl(url);
+        config.setUsername("root");
+        config.setPassword("");
+        config.setMaximumPoolSize(10);
+        config.setMinimumIdle(10);
+        config.addDataSourceProperty("cachePrepStmts", true);
+        dataSource = new HikariDataSource(config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        if (db != null) {
+            db.stop();
+        }
+    }
+
+    @Benchmark
+    public long borrowWithValidationQuery() throws SQLException {
+        return borrowAndQuery(true);
+    }
+
+    @Benchmark
+    public long borrowWithoutValidationQuery() throws SQLException {
+        return borrowAndQuery(false);
+    }
+
+    private long borrowAndQuery(boolean validateOnBorrow) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (validateOnBorrow) {
+                statement.execute("SELECT 1");
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT count(1) FROM projects")) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.bugtracking.server.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Request handling on Tomcat's default 200 worker threads versus one virtual thread per request,
+ * with a connection pool of the production size in front of simulated queries.
+ * A batch of requests is submitted at once and the score is the time per request until all of them finish,
+ * so a lower score means a higher throughput.
+ * <p>
+ * Part of the requests never touch the database (cache hits), the rest borrow a connection and block for
+ * the duration of a query drawn from the mix. With {@code SYNCHRONIZED} driver locking the query blocks
+ * inside a monitor, as MySQL Connector/J 5.1 does, which pins the virtual thread to its carrier on JDK 21-23.
+ * The virtual thread runs need JDK 21+ and fail in setup on older JDKs; the sources are compiled for Java 8,
+ * so the virtual thread executor is created reflectively.
+ */
+@State(Scope.Benchmark)
+public class RequestExecutorBenchmark {
+
+    private static final int REQUESTS = 2000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int POOL_SIZE = 40;
+    private static final long CONNECTION_TIMEOUT_MILLIS = 5000;
+
+    public enum ExecutorKind {
+        THREAD_POOL,
+        VIRTUAL_THREADS
+    }
+
+    public enum QueryMix {
+        /** 70% of requests query, all queries take 1-5 ms. */
+        FAST(0.7, 0.0),
+        /** 70% of requests query, 2% of the queries are 200 ms reports. */
+        SLOW_TAIL(0.7, 0.02),
+        /** 70% of requests query, 10% of the queries are 200 ms reports. */
+        SLOW_HEAVY(0.7, 0.1);
+
+        private final double queryShare;
+        private final double slowShare;
+
+        QueryMix(double queryShare, double slowShare) {
+            this.queryShare = queryShare;
+            this.slowShare = slowShare;
+        }
+    }
+
+    public enum DriverLocking {
+        NONE,
+        SYNCHRONIZED
+    }
+
+    @Param
+    private ExecutorKind executorKind;
+    @Param
+    private QueryMix queryMix;
+    @Param
+    private DriverLocking driverLocking;
+
+    private ExecutorService executor;
+    private BlockingQueue<Object> connections;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = (executorKind == ExecutorKind.VIRTUAL_THREADS)
+            ? newVirtualThreadExecutor()
+            : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        connections = new ArrayBlockingQueue<>(POOL_SIZE);
+        for (int i = 0; i < POOL_SIZE; ++i) {
+            connections.add(new Object());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void handleRequests(Blackhole blackhole) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        for (int i = 0; i < REQUESTS; ++i) {
+            executor.execute(() -> {
+                try {
+                    handleRequest(blackhole);
+                } catch (InterruptedException | TimeoutException ex) {
+                    throw new IllegalStateException(ex);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void handleRequest(Blackhole blackhole) throws InterruptedException, TimeoutException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // request parsing, serialization and the cache lookups of every request
+        Blackhole.consumeCPU(2000);
+        if (random.nextDouble() >= queryMix.queryShare) {
+            return;
+        }
+
+        Object connection = connections.poll(CONNECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (connection == null) {
+            throw new TimeoutException("Connection is not available, request timed out after " + CONNECTION_TIMEOUT_MILLIS + "ms.");
+        }
+        try {
+            long queryMillis = (random.nextDouble() < queryMix.slowShare) ? 200 : random.nextLong(1, 6);
+            if (driverLocking == DriverLocking.SYNCHRONIZED) {
+                synchronized (connection) {
+                    Thread.sleep(queryMillis);
+                }
+            } else {
+                Thread.sleep(queryMillis);
+            }
+            blackhole.consume(connection);
+        } finally {
+            connections.add(connection);
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Virtual threads require JDK 21 or newer, running on "
+                + System.getProperty("java.version") + ".", ex);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.bugtracking.server.domain;
+
+import com.bugtracking.server.domain.project.Project;
+import com.bugtracking.server.domain.task.Task;
+import com.bugtracking.server.dto.project.NewProjectSpec;
+import com.bugtracking.server.dto.project.ProjectDescription;
+import com.bugtracking.server.dto.task.NewTaskSpec;
+import com.bugtracking.server.dto.task.TaskDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity to description mapping used by detail and list endpoints.
+ */
+@State(Scope.Benchmark)
+public class DescriptionMappingBenchmark {
+
+    private Task task;
+    private Project project;
+
+    @Setup
+    public void setUp() {
+        NewTaskSpec taskSpec = new NewTaskSpec();
+        taskSpec.setProjectId(42L);
+        taskSpec.setName("Crash on startup");
+        taskSpec.setDescription("The application crashes when the configuration file is missing.");
+        taskSpec.setPriority(3);
+        task = new Task(taskSpec);
+        ReflectionTestUtils.setField(task, "id", 1L);
+        ReflectionTestUtils.setField(task, "createdAt", LocalDateTime.of(2018, 3, 1, 12, 0));
+        ReflectionTestUtils.setField(task, "modifiedAt", LocalDateTime.of(2018, 3, 2, 12, 0));
+
+        NewProjectSpec projectSpec = new NewProjectSpec();
+        projectSpec.setName("Bug tracker");
+        projectSpec.setDescription("Issue tracking service.");
+        project = new Project(projectSpec);
+        ReflectionTestUtils.setField(project, "id", 42L);
+        ReflectionTestUtils.setField(project, "createdAt", LocalDateTime.of(2018, 1, 1, 12, 0));
+        ReflectionTestUtils.setField(project, "modifiedAt", LocalDateTime.of(2018, 1, 2, 12, 0));
+    }
+
+    @Benchmark
+    public TaskDescription taskToDescription() {
+        return task.toDescription(new TaskDescription());
+    }
+
+    @Benchmark
+    public ProjectDescription projectToDescription() {
+        return project.toDescription(new ProjectDescription());
+    }
+}
@@ -0,0 +1,186 @@
+package com.bugtracking.server.domain.task;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.bugtracking.server.domain.project.Project;
+import com.bugtracking.server.dto.task.TaskDescription;
+import com.bugtracking.server.utils.BugTrackingMySQLDialect;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Allocation per listed task row of the two ways to read a page of the task listing from an embedded MariaDB:
+ * {@code entityListing} loads managed {@link Task} entities and copies them into descriptions, as the listing did
+ * before, {@code projectionListing} selects the columns straight into {@link TaskDescription} with a constructor
+ * expression, as {@link TaskRepositoryImpl} does now. Both run in a read-only session like the services'
+ * read-only transactions. Run with {@code -prof gc}: {@code gc.alloc.rate.norm} is the allocation per row.
+ */
+@State(Scope.Benchmark)
+public class TaskListingAllocationBenchmark {
+
+    private static final String SCHEMA = "bugtracking_benchmark";
+    private static final int TASKS = 2000;
+    private static final int PAGE_SIZE = 100;
+    private static final String DESCRIPTION = "Steps to reproduce: open the project settings, change the name and save. "
+        + "Expected: the new name is shown in the project list. Actual: the list still shows the old name until "
+        + "the page is reloaded, and the task counters of the project are reset to zero. ";
+    private static final String FROM_PROJECT_TASKS = "FROM Task t WHERE t.projectId = :projectId ORDER BY t.id ASC";
+
+    private DB db;
+    private SessionFactory sessionFactory;
+    private long projectId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File dataDir = Files.createTempDirectory("bugtracking-benchmark-db").toFile();
+        DBConfigurationBuilder dbConfig = DBConfigurationBuilder.newBuilder();
+        dbConfig.setPort(freePort());
+        dbConfig.setDataDir(dataDir.getAbsolutePath());
+        db = DB.newEmbeddedDB(dbConfig.build());
+        db.start();
+        db.createDB(SCHEMA);
+
+        String url = "jdbc:mysql://127.0.0.1:" + dbConfig.getPort() + "/" + SCHEMA + "?useSSL=false";
+        try (Connection connection = DriverManager.getConnection(url, "root", "")) {
+            Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            new Liquibase("db/changelog/db.changelog-master.xml", new ClassLoaderResourceAccessor(), database)
+                .update(new Contexts());
+            // Liquibase leaves auto-commit off
+            connection.setAutoCommit(true);
+            projectId = seed(connection);
+        }
+
+        StandardServiceRegistryBuilder registry = new StandardServiceRegistryBuilder()
+            .applySetting("hibernate.connection.url", url)
+            .applySetting("hibernate.connection.username", "root")
+            .applySetting("hibernate.connection.password", "")
+            .applySetting("hibernate.dialect", BugTrackingMySQLDialect.class.getName())
+            .applySetting("hibernate.id.new_generator_mappings", "false");
+        sessionFactory = new MetadataSources(registry.build())
+            .addAnnotatedClass(Task.class)
+            .addAnnotatedClass(Project.class)
+            .buildMetadata()
+            .buildSessionFactory();
+        try (Session session = sessionFactory.openSession()) {
+            long rows = session.createQuery("SELECT count(t) FROM Task t WHERE t.projectId = :projectId", Long.class)
+                .setParameter("projectId", projectId)
+                .getSingleResult();
+            if (rows < PAGE_SIZE) {
+                throw new IllegalStateException("Seeded " + rows + " tasks, a full page needs " + PAGE_SIZE);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        if (db != null) {
+            db.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void entityListing(Blackhole blackhole) {
+        try (Session session = openReadOnlySession()) {
+            session.beginTransaction();
+            List<Task> tasks = session.createQuery("SELECT t " + FROM_PROJECT_TASKS, Task.class)
+                .setParameter("projectId", projectId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+            for (Task task : tasks) {
+                blackhole.consume(task.toDescription(new TaskDescription()));
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void projectionListing(Blackhole blackhole) {
+        try (Session session = openReadOnlySession()) {
+            session.beginTransaction();
+            List<TaskDescription> tasks = session.createQuery("SELECT new " + TaskDescription.class.getName()
+                + "(t.id, t.projectId, t.name, t.description, t.priority, t.status, t.createdAt, t.modifiedAt, t.version) "
+                + FROM_PROJECT_TASKS, TaskDescription.class)
+                .setParameter("projectId", projectId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+            for (TaskDescription task : tasks) {
+                blackhole.consume(task);
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    /**
+     * Opens a session set up as Spring sets up the session of a read-only transaction.
+     */
+    private Session openReadOnlySession() {
+        Session session = sessionFactory.openSession();
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        return session;
+    }
+
+    private static long seed(Connection connection) throws Exception {
+        long projectId;
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO projects (name, description) VALUES ('Benchmark', 'Task listing benchmark')",
+                Statement.RETURN_GENERATED_KEYS);
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                projectId = keys.getLong(1);
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+            "INSERT INTO tasks (project_id, name, description, priority, status) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < TASKS; ++i) {
+                insert.setLong(1, projectId);
+                insert.setString(2, "Project name is not refreshed after save #" + i);
+                insert.setString(3, DESCRIPTION);
+                insert.setInt(4, 1 + i % 10);
+                insert.setString(5, (i % 2 == 0) ? "NEW" : "IN_PROGRESS");
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        return projectId;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bugtracking.server.domain.task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dynamic JPQL assembly for the task listing: filters and ordering.
+ */
+@State(Scope.Benchmark)
+public class TaskQueryBuilderBenchmark {
+
+    @Param({"NONE", "PROJECT", "ALL"})
+    public String filters;
+
+    private Long projectId;
+    private Set<TaskStatus> statusSet;
+    private Set<Integer> prioritySet;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        if (!"NONE".equals(filters)) {
+            projectId = 42L;
+        }
+        if ("ALL".equals(filters)) {
+            statusSet = EnumSet.of(TaskStatus.NEW, TaskStatus.IN_PROGRESS);
+            prioritySet = new HashSet<>(Arrays.asList(1, 2, 3, 5, 8));
+            startDate = LocalDateTime.of(2018, 1, 1, 0, 0);
+            endDate = startDate.plusMonths(1);
+        }
+        pageable = PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "priority", "modifiedAt"));
+    }
+
+    @Benchmark
+    public String buildListingQuery() {
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        TaskRepositoryImpl.buildWhereQuery(where, params, projectId, statusSet, prioritySet, startDate, endDate);
+
+        StringBuilder query = new StringBuilder("SELECT t FROM Task t");
+        if (!params.isEmpty()) {
+            query.append(" WHERE ").append(where);
+        }
+        TaskRepositoryImpl.buildOrderQuery(query, pageable);
+        return query.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.bugtracking.server.domain.task;
+
+import com.bugtracking.server.domain.project.Project;
+import com.bugtracking.server.utils.BugTrackingMySQLDialect;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Cost of obtaining Hibernate query plans for a stream of task listings with random filter combinations,
+ * filter set sizes and orderings. {@code EXPANDED} builds one OR-chain per filter value, as the listing did
+ * before IN-list padding: the number of distinct query strings exceeds the plan cache and most lookups parse
+ * the query again. {@code CANONICAL} uses the current builder, whose few query strings all stay cached.
+ */
+@State(Scope.Benchmark)
+public class TaskQueryPlanCacheBenchmark {
+
+    private static final int REQUESTS = 16384;
+    private static final int MAX_PRIORITY = 100;
+    private static final int MAX_PRIORITIES_PER_FILTER = 64;
+    private static final List<Sort> SORTS = Arrays.asList(
+        Sort.unsorted(),
+        Sort.by(Sort.Direction.DESC, "id"),
+        Sort.by(Sort.Direction.ASC, "modifiedAt"),
+        Sort.by(Sort.Direction.DESC, "modifiedAt"),
+        Sort.by(Sort.Direction.ASC, "priority", "modifiedAt"),
+        Sort.by(Sort.Direction.DESC, "priority", "modifiedAt")
+    );
+
+    @Param({"EXPANDED", "CANONICAL"})
+    public String shape;
+
+    private SessionFactoryImplementor sessionFactory;
+    private List<ListingRequest> requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        StandardServiceRegistryBuilder registry = new StandardServiceRegistryBuilder()
+            .applySetting("hibernate.dialect", BugTrackingMySQLDialect.class.getName())
+            .applySetting("hibernate.temp.use_jdbc_metadata_defaults", "false")
+            .applySetting("hibernate.id.new_generator_mappings", "false");
+        SessionFactory factory = new MetadataSources(registry.build())
+            .addAnnotatedClass(Task.class)
+            .addAnnotatedClass(Project.class)
+            .buildMetadata()
+            .buildSessionFactory();
+        sessionFactory = factory.unwrap(SessionFactoryImplementor.class);
+
+        Random random = new Random(42);
+        LocalDateTime date = LocalDateTime.of(2018, 1, 1, 0, 0);
+        requests = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; ++i) {
+            ListingRequest request = new ListingRequest();
+            request.projectId = random.nextBoolean() ? 42L : null;
+            request.statusSet = random.nextBoolean() ? EnumSet.of(TaskStatus.NEW, TaskStatus.IN_PROGRESS) : EnumSet.of(TaskStatus.NEW);
+            request.prioritySet = new HashSet<>();
+            int priorities = 1 + random.nextInt(MAX_PRIORITIES_PER_FILTER);
+            while (request.prioritySet.size() < priorities) {
+                request.prioritySet.add(1 + random.nextInt(MAX_PRIORITY));
+            }
+            request.startDate = random.nextBoolean() ? date : null;
+            request.endDate = random.nextBoolean() ? date.plusDays(7) : null;
+            request.pageable = PageRequest.of(0, 100, SORTS.get(random.nextInt(SORTS.size())));
+            requests.add(request);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Object getQueryPlan() {
+        ListingRequest request = requests.get(next);
+        next = (next + 1) % REQUESTS;
+
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        if ("EXPANDED".equals(shape)) {
+            buildExpandedWhere(where, params, request);
+        } else {
+            TaskRepositoryImpl.buildWhereQuery(where, params, request.projectId, request.statusSet, request.prioritySet,
+                request.startDate, request.endDate);
+        }
+        StringBuilder query = new StringBuilder("SELECT t FROM Task t WHERE ").append(where);
+        TaskRepositoryImpl.buildOrderQuery(query, request.pageable);
+        return sessionFactory.getQueryPlanCache().getHQLQueryPlan(query.toString(), false, Collections.emptyMap());
+    }
+
+    private static void buildExpandedWhere(StringBuilder where, Map<String, Object> params, ListingRequest request) {
+        if (request.projectId != null) {
+            where.append("t.projectId = :projectId AND ");
+            params.put("projectId", request.projectId);
+        }
+        appendOrChain(where, params, "t.status", "status", request.statusSet);
+        where.append(" AND ");
+        appendOrChain(where, params, "t.priority", "priority", request.prioritySet);
+        if (request.startDate != null) {
+            where.append(" AND t.modifiedAt >= :startDate");
+            params.put("startDate", request.startDate);
+        }
+        if (request.endDate != null) {
+            where.append(" AND t.modifiedAt <= :endDate");
+            params.put("endDate", request.endDate);
+        }
+    }
+
+    private static void appendOrChain(StringBuilder where, Map<String, Object> params, String property,
+                                      String paramPrefix, Set<?> values) {
+        where.append('(');
+        int i = 0;
+        for (Object value : values) {
+            String paramName = paramPrefix + i;
+            where.append(i == 0 ? "" : " OR ").append(property).append(" = :").append(paramName);
+            params.put(paramName, value);
+            ++i;
+        }
+        where.append(')');
+    }
+
+    private static class ListingRequest {
+
+        private Long projectId;
+        private Set<TaskStatus> statusSet;
+        private Set<Integer> prioritySet;
+        private LocalDateTime startDate;
+        private LocalDateTime endDate;
+        private Pageable pageable;
+    }
+}
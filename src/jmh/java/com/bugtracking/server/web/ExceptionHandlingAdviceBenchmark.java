@@ -0,0 +1,90 @@
+package com.bugtracking.server.web;
+
+import com.bugtracking.server.dto.task.NewTaskSpec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.util.WebUtils;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+/**
+ * Error message formatting of the REST exception handlers.
+ */
+@State(Scope.Benchmark)
+public class ExceptionHandlingAdviceBenchmark {
+
+    private ExceptionHandlingAdvice advice;
+    private MethodArgumentTypeMismatchException typeMismatchException;
+    private MethodArgumentNotValidException argumentNotValidException;
+    private ConstraintViolationException constraintViolationException;
+    private HttpMessageNotReadableException messageNotReadableException;
+
+    @Setup
+    public void setUp() throws Exception {
+        advice = new ExceptionHandlingAdvice();
+
+        MethodParameter parameter = new MethodParameter(
+            ExceptionHandlingAdviceBenchmark.class.getDeclaredMethod("createTask", NewTaskSpec.class, Integer.class), 0);
+        typeMismatchException = new MethodArgumentTypeMismatchException("abc", Integer.class, "limit", parameter, null);
+
+        NewTaskSpec invalidSpec = new NewTaskSpec();
+        invalidSpec.setPriority(0);
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(invalidSpec, "newTaskSpec");
+        bindingResult.rejectValue("priority", "Min", "must be greater than or equal to 1");
+        argumentNotValidException = new MethodArgumentNotValidException(parameter, bindingResult);
+
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        constraintViolationException = new ConstraintViolationException(validator.validate(invalidSpec));
+
+        try {
+            new ObjectMapper().readValue("{\"priority\": \"high\"}", NewTaskSpec.class);
+            throw new IllegalStateException("Invalid task spec has been parsed.");
+        } catch (InvalidFormatException ex) {
+            messageNotReadableException = new HttpMessageNotReadableException("JSON parse error", ex);
+        }
+    }
+
+    @Benchmark
+    public Object formatTypeMismatch() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        advice.handleException(typeMismatchException, request);
+        return request.getAttribute(WebUtils.ERROR_MESSAGE_ATTRIBUTE);
+    }
+
+    @Benchmark
+    public Object formatArgumentNotValid() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        advice.handleException(argumentNotValidException, request);
+        return request.getAttribute(WebUtils.ERROR_MESSAGE_ATTRIBUTE);
+    }
+
+    @Benchmark
+    public Object formatConstraintViolation() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        advice.handleException(constraintViolationException, request);
+        return request.getAttribute(WebUtils.ERROR_MESSAGE_ATTRIBUTE);
+    }
+
+    @Benchmark
+    public Object formatMessageNotReadable() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        advice.handleException(messageNotReadableException, request);
+        return request.getAttribute(WebUtils.ERROR_MESSAGE_ATTRIBUTE);
+    }
+
+    @SuppressWarnings("unused")
+    private void createTask(NewTaskSpec spec, Integer limit) {
+    }
+}
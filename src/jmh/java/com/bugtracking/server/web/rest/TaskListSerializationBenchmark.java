@@ -0,0 +1,77 @@
+package com.bugtracking.server.web.rest;
+
+import com.bugtracking.server.domain.task.TaskStatus;
+import com.bugtracking.server.dto.task.GetTasksDescription;
+import com.bugtracking.server.dto.task.TaskDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON serialization of a task listing response the way the controller produces it,
+ * including the item field filter.
+ */
+@State(Scope.Benchmark)
+public class TaskListSerializationBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"10", "1000", "100000"})
+    public int items;
+
+    private ObjectMapper objectMapper;
+    private MappingJacksonValue fullValue;
+    private MappingJacksonValue summaryValue;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        LocalDateTime now = LocalDateTime.of(2018, 3, 1, 12, 0);
+        List<TaskDescription> tasks = new ArrayList<>(items);
+        for (int i = 0; i < items; ++i) {
+            tasks.add(new TaskDescription(i + 1, 42L, "Task " + i, "Description of task " + i, i % 10 + 1,
+                TaskStatus.values()[i % TaskStatus.values().length], now.minusHours(i), now.minusMinutes(i), 0));
+        }
+        GetTasksDescription description = new GetTasksDescription();
+        description.setItems(tasks);
+        description.setTotal((long) items);
+        description.setNextCursor("MTIzfDQ1Ng");
+
+        fullValue = ItemFieldsFilter.apply(description, null);
+        summaryValue = ItemFieldsFilter.apply(description, TaskDescription.SUMMARY_FIELDS);
+    }
+
+    @Benchmark
+    public void serializeFull() throws IOException {
+        write(fullValue);
+    }
+
+    @Benchmark
+    public void serializeSummary() throws IOException {
+        write(summaryValue);
+    }
+
+    private void write(MappingJacksonValue value) throws IOException {
+        objectMapper.writer(value.getFilters()).writeValue(DISCARD, value.getValue());
+    }
+}
@@ -0,0 +1,83 @@
+package com.bugtracking.server.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal JSON-over-HTTP client; connections are kept alive by the JDK between requests of the same thread.
+ */
+class ApiClient {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final String baseUrl;
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    Response send(String method, String path, String jsonBody) throws IOException {
+        return send(method, path, jsonBody, null);
+    }
+
+    Response send(String method, String path, String jsonBody, String ifMatch) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        if (ifMatch != null) {
+            connection.setRequestProperty("If-Match", ifMatch);
+        }
+        if (jsonBody != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(jsonBody.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        String body = "";
+        if (in != null) {
+            try (InputStream stream = in) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                byte[] chunk = new byte[8192];
+                int read;
+                while ((read = stream.read(chunk)) != -1) {
+                    buffer.write(chunk, 0, read);
+                }
+                body = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+        return new Response(status, body, connection.getHeaderField("ETag"));
+    }
+
+    static class Response {
+
+        final int status;
+        final String body;
+        final String eTag;
+
+        private Response(int status, String body, String eTag) {
+            this.status = status;
+            this.body = body;
+            this.eTag = eTag;
+        }
+
+        boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+
+        Long id() {
+            Matcher matcher = ID.matcher(body);
+            return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bugtracking.server.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * IDs of the projects and tasks the workload can address: the seeded ones plus the ones created during the run.
+ * Closed tasks cannot be updated, so updates only address the open ones.
+ * The first few open seeded tasks are hot, contended operations only address those.
+ */
+class Dataset {
+
+    private final List<Long> projectIds;
+    private final List<Long> taskIds;
+    private final List<Long> openTaskIds;
+    private final List<Long> hotTaskIds;
+
+    Dataset(List<Long> projectIds, List<Long> taskIds, List<Long> openTaskIds, int hotTasks) {
+        this.projectIds = new ArrayList<>(projectIds);
+        this.taskIds = new ArrayList<>(taskIds);
+        this.openTaskIds = new ArrayList<>(openTaskIds);
+        this.hotTaskIds = new ArrayList<>(openTaskIds.subList(0, Math.min(hotTasks, openTaskIds.size())));
+    }
+
+    long randomProjectId() {
+        return random(projectIds);
+    }
+
+    long randomTaskId() {
+        return random(taskIds);
+    }
+
+    long randomOpenTaskId() {
+        return random(openTaskIds);
+    }
+
+    long randomHotTaskId() {
+        return random(hotTaskIds);
+    }
+
+    void addProject(long id) {
+        synchronized (projectIds) {
+            projectIds.add(id);
+        }
+    }
+
+    /**
+     * Registers a created task, which is open.
+     */
+    void addTask(long id) {
+        synchronized (taskIds) {
+            taskIds.add(id);
+        }
+        synchronized (openTaskIds) {
+            openTaskIds.add(id);
+        }
+    }
+
+    private static long random(List<Long> ids) {
+        synchronized (ids) {
+            return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.bugtracking.server.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fills an empty schema with projects and tasks using batched JDBC inserts.
+ */
+class DatasetSeeder {
+
+    private static final String[] STATUSES = {"NEW", "IN_PROGRESS", "CLOSED"};
+    private static final int BATCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbc;
+
+    DatasetSeeder(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    Dataset seed(int projects, int tasksPerProject, int hotTasks) {
+        List<Object[]> projectRows = new ArrayList<>(projects);
+        for (int p = 0; p < projects; ++p) {
+            projectRows.add(new Object[]{"Project_" + p, "Seeded project " + p});
+        }
+        jdbc.batchUpdate("INSERT INTO projects (name, description) VALUES (?, ?)", projectRows);
+        List<Long> projectIds = jdbc.queryForList("SELECT project_id FROM projects ORDER BY project_id", Long.class);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Object[]> taskRows = new ArrayList<>(BATCH_SIZE);
+        for (Long projectId : projectIds) {
+            for (int t = 0; t < tasksPerProject; ++t) {
+                taskRows.add(new Object[]{projectId, "Task_" + t, "Seeded task " + t + " of project " + projectId,
+                    1 + random.nextInt(10), STATUSES[random.nextInt(STATUSES.length)]});
+                if (taskRows.size() == BATCH_SIZE) {
+                    insertTasks(taskRows);
+                }
+            }
+        }
+        insertTasks(taskRows);
+        jdbc.execute("ANALYZE TABLE projects, tasks");
+
+        List<Long> taskIds = jdbc.queryForList("SELECT task_id FROM tasks ORDER BY task_id", Long.class);
+        List<Long> openTaskIds = jdbc.queryForList("SELECT task_id FROM tasks WHERE status <> 'CLOSED' ORDER BY task_id",
+            Long.class);
+        return new Dataset(projectIds, taskIds, openTaskIds, hotTasks);
+    }
+
+    private void insertTasks(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO tasks (project_id, name, description, priority, status) VALUES (?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bugtracking.server.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms (microsecond resolution) and error counters.
+ */
+class LatencyStats {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LatencyStats() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(TimeUnit.MINUTES.toMicros(1), 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean successful) {
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        recorders.get(operation).recordValue(Math.min(micros, TimeUnit.MINUTES.toMicros(1)));
+        if (!successful) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * Drops everything recorded so far, e.g. at the end of the warm-up.
+     */
+    void reset() {
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Prints a summary table and writes the percentile distribution of every operation ({@code <operation>.hgrm})
+     * and a CSV summary into the report directory.
+     */
+    void report(PrintStream out, double elapsedSeconds, File reportDir) throws FileNotFoundException {
+        reportDir.mkdirs();
+        Histogram total = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        long totalErrors = 0;
+
+        String header = String.format(Locale.ROOT, "%-24s %10s %8s %10s %10s %10s %10s %10s",
+            "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        out.println(header);
+        try (PrintStream csv = new PrintStream(new File(reportDir, "summary.csv"))) {
+            csv.println("operation,requests,errors,throughput,p50_ms,p99_ms,p999_ms,max_ms");
+            for (Operation operation : Operation.values()) {
+                Histogram histogram = recorders.get(operation).getIntervalHistogram();
+                long operationErrors = errors.get(operation).sum();
+                if (histogram.getTotalCount() == 0) {
+                    continue;
+                }
+                total.add(histogram);
+                totalErrors += operationErrors;
+                printRow(out, csv, operation.name(), histogram, operationErrors, elapsedSeconds);
+                try (PrintStream hgrm = new PrintStream(new File(reportDir, operation.name() + ".hgrm"))) {
+                    histogram.outputPercentileDistribution(hgrm, MICROS_PER_MILLI);
+                }
+            }
+            printRow(out, csv, "TOTAL", total, totalErrors, elapsedSeconds);
+        }
+    }
+
+    private static void printRow(PrintStream out, PrintStream csv, String name, Histogram histogram, long errors,
+                                 double elapsedSeconds) {
+        double throughput = histogram.getTotalCount() / elapsedSeconds;
+        double p50 = histogram.getValueAtPercentile(50.0) / MICROS_PER_MILLI;
+        double p99 = histogram.getValueAtPercentile(99.0) / MICROS_PER_MILLI;
+        double p999 = histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI;
+        double max = histogram.getMaxValue() / MICROS_PER_MILLI;
+        out.println(String.format(Locale.ROOT, "%-24s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f",
+            name, histogram.getTotalCount(), errors, throughput, p50, p99, p999, max));
+        csv.println(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f",
+            name, histogram.getTotalCount(), errors, throughput, p50, p99, p999, max));
+    }
+}
@@ -0,0 +1,189 @@
+package com.bugtracking.server.loadtest;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.bugtracking.server.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the application against an embedded MariaDB, seeds a dataset and drives a weighted mix of
+ * REST requests in open or closed model, then reports throughput and latency percentiles per operation.
+ * Settings are read from {@code loadtest.properties} and can be overridden with {@code -Dloadtest.*}.
+ */
+public class LoadTest {
+
+    private static final String SCHEMA = "bugtracking_loadtest";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        System.out.println("Load test: " + config);
+
+        File dataDir = Files.createTempDirectory("bugtracking-loadtest-db").toFile();
+        DBConfigurationBuilder dbConfig = DBConfigurationBuilder.newBuilder();
+        dbConfig.setPort(freePort());
+        dbConfig.setDataDir(dataDir.getAbsolutePath());
+        DB db = DB.newEmbeddedDB(dbConfig.build());
+        db.start();
+        ConfigurableApplicationContext context = null;
+        try {
+            db.createDB(SCHEMA);
+            context = startApplication(dbConfig.getPort());
+            String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+
+            System.out.println("Seeding " + config.projects + " projects with " + config.tasksPerProject + " tasks each...");
+            Dataset dataset = new DatasetSeeder(context.getBean(JdbcTemplate.class)).seed(config.projects, config.tasksPerProject,
+                config.hotTasks);
+
+            LatencyStats stats = new LatencyStats();
+            Workload workload = new Workload(config, new ApiClient(baseUrl), dataset, stats);
+            System.out.println("Warming up for " + config.warmupSeconds + "s...");
+            workload.run(config.warmupSeconds);
+            stats.reset();
+            System.out.println("Measuring for " + config.durationSeconds + "s...");
+            double elapsedSeconds = workload.run(config.durationSeconds);
+
+            stats.report(System.out, elapsedSeconds, new File(config.reportDir));
+            System.out.println("Percentile distributions are written to " + new File(config.reportDir).getAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            db.stop();
+        }
+    }
+
+    /**
+     * Adds the settings as the first property source: {@code SpringApplicationBuilder.properties} would only
+     * be defaults, overridden by application.properties.
+     */
+    private static ConfigurableApplicationContext startApplication(int dbPort) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("datasource.baseurl", "jdbc:utf8mb4-mysql://127.0.0.1:" + dbPort);
+        properties.put("datasource.schema", SCHEMA);
+        properties.put("spring.datasource.username", "root");
+        properties.put("spring.datasource.password", "");
+        properties.put("server.port", 0);
+        properties.put("logging.level.root", "WARN");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("loadTest", properties));
+        return new SpringApplicationBuilder(Application.class).environment(environment).run();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Issues requests for a fixed time: back to back per client in closed model,
+     * or at a fixed arrival rate in open model.
+     */
+    static class Workload {
+
+        private final LoadTestConfig config;
+        private final ApiClient client;
+        private final Dataset dataset;
+        private final LatencyStats stats;
+        private final Operation[] weightedOperations;
+
+        Workload(LoadTestConfig config, ApiClient client, Dataset dataset, LatencyStats stats) {
+            this.config = config;
+            this.client = client;
+            this.dataset = dataset;
+            this.stats = stats;
+
+            List<Operation> operations = new ArrayList<>();
+            config.mix.forEach((operation, weight) -> {
+                for (int i = 0; i < weight; ++i) {
+                    operations.add(operation);
+                }
+            });
+            weightedOperations = operations.toArray(new Operation[0]);
+        }
+
+        /**
+         * Runs the workload for the given number of seconds and returns the actual elapsed time in seconds.
+         */
+        double run(int seconds) throws InterruptedException {
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(seconds);
+            ExecutorService executor = Executors.newFixedThreadPool(config.threads);
+            try {
+                if (config.mode == LoadTestConfig.Mode.CLOSED) {
+                    for (int i = 0; i < config.threads; ++i) {
+                        executor.execute(() -> runClosed(end));
+                    }
+                } else {
+                    runOpen(executor, start, end);
+                }
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            return (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+
+        private void runClosed(long end) {
+            while (System.nanoTime() < end) {
+                execute(nextOperation(), System.nanoTime());
+                if (config.thinkTimeMillis > 0) {
+                    try {
+                        Thread.sleep(config.thinkTimeMillis);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Schedules requests at their intended start times. Latency is measured from the intended start,
+         * so time spent queued behind slow requests is not hidden (no coordinated omission).
+         */
+        private void runOpen(ExecutorService executor, long start, long end) throws InterruptedException {
+            long interval = TimeUnit.SECONDS.toNanos(1) / config.rate;
+            for (long intendedStart = start; intendedStart < end; intendedStart += interval) {
+                long delay = intendedStart - System.nanoTime();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                long scheduledAt = intendedStart;
+                Operation operation = nextOperation();
+                executor.execute(() -> execute(operation, scheduledAt));
+            }
+        }
+
+        private void execute(Operation operation, long startedAt) {
+            boolean successful;
+            try {
+                successful = operation.execute(client, dataset).isSuccessful();
+            } catch (IOException ex) {
+                successful = false;
+            }
+            stats.record(operation, System.nanoTime() - startedAt, successful);
+        }
+
+        private Operation nextOperation() {
+            return weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+        }
+    }
+}
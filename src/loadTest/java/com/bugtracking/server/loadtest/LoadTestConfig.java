@@ -0,0 +1,81 @@
+package com.bugtracking.server.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Load test settings from {@code loadtest.properties}, overridden by system properties of the same name.
+ */
+class LoadTestConfig {
+
+    enum Mode {
+        OPEN, CLOSED
+    }
+
+    final int projects;
+    final int tasksPerProject;
+    final int hotTasks;
+    final Mode mode;
+    final int threads;
+    final int rate;
+    final long thinkTimeMillis;
+    final int warmupSeconds;
+    final int durationSeconds;
+    final Map<Operation, Integer> mix;
+    final String reportDir;
+
+    private LoadTestConfig(Properties properties) {
+        projects = Integer.parseInt(properties.getProperty("loadtest.projects").trim());
+        tasksPerProject = Integer.parseInt(properties.getProperty("loadtest.tasks-per-project").trim());
+        hotTasks = Integer.parseInt(properties.getProperty("loadtest.hot-tasks").trim());
+        mode = Mode.valueOf(properties.getProperty("loadtest.mode").trim().toUpperCase());
+        threads = Integer.parseInt(properties.getProperty("loadtest.threads").trim());
+        rate = Integer.parseInt(properties.getProperty("loadtest.rate").trim());
+        thinkTimeMillis = Long.parseLong(properties.getProperty("loadtest.think-time-ms").trim());
+        warmupSeconds = Integer.parseInt(properties.getProperty("loadtest.warmup-seconds").trim());
+        durationSeconds = Integer.parseInt(properties.getProperty("loadtest.duration-seconds").trim());
+        mix = parseMix(properties.getProperty("loadtest.mix"));
+        reportDir = properties.getProperty("loadtest.report-dir").trim();
+    }
+
+    static LoadTestConfig load() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            properties.load(in);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("loadtest.")) {
+                properties.setProperty(name, System.getProperty(name));
+            }
+        }
+        return new LoadTestConfig(properties);
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry '" + entry + "', expected OPERATION:weight.");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix must contain at least one operation with positive weight.");
+        }
+        return mix;
+    }
+
+    @Override
+    public String toString() {
+        return "mode=" + mode + ", threads=" + threads + (mode == Mode.OPEN ? ", rate=" + rate + "/s" : "")
+            + ", warmup=" + warmupSeconds + "s, duration=" + durationSeconds + "s"
+            + ", dataset=" + projects + "x" + tasksPerProject + ", hotTasks=" + hotTasks + ", mix=" + mix;
+    }
+}
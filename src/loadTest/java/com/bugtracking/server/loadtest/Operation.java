@@ -0,0 +1,119 @@
+package com.bugtracking.server.loadtest;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Requests the workload is mixed from. Each operation picks its target from the dataset
+ * and registers the objects it creates, so later requests can address them.
+ */
+enum Operation {
+
+    CREATE_PROJECT {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            ApiClient.Response response = client.send("POST", "/api/projects", projectJson());
+            if (response.isSuccessful() && response.id() != null) {
+                dataset.addProject(response.id());
+            }
+            return response;
+        }
+    },
+    UPDATE_PROJECT {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            return client.send("PUT", "/api/projects/" + dataset.randomProjectId(), projectJson());
+        }
+    },
+    LIST_PROJECTS {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            return client.send("GET", "/api/projects?limit=50&includeTotal=NONE", null);
+        }
+    },
+    PROJECT_DETAILS {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            return client.send("GET", "/api/projects/" + dataset.randomProjectId(), null);
+        }
+    },
+    CREATE_TASK {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            String json = "{\"projectId\":" + dataset.randomProjectId() + "," + taskFieldsJson() + "}";
+            ApiClient.Response response = client.send("POST", "/api/tasks", json);
+            if (response.isSuccessful() && response.id() != null) {
+                dataset.addTask(response.id());
+            }
+            return response;
+        }
+    },
+    UPDATE_TASK {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            String json = "{\"status\":\"IN_PROGRESS\"," + taskFieldsJson() + "}";
+            return client.send("PUT", "/api/tasks/" + dataset.randomOpenTaskId(), json);
+        }
+    },
+    /**
+     * Overwrites one of the few hot tasks, so concurrent clients contend for the same rows.
+     */
+    UPDATE_HOT_TASK {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            String json = "{\"status\":\"IN_PROGRESS\"," + taskFieldsJson() + "}";
+            return client.send("PUT", "/api/tasks/" + dataset.randomHotTaskId(), json);
+        }
+    },
+    /**
+     * Reads one of the hot tasks and updates it only if nobody else has in the meantime.
+     * The updates lost to another client fail with 409 and are reported as errors.
+     */
+    UPDATE_HOT_TASK_IF_MATCH {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            String path = "/api/tasks/" + dataset.randomHotTaskId();
+            ApiClient.Response details = client.send("GET", path, null);
+            if (!details.isSuccessful()) {
+                return details;
+            }
+            String json = "{\"status\":\"IN_PROGRESS\"," + taskFieldsJson() + "}";
+            return client.send("PUT", path, json, details.eTag);
+        }
+    },
+    LIST_TASKS {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            StringBuilder path = new StringBuilder("/api/tasks?limit=50&includeTotal=NONE");
+            if (random.nextBoolean()) {
+                path.append("&projectId=").append(dataset.randomProjectId());
+            }
+            if (random.nextBoolean()) {
+                path.append("&status=NEW&status=IN_PROGRESS");
+            }
+            if (random.nextInt(4) == 0) {
+                path.append("&orderBy=PRIORITY");
+            }
+            return client.send("GET", path.toString(), null);
+        }
+    },
+    TASK_DETAILS {
+        @Override
+        ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException {
+            return client.send("GET", "/api/tasks/" + dataset.randomTaskId(), null);
+        }
+    };
+
+    abstract ApiClient.Response execute(ApiClient client, Dataset dataset) throws IOException;
+
+    private static String projectJson() {
+        return "{\"name\":\"LoadTest_" + UUID.randomUUID() + "\",\"description\":\"Created by load test\"}";
+    }
+
+    private static String taskFieldsJson() {
+        return "\"name\":\"LoadTest_" + UUID.randomUUID() + "\",\"description\":\"Created by load test\","
+            + "\"priority\":" + (1 + ThreadLocalRandom.current().nextInt(10));
+    }
+}
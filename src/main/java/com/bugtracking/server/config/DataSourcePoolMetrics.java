@@ -0,0 +1,126 @@
+package com.bugtracking.server.config;
+
+import com.bugtracking.server.dto.diagnostics.PoolStatsDescription;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects gauges and connection wait times of every Hikari pool in the context.
+ * The tracker factory is attached before the pool starts, so connections borrowed
+ * by Liquibase on startup are counted as well.
+ */
+@Component
+public class DataSourcePoolMetrics implements MetricsTrackerFactory, BeanPostProcessor, Ordered {
+
+    private final Map<String, HikariDataSource> dataSources = new ConcurrentHashMap<>();
+    private final List<Tracker> trackers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource) {
+            HikariDataSource dataSource = (HikariDataSource) bean;
+            dataSource.setMetricsTrackerFactory(this);
+            if (dataSource.getPoolName() != null) {
+                dataSources.put(dataSource.getPoolName(), dataSource);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolName, poolStats, dataSources.get(poolName));
+        trackers.add(tracker);
+        return tracker;
+    }
+
+    public List<PoolStatsDescription> getStats() {
+        List<PoolStatsDescription> stats = new ArrayList<>(trackers.size());
+        for (Tracker tracker : trackers) {
+            stats.add(tracker.getStats());
+        }
+        return stats;
+    }
+
+    private static class Tracker implements IMetricsTracker {
+
+        private final String poolName;
+        private final PoolStats poolStats;
+        private final HikariDataSource dataSource;
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder usages = new LongAdder();
+        private final LongAdder totalUsageMillis = new LongAdder();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        private Tracker(String poolName, PoolStats poolStats, HikariDataSource dataSource) {
+            this.poolName = poolName;
+            this.poolStats = poolStats;
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquisitions.increment();
+            totalWaitNanos.add(elapsedAcquiredNanos);
+            maxWaitNanos.accumulate(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usages.increment();
+            totalUsageMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.incrementAndGet();
+        }
+
+        private PoolStatsDescription getStats() {
+            PoolStatsDescription stats = new PoolStatsDescription();
+            stats.setName(poolName);
+            stats.setActive(poolStats.getActiveConnections());
+            stats.setIdle(poolStats.getIdleConnections());
+            stats.setTotal(poolStats.getTotalConnections());
+            stats.setPending(poolStats.getPendingThreads());
+            if (dataSource != null) {
+                stats.setMaxSize(dataSource.getMaximumPoolSize());
+            }
+
+            long acquired = acquisitions.sum();
+            long used = usages.sum();
+            stats.setAcquisitions(acquired);
+            stats.setTimeouts(timeouts.get());
+            stats.setAverageWaitMillis(acquired == 0 ? 0 : toMillis(totalWaitNanos.sum()) / acquired);
+            stats.setMaxWaitMillis(toMillis(maxWaitNanos.get()));
+            stats.setAverageUsageMillis(used == 0 ? 0 : (double) totalUsageMillis.sum() / used);
+            return stats;
+        }
+
+        private static double toMillis(long nanos) {
+            return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.bugtracking.server.config;
+
+import com.bugtracking.server.dto.diagnostics.StatementStatsDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Wraps the application data source so that every statement execution is timed and counted
+ * per SQL shape (the statement text with literals and parameter lists collapsed).
+ * Statements slower than the configured threshold are logged by their shape together with their bind values,
+ * with string values reduced to their length so task texts do not end up in the log, and statements repeated within a single tracked request are reported as likely N+1 queries.
+ */
+@Component
+public class JdbcInstrumentation implements BeanPostProcessor, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcInstrumentation.class);
+
+    private static final String OTHER_STATEMENTS = "<other statements>";
+    private static final int MAX_LOGGED_VALUE_LENGTH = 100;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern REPEATED_PARAMETER_LISTS = Pattern.compile("\\(\\?\\)(?:\\s*,\\s*\\(\\?\\))+");
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final int repeatedStatementThreshold;
+    private final int maxShapes;
+
+    private final Map<String, ShapeStats> statsByShape = new ConcurrentHashMap<>();
+    private final Map<String, String> shapeBySql = new ConcurrentHashMap<>();
+    private final ThreadLocal<Map<String, Integer>> requestStatements = new ThreadLocal<>();
+
+    public JdbcInstrumentation(@Value("${bugtracking.jdbc.instrumentation.enabled:true}") boolean enabled,
+                               @Value("${bugtracking.jdbc.slow-statement-threshold-ms:200}") long slowThresholdMillis,
+                               @Value("${bugtracking.jdbc.repeated-statement-threshold:10}") int repeatedStatementThreshold,
+                               @Value("${bugtracking.jdbc.max-statement-shapes:1000}") int maxShapes) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DataSource && !(bean instanceof InstrumentedDataSource)) {
+            return new InstrumentedDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+
+    /**
+     * Starts counting statements executed by the current thread.
+     */
+    public void beginRequest() {
+        requestStatements.set(new HashMap<>());
+    }
+
+    /**
+     * Stops counting statements for the current thread and returns the shapes executed at least
+     * {@code bugtracking.jdbc.repeated-statement-threshold} times, with their execution counts.
+     */
+    public Map<String, Integer> endRequest() {
+        Map<String, Integer> executed = requestStatements.get();
+        requestStatements.remove();
+        if (executed == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executed.forEach((shape, count) -> {
+            if (count >= repeatedStatementThreshold) {
+                repeated.put(shape, count);
+                ShapeStats stats = statsByShape.get(shape);
+                if (stats != null) {
+                    stats.repeatedRequests.increment();
+                }
+            }
+        });
+        return repeated;
+    }
+
+    /**
+     * Returns the statement shapes with the highest total execution time first.
+     */
+    public List<StatementStatsDescription> getStats(int limit) {
+        List<StatementStatsDescription> stats = new ArrayList<>(statsByShape.size());
+        statsByShape.forEach((shape, shapeStats) -> stats.add(shapeStats.describe(shape)));
+        stats.sort(Comparator.comparingDouble(StatementStatsDescription::getTotalMillis).reversed());
+        return stats.size() > limit ? new ArrayList<>(stats.subList(0, limit)) : stats;
+    }
+
+    public void resetStats() {
+        statsByShape.clear();
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+        return REPEATED_PARAMETER_LISTS.matcher(shape).replaceAll("(?)");
+    }
+
+    private String shapeOf(String sql) {
+        if (sql == null) {
+            return OTHER_STATEMENTS;
+        }
+        String shape = shapeBySql.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapeBySql.size() < maxShapes) {
+                shapeBySql.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    private ShapeStats statsOf(String shape) {
+        ShapeStats stats = statsByShape.get(shape);
+        if (stats == null) {
+            String key = (statsByShape.size() < maxShapes) ? shape : OTHER_STATEMENTS;
+            stats = statsByShape.computeIfAbsent(key, k -> new ShapeStats());
+        }
+        return stats;
+    }
+
+    private void recordExecution(String shape, ShapeStats stats, long elapsedNanos, long rows,
+                                 Map<Integer, Object> parameters) {
+        stats.record(elapsedNanos, rows);
+
+        Map<String, Integer> executed = requestStatements.get();
+        if (executed != null) {
+            executed.merge(shape, 1, Integer::sum);
+        }
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            stats.slowExecutions.increment();
+            log.warn("Slow statement ({} ms{}): {} parameters {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                rows >= 0 ? ", " + rows + " rows" : "", shape, describeParameters(parameters));
+        }
+    }
+
+    static String describeParameters(Map<Integer, Object> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return "[]";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        parameters.forEach((index, value) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            String text = (value instanceof String) ? "<" + ((String) value).length() + " chars>" : String.valueOf(value);
+            if (text.length() > MAX_LOGGED_VALUE_LENGTH) {
+                text = text.substring(0, MAX_LOGGED_VALUE_LENGTH) + "...";
+            }
+            sb.append(index).append('=').append(text);
+        });
+        return sb.append(']').toString();
+    }
+
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer || result instanceof Long) {
+            return ((Number) result).longValue();
+        }
+        if (result instanceof int[]) {
+            long rows = 0;
+            for (int count : (int[]) result) {
+                rows += Math.max(count, 0);
+            }
+            return rows;
+        }
+        if (result instanceof long[]) {
+            long rows = 0;
+            for (long count : (long[]) result) {
+                rows += Math.max(count, 0);
+            }
+            return rows;
+        }
+        return -1;
+    }
+
+    private static boolean isExecution(String methodName) {
+        return methodName.startsWith("execute");
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private class InstrumentedDataSource extends DelegatingDataSource {
+
+        private InstrumentedDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return instrument(obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return instrument(obtainTargetDataSource().getConnection(username, password));
+        }
+
+        private Connection instrument(Connection connection) {
+            return proxy(Connection.class, new ConnectionHandler(connection));
+        }
+    }
+
+    /**
+     * Base of the JDBC proxies: identity methods refer to the proxy itself, everything else is delegated.
+     */
+    private abstract static class DelegatingHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handle(method, args);
+            }
+        }
+
+        protected abstract Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    private class ConnectionHandler extends DelegatingHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            Object result = JdbcInstrumentation.invoke(target, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall":
+                    return proxy(CallableStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                case "createStatement":
+                    return proxy(Statement.class, new StatementHandler((Statement) result, null));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private class StatementHandler extends DelegatingHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private Map<Integer, Object> parameters;
+        private String batchSql;
+        private ShapeStats lastStats;
+
+        private StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (isExecution(name)) {
+                return execute(method, args);
+            }
+
+            Object result = JdbcInstrumentation.invoke(target, method, args);
+            if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                if (parameters == null) {
+                    parameters = new TreeMap<>();
+                }
+                parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name) && parameters != null) {
+                parameters.clear();
+            } else if ("addBatch".equals(name) && args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0];
+            } else if ("getResultSet".equals(name) && result != null && lastStats != null) {
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, lastStats));
+            }
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String sql = currentSql((args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : null);
+            String shape = shapeOf(sql);
+            ShapeStats stats = statsOf(shape);
+            lastStats = stats;
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = JdbcInstrumentation.invoke(target, method, args);
+            } catch (Throwable ex) {
+                stats.errors.increment();
+                throw ex;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            if (method.getName().contains("Batch")) {
+                batchSql = null;
+            }
+            recordExecution(shape, stats, elapsed, updatedRows(result), parameters);
+
+            if (result instanceof ResultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, stats));
+            }
+            return result;
+        }
+
+        private String currentSql(String executedSql) {
+            if (executedSql != null) {
+                return executedSql;
+            }
+            return preparedSql != null ? preparedSql : batchSql;
+        }
+    }
+
+    private static class ResultSetHandler extends DelegatingHandler {
+
+        private final ResultSet target;
+        private final ShapeStats stats;
+        private long rows;
+        private boolean recorded;
+
+        private ResultSetHandler(ResultSet target, ShapeStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            Object result = JdbcInstrumentation.invoke(target, method, args);
+            String name = method.getName();
+            if ("next".equals(name)) {
+                if (Boolean.TRUE.equals(result)) {
+                    ++rows;
+                } else {
+                    recordRows();
+                }
+            } else if ("close".equals(name)) {
+                recordRows();
+            }
+            return result;
+        }
+
+        private void recordRows() {
+            if (!recorded) {
+                recorded = true;
+                stats.rows.add(rows);
+            }
+        }
+    }
+
+    private static class ShapeStats {
+
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slowExecutions = new LongAdder();
+        private final LongAdder repeatedRequests = new LongAdder();
+
+        private void record(long elapsedNanos, long updatedRows) {
+            executions.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+            if (updatedRows > 0) {
+                rows.add(updatedRows);
+            }
+        }
+
+        private StatementStatsDescription describe(String shape) {
+            long count = executions.sum();
+            double total = toMillis(totalNanos.sum());
+
+            StatementStatsDescription description = new StatementStatsDescription();
+            description.setSql(shape);
+            description.setExecutions(count);
+            description.setTotalMillis(total);
+            description.setAverageMillis(count == 0 ? 0 : total / count);
+            description.setMaxMillis(toMillis(maxNanos.get()));
+            description.setRows(rows.sum());
+            description.setErrors(errors.sum());
+            description.setSlowExecutions(slowExecutions.sum());
+            description.setRepeatedRequests(repeatedRequests.sum());
+            return description;
+        }
+
+        private static double toMillis(long nanos) {
+            return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.bugtracking.server.config;
+
+import com.bugtracking.server.web.RepeatedStatementFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+
+@Configuration
+public class JdbcInstrumentationConfig {
+
+    @Bean
+    public FilterRegistrationBean<RepeatedStatementFilter> repeatedStatementFilter(JdbcInstrumentation jdbcInstrumentation) {
+        FilterRegistrationBean<RepeatedStatementFilter> registration =
+            // the bulk task update selects and updates the same shapes once per chunk
+            new FilterRegistrationBean<>(new RepeatedStatementFilter(jdbcInstrumentation,
+                Collections.singleton("PATCH /api/tasks")));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,119 @@
+package com.bugtracking.server.domain;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Answers row count questions from a bounded cache of previously computed counts.
+ * Stale entries are still served while an exact count is recomputed on a background thread,
+ * so the caller never waits for a count except on the very first request for a query.
+ */
+@Component
+public class CountEstimator {
+
+    private final long ttlMillis;
+    private final Map<String, Estimate> estimates;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "count-estimator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public CountEstimator(@Value("${bugtracking.count-estimate.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${bugtracking.count-estimate.max-entries:1000}") int maxEntries) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.estimates = new LinkedHashMap<String, Estimate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Estimate> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached count for the key, scheduling a background refresh when it is stale.
+     * When nothing is cached yet, the statistics-based estimate is returned if one is given
+     * (and an exact count is scheduled), otherwise the exact count is computed synchronously.
+     */
+    public long estimate(String key, LongSupplier statisticsEstimate, LongSupplier exactCounter) {
+        Estimate estimate;
+        synchronized (estimates) {
+            estimate = estimates.get(key);
+        }
+        if (estimate == null) {
+            if (statisticsEstimate != null) {
+                scheduleRefresh(key, exactCounter);
+                return statisticsEstimate.getAsLong();
+            }
+            long value = exactCounter.getAsLong();
+            store(key, value);
+            return value;
+        }
+        if (System.currentTimeMillis() - estimate.computedAt > ttlMillis) {
+            scheduleRefresh(key, exactCounter);
+        }
+        return estimate.value;
+    }
+
+    /**
+     * Returns the number of rows InnoDB statistics report for the table of the current schema.
+     */
+    public long tableRows(String tableName) {
+        Number rows = (Number) em.createNativeQuery(
+            "SELECT table_rows FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?1")
+            .setParameter(1, tableName)
+            .getSingleResult();
+        return rows == null ? 0 : rows.longValue();
+    }
+
+    private void scheduleRefresh(String key, LongSupplier exactCounter) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                store(key, exactCounter.getAsLong());
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private void store(String key, long value) {
+        synchronized (estimates) {
+            estimates.put(key, new Estimate(value, System.currentTimeMillis()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private static class Estimate {
+
+        private final long value;
+        private final long computedAt;
+
+        private Estimate(long value, long computedAt) {
+            this.value = value;
+            this.computedAt = computedAt;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.bugtracking.server.domain;
+
+import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
+import com.bugtracking.server.dto.diagnostics.CacheStatsDescription;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Bounded read-through cache of object descriptions keyed by object ID.
+ * Entries are evicted in LRU order once the cache is full and expire after the configured TTL.
+ * Cached descriptions are shared between callers and must not be modified.
+ */
+public class DescriptionCache<V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<Long, Entry<V>> entries;
+    // incremented on every invalidation, so a value loaded before an invalidation is never stored after it
+    private long invalidationEpoch;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public DescriptionCache(String name, int maxEntries, long ttlSeconds) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.entries = new LinkedHashMap<Long, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DescriptionCache.Entry<V>> eldest) {
+                if (size() > DescriptionCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached description of the object, loading and caching it on a miss.
+     */
+    public V get(long id, Loader<V> loader) throws ObjectNotFoundException {
+        long epoch;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(id);
+            if (entry != null) {
+                if (System.currentTimeMillis() - entry.loadedAt <= ttlMillis) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                entries.remove(id);
+                evictions.incrementAndGet();
+            }
+            epoch = invalidationEpoch;
+        }
+
+        misses.incrementAndGet();
+        V value = loader.load(id);
+        synchronized (entries) {
+            if (epoch == invalidationEpoch) {
+                entries.put(id, new Entry<>(value, System.currentTimeMillis()));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes the object from the cache once the current transaction commits,
+     * or immediately when there is no transaction.
+     */
+    public void invalidateAfterCommit(long id) {
+        runAfterCommit(() -> {
+            synchronized (entries) {
+                ++invalidationEpoch;
+                entries.remove(id);
+            }
+            invalidations.incrementAndGet();
+        });
+    }
+
+    /**
+     * Removes all cached descriptions matching the predicate once the current transaction commits,
+     * or immediately when there is no transaction.
+     */
+    public void invalidateAfterCommit(Predicate<V> predicate) {
+        runAfterCommit(() -> {
+            int removed = 0;
+            synchronized (entries) {
+                ++invalidationEpoch;
+                for (Iterator<Entry<V>> it = entries.values().iterator(); it.hasNext(); ) {
+                    if (predicate.test(it.next().value)) {
+                        it.remove();
+                        ++removed;
+                    }
+                }
+            }
+            invalidations.addAndGet(removed);
+        });
+    }
+
+    public CacheStatsDescription getStats() {
+        CacheStatsDescription stats = new CacheStatsDescription();
+        stats.setName(name);
+        synchronized (entries) {
+            stats.setSize(entries.size());
+        }
+        stats.setMaxSize(maxEntries);
+        stats.setHits(hits.get());
+        stats.setMisses(misses.get());
+        stats.setEvictions(evictions.get());
+        stats.setInvalidations(invalidations.get());
+        return stats;
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public interface Loader<V> {
+
+        V load(long id) throws ObjectNotFoundException;
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+        private final long loadedAt;
+
+        private Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bugtracking.server.domain;
+
+import com.bugtracking.server.dto.diagnostics.CacheStatsDescription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates the hit ratio of Hibernate's query plan cache, which does not keep statistics itself.
+ * Dynamically built JPQL strings are passed here before they are executed and tracked in an LRU set
+ * of the same capacity as the plan cache, so a hit here means Hibernate reuses a parsed plan.
+ */
+@Component
+public class QueryPlanCacheMonitor {
+
+    private final int maxEntries;
+    private final Map<String, Boolean> queries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public QueryPlanCacheMonitor(@Value("${spring.jpa.properties.hibernate.query.plan_cache_max_size:2048}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.queries = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                if (size() > QueryPlanCacheMonitor.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public void record(String query) {
+        boolean seen;
+        synchronized (queries) {
+            seen = queries.put(query, Boolean.TRUE) != null;
+        }
+        (seen ? hits : misses).incrementAndGet();
+    }
+
+    public CacheStatsDescription getStats() {
+        CacheStatsDescription stats = new CacheStatsDescription();
+        stats.setName("queryPlans");
+        synchronized (queries) {
+            stats.setSize(queries.size());
+        }
+        stats.setMaxSize(maxEntries);
+        stats.setHits(hits.get());
+        stats.setMisses(misses.get());
+        stats.setEvictions(evictions.get());
+        return stats;
+    }
+}
@@ -0,0 +1,6 @@
+package com.bugtracking.server.domain.change;
+
+public enum ChangeEntityType {
+    PROJECT,
+    TASK
+}
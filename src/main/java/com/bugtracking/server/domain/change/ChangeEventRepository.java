@@ -0,0 +1,58 @@
+package com.bugtracking.server.domain.change;
+
+import com.bugtracking.server.dto.change.ChangeEventDescription;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the {@code change_events} outbox. Events are appended by triggers on {@code tasks} and {@code projects}
+ * in the transaction of the change itself, so an event exists exactly when its change has been committed.
+ */
+@Repository
+public class ChangeEventRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Returns up to {@code limit} events with IDs in {@code (afterId, toId]} in ascending ID order.
+     */
+    public List<ChangeEventDescription> findRange(long afterId, long toId, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery("SELECT event_id, entity_type, entity_id, project_id, operation, occurred_at "
+            + "FROM change_events WHERE event_id > ?1 AND event_id <= ?2 ORDER BY event_id ASC")
+            .setParameter(1, afterId)
+            .setParameter(2, toId)
+            .setMaxResults(limit)
+            .getResultList();
+        return rows.stream()
+            .map(row -> new ChangeEventDescription(((Number) row[0]).longValue(), ChangeEntityType.valueOf((String) row[1]),
+                ((Number) row[2]).longValue(), ((Number) row[3]).longValue(), ChangeOperation.valueOf((String) row[4]),
+                ((Timestamp) row[5]).toLocalDateTime()))
+            .collect(Collectors.toList());
+    }
+
+    public long findLastId() {
+        Number lastId = (Number) em.createNativeQuery("SELECT max(event_id) FROM change_events").getSingleResult();
+        return (lastId == null) ? 0 : lastId.longValue();
+    }
+
+    /**
+     * Deletes up to {@code limit} of the oldest events which occurred before the given time.
+     *
+     * @return number of deleted events
+     */
+    @Transactional
+    public int deleteOccurredBefore(LocalDateTime time, int limit) {
+        return em.createNativeQuery("DELETE FROM change_events WHERE occurred_at < ?1 ORDER BY event_id LIMIT " + limit)
+            .setParameter(1, Timestamp.valueOf(time))
+            .executeUpdate();
+    }
+}
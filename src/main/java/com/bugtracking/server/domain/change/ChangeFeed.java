@@ -0,0 +1,374 @@
+package com.bugtracking.server.domain.change;
+
+import com.bugtracking.server.dto.change.ChangeEventDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans the change events of the outbox out to subscribers. A single tailer polls the outbox for events after
+ * the last one it has published, so the database sees one query per poll interval no matter how many
+ * subscribers there are, and none at all while nobody is subscribed.
+ * <p>
+ * Event IDs are assigned at insert but become visible at commit, so a lower ID can show up after a higher one.
+ * The tailer therefore stops in front of a gap in the IDs and only skips it once it has stayed open for
+ * {@code gap-timeout-ms}, which is then most likely a rolled back transaction. A skipped gap is still re-checked
+ * on later polls, at doubling intervals and for up to {@code retention-hours}, and the events of a transaction
+ * which committed after all are published when they show up, after events with higher IDs.
+ * <p>
+ * Each subscriber has a bounded queue drained by a small dispatcher pool, so a slow subscriber never delays
+ * the tailer or the others; one whose queue overflows is dropped and can resume from its last event ID.
+ * Resuming subscribers first read the events they missed from the outbox, then continue with the live ones.
+ */
+@Component
+public class ChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+    private static final int PURGE_BATCH_SIZE = 10000;
+    private static final int MAX_SKIPPED_GAPS = 10000;
+
+    private final ChangeEventRepository changeEventRepository;
+    private final int batchSize;
+    private final long gapTimeoutMillis;
+    private final int maxPendingEvents;
+    private final long retentionHours;
+    private final Executor dispatcher;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Object tailLock = new Object();
+    // skipped gaps by their first event ID, guarded by tailLock
+    private final TreeMap<Long, SkippedGap> skippedGaps = new TreeMap<>();
+
+    // ID of the last published event, -1 while nobody is subscribed
+    private long tailPosition = -1;
+    private long gapSince;
+
+    @Autowired
+    public ChangeFeed(ChangeEventRepository changeEventRepository,
+                      @Value("${bugtracking.changes.batch-size:500}") int batchSize,
+                      @Value("${bugtracking.changes.gap-timeout-ms:10000}") long gapTimeoutMillis,
+                      @Value("${bugtracking.changes.max-pending-events:10000}") int maxPendingEvents,
+                      @Value("${bugtracking.changes.retention-hours:168}") long retentionHours,
+                      @Value("${bugtracking.changes.dispatcher-threads:4}") int dispatcherThreads) {
+        this(changeEventRepository, batchSize, gapTimeoutMillis, maxPendingEvents, retentionHours,
+            newDispatcher(dispatcherThreads));
+    }
+
+    ChangeFeed(ChangeEventRepository changeEventRepository, int batchSize, long gapTimeoutMillis,
+               int maxPendingEvents, long retentionHours, Executor dispatcher) {
+        this.changeEventRepository = changeEventRepository;
+        this.batchSize = batchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.maxPendingEvents = maxPendingEvents;
+        this.retentionHours = retentionHours;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Subscribes the listener to the events after {@code cursor}, or to the events from now on when no cursor is given.
+     */
+    public Subscription subscribe(Long cursor, ChangeListener listener) {
+        synchronized (tailLock) {
+            if (tailPosition < 0) {
+                tailPosition = changeEventRepository.findLastId();
+                gapSince = 0;
+            }
+            Subscription subscription = new Subscription(listener, (cursor == null) ? tailPosition : cursor, tailPosition);
+            subscriptions.add(subscription);
+            if (subscription.delivered < subscription.catchUpTo) {
+                subscription.signal();
+            }
+            return subscription;
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @Scheduled(fixedDelayString = "${bugtracking.changes.poll-interval-ms:500}")
+    public void poll() {
+        synchronized (tailLock) {
+            if (subscriptions.isEmpty()) {
+                tailPosition = -1;
+                skippedGaps.clear();
+                return;
+            }
+            if (tailPosition < 0) {
+                tailPosition = changeEventRepository.findLastId();
+            }
+
+            int ready;
+            do {
+                List<ChangeEventDescription> events = changeEventRepository.findRange(tailPosition, Long.MAX_VALUE, batchSize);
+                ready = countReady(events);
+                if (ready > 0) {
+                    List<ChangeEventDescription> published = events.subList(0, ready);
+                    tailPosition = published.get(ready - 1).getId();
+                    for (Subscription subscription : subscriptions) {
+                        subscription.offer(published);
+                    }
+                }
+            } while (ready == batchSize);
+            recheckSkippedGaps();
+        }
+    }
+
+    /**
+     * Deletes events older than the retention period. Subscribers resuming from an older cursor
+     * continue with the oldest event still kept.
+     */
+    @Scheduled(initialDelayString = "${bugtracking.changes.purge-interval-ms:3600000}",
+        fixedDelayString = "${bugtracking.changes.purge-interval-ms:3600000}")
+    public void purgeExpiredEvents() {
+        LocalDateTime threshold = LocalDateTime.now().minusHours(retentionHours);
+        int deleted;
+        long total = 0;
+        do {
+            deleted = changeEventRepository.deleteOccurredBefore(threshold, PURGE_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+        if (total > 0) {
+            log.info("Purged {} change events which occurred before {}", total, threshold);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher instanceof ExecutorService) {
+            ((ExecutorService) dispatcher).shutdownNow();
+        }
+    }
+
+    /**
+     * Returns how many of the leading events directly follow the tail position without a gap,
+     * counting past a gap which has been open for longer than the gap timeout.
+     */
+    private int countReady(List<ChangeEventDescription> events) {
+        long expectedId = tailPosition + 1;
+        int ready = 0;
+        for (ChangeEventDescription event : events) {
+            if (event.getId() != expectedId) {
+                long now = System.currentTimeMillis();
+                if (gapSince == 0) {
+                    gapSince = now;
+                }
+                if (now - gapSince < gapTimeoutMillis) {
+                    break;
+                }
+                log.debug("Skipping change event IDs {} to {} which have not been committed in {} ms",
+                    expectedId, event.getId() - 1, gapTimeoutMillis);
+                skippedGaps.put(expectedId, new SkippedGap(event.getId() - 1, now, gapTimeoutMillis));
+                if (skippedGaps.size() > MAX_SKIPPED_GAPS) {
+                    Map.Entry<Long, SkippedGap> oldest = skippedGaps.pollFirstEntry();
+                    log.warn("No longer re-checking skipped change event IDs {} to {}, more than {} gaps are open",
+                        oldest.getKey(), oldest.getValue().lastId, MAX_SKIPPED_GAPS);
+                }
+            }
+            gapSince = 0;
+            expectedId = event.getId() + 1;
+            ++ready;
+        }
+        return ready;
+    }
+
+    /**
+     * Looks for events in the skipped gaps which are due to be checked and publishes the ones found.
+     * Gaps are forgotten once their events would have been purged anyway.
+     */
+    private void recheckSkippedGaps() {
+        long now = System.currentTimeMillis();
+        long expiredBefore = now - TimeUnit.HOURS.toMillis(retentionHours);
+        skippedGaps.values().removeIf(gap -> gap.skippedAt < expiredBefore);
+
+        List<Map.Entry<Long, SkippedGap>> dueGaps = new ArrayList<>();
+        for (Map.Entry<Long, SkippedGap> entry : skippedGaps.entrySet()) {
+            if (entry.getValue().nextCheckAt <= now) {
+                dueGaps.add(entry);
+            }
+        }
+        for (Map.Entry<Long, SkippedGap> entry : dueGaps) {
+            long firstId = entry.getKey();
+            SkippedGap gap = entry.getValue();
+            gap.scheduleNextCheck(now);
+            List<ChangeEventDescription> events = changeEventRepository.findRange(firstId - 1, gap.lastId, batchSize);
+            if (events.isEmpty()) {
+                continue;
+            }
+
+            // the IDs around the events found stay open
+            skippedGaps.remove(firstId);
+            long nextId = firstId;
+            for (ChangeEventDescription event : events) {
+                if (event.getId() > nextId) {
+                    skippedGaps.put(nextId, gap.split(event.getId() - 1));
+                }
+                nextId = event.getId() + 1;
+            }
+            if (nextId <= gap.lastId) {
+                skippedGaps.put(nextId, gap.split(gap.lastId));
+            }
+            log.info("Publishing {} change events with IDs {} to {} which were committed after their gap was skipped",
+                events.size(), events.get(0).getId(), events.get(events.size() - 1).getId());
+            for (Subscription subscription : subscriptions) {
+                subscription.offerLate(events);
+            }
+        }
+    }
+
+    private static ExecutorService newDispatcher(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-dispatcher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Event IDs up to {@code lastId} which were skipped at {@code skippedAt}, keyed by the first ID.
+     */
+    private static class SkippedGap {
+
+        private final long lastId;
+        private final long skippedAt;
+        private long checkInterval;
+        private long nextCheckAt;
+
+        private SkippedGap(long lastId, long skippedAt, long checkInterval) {
+            this.lastId = lastId;
+            this.skippedAt = skippedAt;
+            this.checkInterval = checkInterval;
+            this.nextCheckAt = skippedAt + checkInterval;
+        }
+
+        private void scheduleNextCheck(long now) {
+            checkInterval *= 2;
+            nextCheckAt = now + checkInterval;
+        }
+
+        private SkippedGap split(long lastId) {
+            SkippedGap gap = new SkippedGap(lastId, skippedAt, checkInterval);
+            gap.nextCheckAt = nextCheckAt;
+            return gap;
+        }
+    }
+
+    public class Subscription {
+
+        private final ChangeListener listener;
+        private final BlockingQueue<ChangeEventDescription> pending = new ArrayBlockingQueue<>(maxPendingEvents);
+        // events found in skipped gaps, delivered regardless of the position of the subscription
+        private final Queue<ChangeEventDescription> latePending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final long catchUpTo;
+        private volatile boolean cancelled;
+        // guarded by the scheduled flag, only one drain of a subscription runs at a time
+        private long delivered;
+
+        private Subscription(ChangeListener listener, long delivered, long catchUpTo) {
+            this.listener = listener;
+            this.delivered = delivered;
+            this.catchUpTo = catchUpTo;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            pending.clear();
+            latePending.clear();
+        }
+
+        private void offer(List<ChangeEventDescription> events) {
+            for (ChangeEventDescription event : events) {
+                if (!pending.offer(event)) {
+                    log.warn("Dropping change feed subscriber which has {} undelivered events", pending.size());
+                    drop();
+                    return;
+                }
+            }
+            signal();
+        }
+
+        private void offerLate(List<ChangeEventDescription> events) {
+            latePending.addAll(events);
+            signal();
+        }
+
+        private void signal() {
+            if (!cancelled && scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (delivered < catchUpTo) {
+                    catchUp();
+                }
+                List<ChangeEventDescription> events = new ArrayList<>(pending.size());
+                pending.drainTo(events);
+                events.removeIf(event -> event.getId() <= delivered);
+                long lastId = events.isEmpty() ? delivered : events.get(events.size() - 1).getId();
+                for (ChangeEventDescription event = latePending.poll(); event != null; event = latePending.poll()) {
+                    events.add(event);
+                }
+                if (!events.isEmpty() && !cancelled) {
+                    listener.onEvents(events);
+                    delivered = lastId;
+                }
+            } catch (Exception ex) {
+                log.debug("Dropping change feed subscriber which failed to receive events", ex);
+                drop();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!pending.isEmpty() || !latePending.isEmpty()) {
+                signal();
+            }
+        }
+
+        /**
+         * Delivers the events published before the subscription from the outbox itself.
+         */
+        private void catchUp() throws Exception {
+            List<ChangeEventDescription> events;
+            do {
+                events = changeEventRepository.findRange(delivered, catchUpTo, batchSize);
+                if (!events.isEmpty() && !cancelled) {
+                    listener.onEvents(events);
+                    delivered = events.get(events.size() - 1).getId();
+                }
+            } while (events.size() == batchSize && !cancelled);
+            delivered = Math.max(delivered, catchUpTo);
+        }
+
+        private void drop() {
+            if (!cancelled) {
+                cancel();
+                listener.onDropped();
+            }
+        }
+    }
+}
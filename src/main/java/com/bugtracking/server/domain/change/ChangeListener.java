@@ -0,0 +1,21 @@
+package com.bugtracking.server.domain.change;
+
+import com.bugtracking.server.dto.change.ChangeEventDescription;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface ChangeListener {
+
+    /**
+     * Receives the next events of the subscription in ascending ID order. Calls for one subscription never overlap.
+     * A thrown exception drops the subscription.
+     */
+    void onEvents(List<ChangeEventDescription> events) throws IOException;
+
+    /**
+     * Called when the feed drops the subscription because the subscriber failed or could not keep up.
+     * The subscriber can resume from the ID of the last event it has received.
+     */
+    void onDropped();
+}
@@ -0,0 +1,7 @@
+package com.bugtracking.server.domain.change;
+
+public enum ChangeOperation {
+    CREATED,
+    UPDATED,
+    DELETED
+}
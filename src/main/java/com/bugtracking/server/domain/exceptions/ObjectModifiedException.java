@@ -0,0 +1,23 @@
+package com.bugtracking.server.domain.exceptions;
+
+public class ObjectModifiedException extends Exception {
+
+    public final String objectType;
+    public final Object objectId;
+    public final Object expectedVersion;
+
+    public ObjectModifiedException(String objectType, Object objectId, Object expectedVersion) {
+        super(generateMessage(objectType, objectId, expectedVersion));
+        this.objectType = objectType;
+        this.objectId = objectId;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public ObjectModifiedException(Class objectType, Object objectId, Object expectedVersion) {
+        this(objectType.getSimpleName(), objectId, expectedVersion);
+    }
+
+    private static String generateMessage(String objectType, Object objectId, Object expectedVersion) {
+        return objectType + " with ID " + objectId + " has been modified since version " + expectedVersion + ".";
+    }
+}
@@ -2,6 +2,7 @@ package com.bugtracking.server.domain.project;
 
 import com.bugtracking.server.dto.project.NewProjectSpec;
 import com.bugtracking.server.dto.project.ProjectDescription;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -12,7 +13,11 @@ import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
+/**
+ * Updates write only the columns which have changed, so renaming a project leaves its description out of the statement.
+ */
 @Entity
+@DynamicUpdate
 @Table(name = "projects")
 public class Project {
 
@@ -34,6 +39,9 @@ public class Project {
     @Column(name = "modified_at", insertable = false, updatable = false)
     private LocalDateTime modifiedAt;
 
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public Project(NewProjectSpec spec) {
         name = spec.getName();
         description = spec.getDescription();
@@ -46,6 +54,14 @@ public class Project {
         return id;
     }
 
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+
+    public void markDeleted() {
+        deletedAt = LocalDateTime.now();
+    }
+
     public void setName(String name) {
         this.name = name;
     }
@@ -1,30 +1,33 @@
 package com.bugtracking.server.domain.project;
 
-import com.bugtracking.server.domain.exceptions.ObjectAlreadyExistsException;
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
 import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
+import com.bugtracking.server.domain.task.TaskDescriptionCache;
 import com.bugtracking.server.dto.project.NewProjectSpec;
+import com.bugtracking.server.dto.project.PartialProjectSpec;
 import com.bugtracking.server.dto.project.ProjectSpec;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
+import java.util.Set;
 
 @Component
 public class ProjectCommandsFactory {
 
     private ProjectRepository projectRepository;
+    private ProjectDescriptionCache projectDescriptionCache;
+    private TaskDescriptionCache taskDescriptionCache;
+    private ProjectDeletionRepository projectDeletionRepository;
 
-    public ProjectCommandsFactory(ProjectRepository projectRepository) {
+    public ProjectCommandsFactory(ProjectRepository projectRepository, ProjectDescriptionCache projectDescriptionCache,
+                                  TaskDescriptionCache taskDescriptionCache,
+                                  ProjectDeletionRepository projectDeletionRepository) {
         this.projectRepository = projectRepository;
-    }
-
-    private void checkProjectNameUniqueness(String name, Long projectId) throws ObjectAlreadyExistsException {
-        Project existingProject = projectRepository.findByName(name);
-        if (existingProject != null && !existingProject.getId().equals(projectId)) {
-            throw new ObjectAlreadyExistsException(Project.class, Collections.singletonMap("name", name), existingProject.getId());
-        }
+        this.projectDescriptionCache = projectDescriptionCache;
+        this.taskDescriptionCache = taskDescriptionCache;
+        this.projectDeletionRepository = projectDeletionRepository;
     }
 
     public class CreateProjectCommand {
@@ -35,52 +38,106 @@ public class ProjectCommandsFactory {
             this.projectRepository = projectRepository;
         }
 
+        /**
+         * Inserts the project, relying on the unique index on its name:
+         * a duplicate name fails the flush with {@link org.springframework.dao.DataIntegrityViolationException}.
+         */
         @Transactional
-        public Project createProject(NewProjectSpec spec) throws ObjectAlreadyExistsException {
-            checkProjectNameUniqueness(spec.getName(), null);
+        public Project createProject(NewProjectSpec spec) {
             Project project = new Project(spec);
-            return projectRepository.save(project);
+            return projectRepository.saveAndFlush(project);
         }
     }
 
     public class UpdateProjectCommand {
 
         private ProjectRepository projectRepository;
+        private ProjectDescriptionCache projectDescriptionCache;
 
-        public UpdateProjectCommand(ProjectRepository projectRepository) {
+        public UpdateProjectCommand(ProjectRepository projectRepository, ProjectDescriptionCache projectDescriptionCache) {
             this.projectRepository = projectRepository;
+            this.projectDescriptionCache = projectDescriptionCache;
         }
 
+        /**
+         * Updates the project, relying on the unique index on its name:
+         * a duplicate name fails the flush with {@link org.springframework.dao.DataIntegrityViolationException}.
+         */
         @Transactional
-        public Project updateProject(long projectId, ProjectSpec spec) throws ObjectNotFoundException, ObjectAlreadyExistsException {
+        public Project updateProject(long projectId, ProjectSpec spec) throws ObjectNotFoundException {
             Project project = projectRepository.findById(projectId).orElse(null);
-            if (project == null) {
+            if (project == null || project.isDeleted()) {
                 throw new ObjectNotFoundException(Project.class, projectId);
             }
-            checkProjectNameUniqueness(spec.getName(), projectId);
 
             project.setName(spec.getName());
             project.setDescription(spec.getDescription());
 
-            return projectRepository.save(project);
+            projectDescriptionCache.invalidateAfterCommit(projectId);
+            return projectRepository.saveAndFlush(project);
+        }
+
+        /**
+         * Updates only the properties present in the spec. The project is updated dynamically,
+         * so the statement writes only the columns which have actually changed.
+         */
+        @Transactional
+        public Project patchProject(long projectId, PartialProjectSpec spec) throws ObjectNotFoundException {
+            Set<String> supplied = spec.getSuppliedFields();
+            if (supplied.contains("name") && spec.getName() == null) {
+                throw new InvalidRequestException("Field 'name' can not be null.");
+            }
+            if (supplied.isEmpty()) {
+                throw new InvalidRequestException("Either name or description must be specified.");
+            }
+            Project project = projectRepository.findById(projectId).orElse(null);
+            if (project == null || project.isDeleted()) {
+                throw new ObjectNotFoundException(Project.class, projectId);
+            }
+
+            if (supplied.contains("name")) {
+                project.setName(spec.getName());
+            }
+            if (supplied.contains("description")) {
+                project.setDescription(spec.getDescription());
+            }
+
+            projectDescriptionCache.invalidateAfterCommit(projectId);
+            return projectRepository.saveAndFlush(project);
         }
     }
 
     public class DeleteProjectCommand {
 
         private ProjectRepository projectRepository;
+        private ProjectDescriptionCache projectDescriptionCache;
+        private TaskDescriptionCache taskDescriptionCache;
+        private ProjectDeletionRepository projectDeletionRepository;
 
-        public DeleteProjectCommand(ProjectRepository projectRepository) {
+        public DeleteProjectCommand(ProjectRepository projectRepository, ProjectDescriptionCache projectDescriptionCache,
+                                    TaskDescriptionCache taskDescriptionCache,
+                                    ProjectDeletionRepository projectDeletionRepository) {
             this.projectRepository = projectRepository;
+            this.projectDescriptionCache = projectDescriptionCache;
+            this.taskDescriptionCache = taskDescriptionCache;
+            this.projectDeletionRepository = projectDeletionRepository;
         }
 
+        /**
+         * Marks the project as deleted, which hides it and its tasks from all reads, frees its name and records
+         * the project DELETED change event. The tasks and the project row are purged afterwards by {@link ProjectPurger}.
+         */
         @Transactional
         public void deleteProject(long projectId) throws ObjectNotFoundException {
             Project project = projectRepository.findById(projectId).orElse(null);
-            if (project == null) {
+            if (project == null || project.isDeleted()) {
                 throw new ObjectNotFoundException(Project.class, projectId);
             }
-            projectRepository.delete(project);
+            projectDescriptionCache.invalidateAfterCommit(projectId);
+            taskDescriptionCache.invalidateAfterCommit(task -> task.getProjectId() == projectId);
+            project.markDeleted();
+            projectRepository.saveAndFlush(project);
+            projectDeletionRepository.insert(projectId);
         }
     }
 
@@ -93,12 +150,13 @@ public class ProjectCommandsFactory {
     @Bean
     @Scope("prototype")
     private ProjectCommandsFactory.UpdateProjectCommand updateProjectCommand() {
-        return new ProjectCommandsFactory.UpdateProjectCommand(projectRepository);
+        return new ProjectCommandsFactory.UpdateProjectCommand(projectRepository, projectDescriptionCache);
     }
 
     @Bean
     @Scope("prototype")
     private ProjectCommandsFactory.DeleteProjectCommand deleteProjectCommand() {
-        return new ProjectCommandsFactory.DeleteProjectCommand(projectRepository);
+        return new ProjectCommandsFactory.DeleteProjectCommand(projectRepository, projectDescriptionCache,
+            taskDescriptionCache, projectDeletionRepository);
     }
 }
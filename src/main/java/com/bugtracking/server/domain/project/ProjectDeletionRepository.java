@@ -0,0 +1,106 @@
+package com.bugtracking.server.domain.project;
+
+import com.bugtracking.server.dto.project.ProjectDeletionDescription;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tracks the deletions of projects in the {@code project_deletions} table. A deleted project is only marked
+ * as such, its tasks are purged afterwards in small batches and the project row itself goes last,
+ * so no statement ever locks more than one batch of tasks.
+ */
+@Repository
+public class ProjectDeletionRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Records the deletion request with the number of tasks the project has, taken from the task counters.
+     */
+    @Transactional
+    public void insert(long projectId) {
+        em.createNativeQuery("INSERT INTO project_deletions (project_id, total_tasks) "
+            + "SELECT ?1, COALESCE(SUM(task_count), 0) FROM task_counters WHERE project_id = ?1")
+            .setParameter(1, projectId)
+            .executeUpdate();
+    }
+
+    public Optional<ProjectDeletionDescription> findByProjectId(long projectId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery("SELECT project_id, total_tasks, deleted_tasks, requested_at, completed_at "
+            + "FROM project_deletions WHERE project_id = ?1")
+            .setParameter(1, projectId)
+            .getResultList();
+        return rows.stream()
+            .map(row -> new ProjectDeletionDescription(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                ((Number) row[2]).longValue(), ((Timestamp) row[3]).toLocalDateTime(),
+                (row[4] == null) ? null : ((Timestamp) row[4]).toLocalDateTime()))
+            .findFirst();
+    }
+
+    /**
+     * Returns the project of the oldest deletion which has not been completed yet.
+     */
+    public Optional<Long> findNextPending() {
+        @SuppressWarnings("unchecked")
+        List<Number> rows = em.createNativeQuery("SELECT project_id FROM project_deletions WHERE completed_at IS NULL "
+            + "ORDER BY requested_at ASC, project_id ASC")
+            .setMaxResults(1)
+            .getResultList();
+        return rows.stream().map(Number::longValue).findFirst();
+    }
+
+    /**
+     * Deletes up to {@code limit} tasks of the project, first from {@code tasks} and then from the archive,
+     * and adds them to the progress of its deletion.
+     *
+     * @return number of deleted tasks
+     */
+    @Transactional
+    public int deleteTasks(long projectId, int limit) {
+        int deleted = em.createNativeQuery("DELETE FROM tasks WHERE project_id = ?1 ORDER BY task_id LIMIT " + limit)
+            .setParameter(1, projectId)
+            .executeUpdate();
+        if (deleted < limit) {
+            deleted += em.createNativeQuery("DELETE FROM tasks_archive WHERE project_id = ?1 ORDER BY task_id LIMIT " + (limit - deleted))
+                .setParameter(1, projectId)
+                .executeUpdate();
+        }
+        if (deleted > 0) {
+            em.createNativeQuery("UPDATE project_deletions SET deleted_tasks = deleted_tasks + ?2 WHERE project_id = ?1")
+                .setParameter(1, projectId)
+                .setParameter(2, deleted)
+                .executeUpdate();
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the task counters and activity of the project, which the purged tasks left untouched, then the project
+     * row, together with any task which was added while its deletion was in progress, and marks the deletion completed.
+     * Neither this nor the purged tasks record change events, the project DELETED event has been recorded
+     * when the project was marked deleted.
+     */
+    @Transactional
+    public void complete(long projectId) {
+        em.createNativeQuery("DELETE FROM task_counters WHERE project_id = ?1")
+            .setParameter(1, projectId)
+            .executeUpdate();
+        em.createNativeQuery("DELETE FROM task_activity WHERE project_id = ?1")
+            .setParameter(1, projectId)
+            .executeUpdate();
+        em.createNativeQuery("DELETE FROM projects WHERE project_id = ?1")
+            .setParameter(1, projectId)
+            .executeUpdate();
+        em.createNativeQuery("UPDATE project_deletions SET completed_at = CURRENT_TIMESTAMP(3) WHERE project_id = ?1")
+            .setParameter(1, projectId)
+            .executeUpdate();
+    }
+}
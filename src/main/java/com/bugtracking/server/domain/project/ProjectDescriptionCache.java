@@ -0,0 +1,15 @@
+package com.bugtracking.server.domain.project;
+
+import com.bugtracking.server.domain.DescriptionCache;
+import com.bugtracking.server.dto.project.ProjectDescription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProjectDescriptionCache extends DescriptionCache<ProjectDescription> {
+
+    public ProjectDescriptionCache(@Value("${bugtracking.details-cache.max-entries:10000}") int maxEntries,
+                                   @Value("${bugtracking.details-cache.ttl-seconds:30}") long ttlSeconds) {
+        super("projects", maxEntries, ttlSeconds);
+    }
+}
@@ -0,0 +1,46 @@
+package com.bugtracking.server.domain.project;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Purges the tasks of deleted projects, one batch per run. Each batch is deleted in its own short
+ * transaction and the pause between runs throttles the purge, so deleting a large project holds row locks
+ * on {@code tasks} only for one batch at a time and leaves the undo log time to be purged.
+ * Projects are processed one after the other in the order their deletion was requested.
+ */
+@Component
+public class ProjectPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectPurger.class);
+
+    private ProjectDeletionRepository projectDeletionRepository;
+    private int batchSize;
+
+    public ProjectPurger(ProjectDeletionRepository projectDeletionRepository,
+                         @Value("${bugtracking.project-deletion.batch-size:1000}") int batchSize) {
+        this.projectDeletionRepository = projectDeletionRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return whether there was a pending deletion to work on
+     */
+    @Scheduled(fixedDelayString = "${bugtracking.project-deletion.batch-interval-ms:200}")
+    public boolean purgeNextBatch() {
+        Long projectId = projectDeletionRepository.findNextPending().orElse(null);
+        if (projectId == null) {
+            return false;
+        }
+
+        int deleted = projectDeletionRepository.deleteTasks(projectId, batchSize);
+        if (deleted < batchSize) {
+            projectDeletionRepository.complete(projectId);
+            log.info("Deletion of project {} is completed", projectId);
+        }
+        return true;
+    }
+}
@@ -1,8 +1,30 @@
 package com.bugtracking.server.domain.project;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public interface ProjectRepository extends JpaRepository<Project, Long>, ProjectRepositoryCustom {
 
-    Project findByName(String name);
+    @Query("SELECT p FROM Project p WHERE p.name = :name AND p.deletedAt IS NULL")
+    Project findByName(@Param("name") String name);
+
+    @Query("SELECT p.id FROM Project p WHERE p.id IN :ids AND p.deletedAt IS NULL")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.modifiedAt FROM Project p WHERE p.id = :id AND p.deletedAt IS NULL")
+    Optional<LocalDateTime> findModifiedAtById(@Param("id") long id);
+
+    @Query("SELECT p.id FROM Project p WHERE p.id > :afterId AND p.deletedAt IS NULL ORDER BY p.id ASC")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT count(p) > 0 FROM Project p WHERE p.id = :id AND p.deletedAt IS NULL")
+    boolean existsLiveById(@Param("id") long id);
 }
@@ -1,9 +1,22 @@
 package com.bugtracking.server.domain.project;
 
+import com.bugtracking.server.dto.project.ProjectDescription;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Optional;
+import java.util.Set;
 
 public interface ProjectRepositoryCustom {
 
     Page<Project> findAllByFilters(Pageable pageable);
+
+    Slice<Project> findSliceByFilters(Pageable pageable);
+
+    Slice<ProjectDescription> findDescriptionSliceByFilters(Set<String> fields, Pageable pageable);
+
+    Optional<ProjectDescription> findDescriptionById(long id);
+
+    long countByFilters(boolean estimated);
 }
@@ -1,22 +1,52 @@
 package com.bugtracking.server.domain.project;
 
+import com.bugtracking.server.domain.CountEstimator;
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
+import com.bugtracking.server.dto.project.ProjectDescription;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 
 import javax.persistence.EntityManager;
-import javax.persistence.Query;
+import javax.persistence.FlushModeType;
 import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 public class ProjectRepositoryImpl implements ProjectRepositoryCustom {
 
+    private static final String COUNT_QUERY = "SELECT count(1) FROM Project p WHERE p.deletedAt IS NULL";
+    private static final String DESCRIPTION_SELECT = "SELECT new " + ProjectDescription.class.getName()
+        + "(p.id, p.name, p.description, p.createdAt, p.modifiedAt) ";
+    private static final Map<String, BiConsumer<ProjectDescription, Object>> DESCRIPTION_FIELDS = new LinkedHashMap<>();
+
+    static {
+        DESCRIPTION_FIELDS.put("id", (description, value) -> description.setId((Long) value));
+        DESCRIPTION_FIELDS.put("name", (description, value) -> description.setName((String) value));
+        DESCRIPTION_FIELDS.put("description", (description, value) -> description.setDescription((String) value));
+        DESCRIPTION_FIELDS.put("createdAt", (description, value) -> description.setCreatedAt((LocalDateTime) value));
+        DESCRIPTION_FIELDS.put("modifiedAt", (description, value) -> description.setModifiedAt((LocalDateTime) value));
+    }
+
     private EntityManager em;
+    private CountEstimator countEstimator;
 
-    public ProjectRepositoryImpl(EntityManager em) {
+    public ProjectRepositoryImpl(EntityManager em, CountEstimator countEstimator) {
         this.em = em;
+        this.countEstimator = countEstimator;
     }
 
     @Override
@@ -25,22 +55,96 @@ public class ProjectRepositoryImpl implements ProjectRepositoryCustom {
             pageable = PageRequest.of(0, 1000);
         }
 
-        StringBuilder queryBuilder = new StringBuilder("FROM Project p ");
-        TypedQuery<Number> countQuery = em.createQuery("SELECT count(1) " + queryBuilder.toString(), Number.class);
+        Slice<Project> projectSlice = findSliceByFilters(pageable);
+        long total = pageable.getOffset() + projectSlice.getNumberOfElements();
+        if (!projectSlice.hasContent() || projectSlice.hasNext()) {
+            total = countByFilters(false);
+        }
+
+        return new PageImpl<>(projectSlice.getContent(), pageable, total);
+    }
+
+    @Override
+    public Slice<Project> findSliceByFilters(Pageable pageable) {
+        return findSlice("", Project.class, pageable);
+    }
+
+    /**
+     * Returns descriptions of the projects. When {@code fields} are given, only those columns, the ID and
+     * the modification time are selected, the rest of the description properties are left unset.
+     */
+    @Override
+    public Slice<ProjectDescription> findDescriptionSliceByFilters(Set<String> fields, Pageable pageable) {
+        if (fields == null) {
+            return findSlice(DESCRIPTION_SELECT, ProjectDescription.class, pageable);
+        }
+
+        List<String> selectedFields = new ArrayList<>();
+        for (String field : DESCRIPTION_FIELDS.keySet()) {
+            if (fields.contains(field) || "id".equals(field) || "modifiedAt".equals(field)) {
+                selectedFields.add(field);
+            }
+        }
+        for (String field : fields) {
+            if (!DESCRIPTION_FIELDS.containsKey(field)) {
+                throw new InvalidRequestException("Unknown project field '" + field + "'.");
+            }
+        }
+
+        String select = selectedFields.stream().map(field -> "p." + field).collect(Collectors.joining(", ", "SELECT ", " "));
+        Function<Object[], ProjectDescription> mapper = row -> {
+            ProjectDescription description = new ProjectDescription();
+            for (int i = 0; i < row.length; ++i) {
+                DESCRIPTION_FIELDS.get(selectedFields.get(i)).accept(description, row[i]);
+            }
+            return description;
+        };
+        // a single selected column comes back as a plain value rather than an array
+        if (selectedFields.size() == 1) {
+            return findSlice(select, Object.class, pageable).map(value -> mapper.apply(new Object[]{value}));
+        }
+        return findSlice(select, Object[].class, pageable).map(mapper);
+    }
+
+    @Override
+    public Optional<ProjectDescription> findDescriptionById(long id) {
+        TypedQuery<ProjectDescription> query = em.createQuery(DESCRIPTION_SELECT + "FROM Project p WHERE p.id = :id AND p.deletedAt IS NULL",
+            ProjectDescription.class);
+        query.setFlushMode(FlushModeType.COMMIT);
+        query.setParameter("id", id);
+        return query.getResultList().stream().findFirst();
+    }
+
+    private <T> Slice<T> findSlice(String select, Class<T> resultClass, Pageable pageable) {
+        if (pageable == null) {
+            pageable = PageRequest.of(0, 1000);
+        }
+
+        StringBuilder queryBuilder = new StringBuilder(select).append("FROM Project p WHERE p.deletedAt IS NULL ");
         buildOrderQuery(queryBuilder, pageable);
 
-        Query query = em.createQuery(queryBuilder.toString());
+        TypedQuery<T> query = em.createQuery(queryBuilder.toString(), resultClass);
+        query.setFlushMode(FlushModeType.COMMIT);
         query.setFirstResult((int) pageable.getOffset());
-        query.setMaxResults(pageable.getPageSize());
+        // one extra row tells whether there is a next page without counting
+        query.setMaxResults(pageable.getPageSize() + 1);
 
-        @SuppressWarnings("unchecked")
-        List<Project> projectList = query.getResultList();
-        long total = pageable.getOffset() + projectList.size();
-        if (projectList.isEmpty() || projectList.size() == 0 || projectList.size() == pageable.getPageSize()) {
-            total = countQuery.getSingleResult().longValue();
+        List<T> resultList = query.getResultList();
+        boolean hasNext = resultList.size() > pageable.getPageSize();
+        if (hasNext) {
+            resultList = resultList.subList(0, pageable.getPageSize());
         }
 
-        return new PageImpl(projectList, pageable, total);
+        return new SliceImpl<>(resultList, pageable, hasNext);
+    }
+
+    @Override
+    public long countByFilters(boolean estimated) {
+        LongSupplier exactCounter = () -> em.createQuery(COUNT_QUERY, Number.class).getSingleResult().longValue();
+        if (!estimated) {
+            return exactCounter.getAsLong();
+        }
+        return countEstimator.estimate(COUNT_QUERY, () -> countEstimator.tableRows("projects"), exactCounter);
     }
 
     private void buildOrderQuery(StringBuilder queryBuilder, Pageable pageable) {
@@ -0,0 +1,58 @@
+package com.bugtracking.server.domain.task;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A closed task which {@link TaskArchiver} has moved out of {@code tasks}. Archived tasks are never modified,
+ * the properties are named as those of {@link Task}, so the same queries run against both tables.
+ */
+@Entity
+@Table(name = "tasks_archive")
+public class ArchivedTask {
+
+    @Id
+    @Column(name = "task_id")
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "description", length = 65535, columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "priority", nullable = false)
+    private int priority;
+
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "status", nullable = false, columnDefinition = "enum")
+    private TaskStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "modified_at", nullable = false)
+    private LocalDateTime modifiedAt;
+
+    @Column(name = "version", nullable = false)
+    private int version;
+
+    ArchivedTask() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+}
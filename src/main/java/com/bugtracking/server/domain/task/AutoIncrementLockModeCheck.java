@@ -0,0 +1,31 @@
+package com.bugtracking.server.domain.task;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Refuses to start against a server whose InnoDB may interleave the auto-increment values of concurrent
+ * multi-row inserts. {@link TaskRepositoryImpl#insertAll} reads the IDs of a batch as the consecutive block
+ * starting at the first generated one, which InnoDB only guarantees with {@code innodb_autoinc_lock_mode}
+ * 0 (traditional) or 1 (consecutive). MySQL 8 defaults to 2 (interleaved) and has to be configured with 1.
+ */
+@Component
+public class AutoIncrementLockModeCheck implements SmartInitializingSingleton {
+
+    private static final int INTERLEAVED_LOCK_MODE = 2;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int lockMode = ((Number) em.createNativeQuery("SELECT @@innodb_autoinc_lock_mode").getSingleResult()).intValue();
+        if (lockMode == INTERLEAVED_LOCK_MODE) {
+            throw new IllegalStateException("innodb_autoinc_lock_mode is 2 (interleaved), concurrent batch task creations "
+                + "could return IDs of each other's tasks. Set innodb_autoinc_lock_mode = 1 in the MySQL configuration.");
+        }
+    }
+}
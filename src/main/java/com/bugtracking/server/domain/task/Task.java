@@ -11,6 +11,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 @Entity
@@ -44,6 +45,10 @@ public class Task {
     @Column(name = "modified_at", insertable = false, updatable = false)
     private LocalDateTime modifiedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+
     public Task(NewTaskSpec spec) {
         projectId = spec.getProjectId();
         name = spec.getName();
@@ -59,6 +64,22 @@ public class Task {
         return id;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
@@ -88,6 +109,7 @@ public class Task {
         taskDescription.setStatus(status);
         taskDescription.setCreatedAt(createdAt);
         taskDescription.setModifiedAt(modifiedAt);
+        taskDescription.setVersion(version);
         return taskDescription;
     }
 }
@@ -0,0 +1,51 @@
+package com.bugtracking.server.domain.task;
+
+import com.bugtracking.server.dto.ActivityBucket;
+import com.bugtracking.server.dto.project.ActivityBucketDescription;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the {@code task_activity} rollup, which holds the numbers of tasks created and modified
+ * per project and hour. Triggers on {@code tasks} add every insert and every update which changes
+ * the modification time to the row of its hour, so a range of buckets is read from the primary key
+ * instead of being aggregated from the tasks.
+ */
+@Repository
+public class TaskActivityRepository {
+
+    // the rollup of a project stays until the deleted project is purged
+    private static final String LIVE_PROJECT_FILTER =
+        "AND project_id NOT IN (SELECT project_id FROM projects WHERE deleted_at IS NOT NULL) ";
+    private static final String HOUR_QUERY = "SELECT bucket_start, created_count, modified_count FROM task_activity "
+        + "WHERE project_id = ?1 AND bucket_start >= ?2 AND bucket_start < ?3 " + LIVE_PROJECT_FILTER + "ORDER BY bucket_start";
+    private static final String DAY_QUERY = "SELECT CAST(DATE(bucket_start) AS DATETIME) AS day_start, "
+        + "SUM(created_count), SUM(modified_count) FROM task_activity "
+        + "WHERE project_id = ?1 AND bucket_start >= ?2 AND bucket_start < ?3 " + LIVE_PROJECT_FILTER + "GROUP BY day_start ORDER BY day_start";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Returns the non-empty buckets starting within {@code [from, to)} in chronological order.
+     */
+    public List<ActivityBucketDescription> findByProjectId(long projectId, ActivityBucket bucket,
+                                                           LocalDateTime from, LocalDateTime to) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(bucket == ActivityBucket.HOUR ? HOUR_QUERY : DAY_QUERY)
+            .setParameter(1, projectId)
+            .setParameter(2, Timestamp.valueOf(from))
+            .setParameter(3, Timestamp.valueOf(to))
+            .getResultList();
+        return rows.stream()
+            .map(row -> new ActivityBucketDescription(((Timestamp) row[0]).toLocalDateTime(),
+                ((Number) row[1]).longValue(), ((Number) row[2]).longValue()))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,72 @@
+package com.bugtracking.server.domain.task;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves closed tasks from {@code tasks} to {@code tasks_archive}. Each batch is copied and deleted in one
+ * transaction, so a task is always in exactly one of the tables, and the delete triggers on {@code tasks}
+ * recognize the moved rows and leave the counters and the change feed alone.
+ */
+@Repository
+public class TaskArchiveRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Moves up to {@code limit} tasks which were closed before the given time, oldest first.
+     *
+     * @return number of moved tasks
+     */
+    @Transactional
+    public int moveClosedBefore(LocalDateTime closedBefore, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Number> rows = em.createNativeQuery("SELECT task_id FROM tasks WHERE status = 'CLOSED' AND modified_at < ?1 "
+            + "ORDER BY modified_at, task_id LIMIT " + limit + " FOR UPDATE")
+            .setParameter(1, Timestamp.valueOf(closedBefore))
+            .getResultList();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = rows.stream().map(Number::longValue).collect(Collectors.toList());
+        em.createNativeQuery("INSERT INTO tasks_archive (task_id, project_id, name, description, priority, status, created_at, modified_at, version) "
+            + "SELECT task_id, project_id, name, description, priority, status, created_at, modified_at, version FROM tasks WHERE task_id IN (?1)")
+            .setParameter(1, ids)
+            .executeUpdate();
+        return em.createNativeQuery("DELETE FROM tasks WHERE task_id IN (?1)")
+            .setParameter(1, ids)
+            .executeUpdate();
+    }
+
+    /**
+     * Raises the auto-increment counter of {@code tasks} above the IDs of the archived tasks. MySQL 5.7 recomputes
+     * the counter from the highest ID left in {@code tasks} when it restarts, which is below the archived IDs once
+     * the newest tasks have been archived or deleted, and would then hand out the ID of an archived task again.
+     *
+     * @return true if the counter had to be raised
+     */
+    @Transactional
+    public boolean raiseTaskIdFloor() {
+        Number maxArchivedId = (Number) em.createNativeQuery("SELECT MAX(task_id) FROM tasks_archive").getSingleResult();
+        if (maxArchivedId == null) {
+            return false;
+        }
+        Number nextId = (Number) em.createNativeQuery("SELECT AUTO_INCREMENT FROM information_schema.TABLES "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'tasks'")
+            .getSingleResult();
+        if (nextId != null && nextId.longValue() > maxArchivedId.longValue()) {
+            return false;
+        }
+        em.createNativeQuery("ALTER TABLE tasks AUTO_INCREMENT = " + (maxArchivedId.longValue() + 1)).executeUpdate();
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bugtracking.server.domain.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves tasks which have been closed for longer than {@code closed-age-days} to the archive, one batch per run.
+ * Listings of open tasks then only read the hot {@code tasks} table and its indexes, which stay as small as the
+ * working set, while task details, closed task listings, search and export read both tables.
+ * Archived tasks keep their IDs, so at startup the ID counter of {@code tasks} is raised above them if needed.
+ */
+@Component
+public class TaskArchiver implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiver.class);
+
+    private TaskArchiveRepository taskArchiveRepository;
+    private int batchSize;
+    private long closedAgeDays;
+
+    public TaskArchiver(TaskArchiveRepository taskArchiveRepository,
+                        @Value("${bugtracking.task-archive.batch-size:1000}") int batchSize,
+                        @Value("${bugtracking.task-archive.closed-age-days:30}") long closedAgeDays) {
+        this.taskArchiveRepository = taskArchiveRepository;
+        this.batchSize = batchSize;
+        this.closedAgeDays = closedAgeDays;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (taskArchiveRepository.raiseTaskIdFloor()) {
+            log.info("Raised the task ID counter above the IDs of the archived tasks");
+        }
+    }
+
+    /**
+     * @return number of archived tasks
+     */
+    @Scheduled(fixedDelayString = "${bugtracking.task-archive.batch-interval-ms:1000}")
+    public int archiveNextBatch() {
+        int moved = taskArchiveRepository.moveClosedBefore(LocalDateTime.now().minusDays(closedAgeDays), batchSize);
+        if (moved > 0) {
+            log.debug("Archived {} closed tasks", moved);
+        }
+        return moved;
+    }
+}
@@ -1,25 +1,39 @@
 package com.bugtracking.server.domain.task;
 
 import com.bugtracking.server.domain.exceptions.InvalidRequestException;
+import com.bugtracking.server.domain.exceptions.ObjectModifiedException;
 import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
 import com.bugtracking.server.domain.project.Project;
 import com.bugtracking.server.domain.project.ProjectRepository;
 import com.bugtracking.server.dto.task.NewTaskSpec;
+import com.bugtracking.server.dto.task.PartialTaskSpec;
+import com.bugtracking.server.dto.task.TaskDescription;
+import com.bugtracking.server.dto.task.TaskPatchSpec;
 import com.bugtracking.server.dto.task.TaskSpec;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Component
 public class TaskCommandsFactory {
 
     private TaskRepository taskRepository;
     private ProjectRepository projectRepository;
+    private TaskDescriptionCache taskDescriptionCache;
 
-    public TaskCommandsFactory(TaskRepository taskRepository, ProjectRepository projectRepository) {
+    public TaskCommandsFactory(TaskRepository taskRepository, ProjectRepository projectRepository,
+                               TaskDescriptionCache taskDescriptionCache) {
         this.taskRepository = taskRepository;
         this.projectRepository = projectRepository;
+        this.taskDescriptionCache = taskDescriptionCache;
     }
 
     public class CreateTaskCommand {
@@ -35,7 +49,7 @@ public class TaskCommandsFactory {
         @Transactional
         public Task createTask(NewTaskSpec spec) throws ObjectNotFoundException {
             Project project = projectRepository.findById(spec.getProjectId()).orElse(null);
-            if (project == null) {
+            if (project == null || project.isDeleted()) {
                 throw new ObjectNotFoundException(Project.class, spec.getProjectId());
             }
             Task task = new Task(spec);
@@ -43,47 +57,151 @@ public class TaskCommandsFactory {
         }
     }
 
+    public class CreateTasksCommand {
+
+        private TaskRepository taskRepository;
+        private ProjectRepository projectRepository;
+
+        public CreateTasksCommand(TaskRepository taskRepository, ProjectRepository projectRepository) {
+            this.taskRepository = taskRepository;
+            this.projectRepository = projectRepository;
+        }
+
+        @Transactional
+        public List<Long> createTasks(List<NewTaskSpec> specs) throws ObjectNotFoundException {
+            Set<Long> projectIds = specs.stream().map(NewTaskSpec::getProjectId).collect(Collectors.toSet());
+            Set<Long> existingProjectIds = projectRepository.findExistingIds(projectIds);
+            for (Long projectId : projectIds) {
+                if (!existingProjectIds.contains(projectId)) {
+                    throw new ObjectNotFoundException(Project.class, projectId);
+                }
+            }
+
+            List<Task> tasks = specs.stream().map(Task::new).collect(Collectors.toList());
+            return taskRepository.insertAll(tasks);
+        }
+    }
+
     public class UpdateTaskCommand {
 
         private TaskRepository taskRepository;
+        private TaskDescriptionCache taskDescriptionCache;
 
-        public UpdateTaskCommand(TaskRepository taskRepository) {
+        public UpdateTaskCommand(TaskRepository taskRepository, TaskDescriptionCache taskDescriptionCache) {
             this.taskRepository = taskRepository;
+            this.taskDescriptionCache = taskDescriptionCache;
         }
 
+        /**
+         * Updates the task with a single conditional statement. Only when it matches no row the task is read
+         * to tell a missing task from a closed one and from one modified since {@code expectedVersion}.
+         */
         @Transactional
-        public Task updateTask(long taskId, TaskSpec spec) throws ObjectNotFoundException {
-            Task task = taskRepository.findById(taskId).orElse(null);
-            if (task == null) {
-                throw new ObjectNotFoundException(Task.class, taskId);
+        public void updateTask(long taskId, Integer expectedVersion, TaskSpec spec)
+            throws ObjectNotFoundException, ObjectModifiedException {
+            Map<String, Object> changes = new LinkedHashMap<>();
+            changes.put("name", spec.getName());
+            changes.put("description", spec.getDescription());
+            changes.put("priority", spec.getPriority());
+            changes.put("status", spec.getStatus());
+            update(taskId, expectedVersion, changes);
+        }
+
+        /**
+         * Updates only the properties present in the spec, the statement leaves the other columns alone.
+         */
+        @Transactional
+        public void patchTask(long taskId, Integer expectedVersion, PartialTaskSpec spec)
+            throws ObjectNotFoundException, ObjectModifiedException {
+            Set<String> supplied = spec.getSuppliedFields();
+            Map<String, Object> changes = new LinkedHashMap<>();
+            if (supplied.contains("name")) {
+                changes.put("name", requireValue("name", spec.getName()));
+            }
+            if (supplied.contains("description")) {
+                changes.put("description", spec.getDescription());
+            }
+            if (supplied.contains("priority")) {
+                changes.put("priority", requireValue("priority", spec.getPriority()));
+            }
+            if (supplied.contains("status")) {
+                changes.put("status", requireValue("status", spec.getStatus()));
+            }
+            if (changes.isEmpty()) {
+                throw new InvalidRequestException("At least one of name, description, priority or status must be specified.");
             }
-            if (task.getStatus() == TaskStatus.CLOSED) {
-                throw new InvalidRequestException("You can not modify closed task.");
+            update(taskId, expectedVersion, changes);
+        }
+
+        private void update(long taskId, Integer expectedVersion, Map<String, Object> changes)
+            throws ObjectNotFoundException, ObjectModifiedException {
+            int updated = taskRepository.updateIfModifiable(taskId, expectedVersion, changes);
+            if (updated == 0) {
+                // archived tasks are found as well, they are all closed
+                TaskDescription task = taskRepository.findDescriptionById(taskId)
+                    .orElseThrow(() -> new ObjectNotFoundException(Task.class, taskId));
+                if (task.getStatus() == TaskStatus.CLOSED) {
+                    throw new InvalidRequestException("You can not modify closed task.");
+                }
+                throw new ObjectModifiedException(Task.class, taskId, expectedVersion);
             }
+            taskDescriptionCache.invalidateAfterCommit(taskId);
+        }
 
-            task.setName(spec.getName());
-            task.setDescription(spec.getDescription());
-            task.setPriority(spec.getPriority());
-            task.setStatus(spec.getStatus());
+        private Object requireValue(String field, Object value) {
+            if (value == null) {
+                throw new InvalidRequestException("Field '" + field + "' can not be null.");
+            }
+            return value;
+        }
+    }
 
-            return taskRepository.save(task);
+    public class UpdateTasksCommand {
+
+        private TaskRepository taskRepository;
+        private TaskDescriptionCache taskDescriptionCache;
+
+        public UpdateTasksCommand(TaskRepository taskRepository, TaskDescriptionCache taskDescriptionCache) {
+            this.taskRepository = taskRepository;
+            this.taskDescriptionCache = taskDescriptionCache;
+        }
+
+        @Transactional
+        public int updateTasks(List<Long> taskIds, Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                               LocalDateTime startDate, LocalDateTime endDate, TaskPatchSpec patch) {
+            taskIds.forEach(taskDescriptionCache::invalidateAfterCommit);
+            return taskRepository.updateByFilters(taskIds, projectId, statusSet, prioritySet, startDate, endDate,
+                patch.getStatus(), patch.getPriority());
         }
     }
 
     public class DeleteTaskCommand {
 
         private TaskRepository taskRepository;
+        private ProjectRepository projectRepository;
+        private TaskDescriptionCache taskDescriptionCache;
 
-        public DeleteTaskCommand(TaskRepository taskRepository) {
+        public DeleteTaskCommand(TaskRepository taskRepository, ProjectRepository projectRepository,
+                                 TaskDescriptionCache taskDescriptionCache) {
             this.taskRepository = taskRepository;
+            this.projectRepository = projectRepository;
+            this.taskDescriptionCache = taskDescriptionCache;
         }
 
         @Transactional
         public void deleteTask(long taskId) throws ObjectNotFoundException {
             Task task = taskRepository.findById(taskId).orElse(null);
             if (task == null) {
+                if (taskRepository.deleteArchivedById(taskId) == 0) {
+                    throw new ObjectNotFoundException(Task.class, taskId);
+                }
+                taskDescriptionCache.invalidateAfterCommit(taskId);
+                return;
+            }
+            if (!projectRepository.existsLiveById(task.getProjectId())) {
                 throw new ObjectNotFoundException(Task.class, taskId);
             }
+            taskDescriptionCache.invalidateAfterCommit(taskId);
             taskRepository.delete(task);
         }
     }
@@ -94,15 +212,27 @@ public class TaskCommandsFactory {
         return new TaskCommandsFactory.CreateTaskCommand(taskRepository, projectRepository);
     }
 
+    @Bean
+    @Scope("prototype")
+    private TaskCommandsFactory.CreateTasksCommand createTasksCommand() {
+        return new TaskCommandsFactory.CreateTasksCommand(taskRepository, projectRepository);
+    }
+
     @Bean
     @Scope("prototype")
     private TaskCommandsFactory.UpdateTaskCommand updateTaskCommand() {
-        return new TaskCommandsFactory.UpdateTaskCommand(taskRepository);
+        return new TaskCommandsFactory.UpdateTaskCommand(taskRepository, taskDescriptionCache);
+    }
+
+    @Bean
+    @Scope("prototype")
+    private TaskCommandsFactory.UpdateTasksCommand updateTasksCommand() {
+        return new TaskCommandsFactory.UpdateTasksCommand(taskRepository, taskDescriptionCache);
     }
 
     @Bean
     @Scope("prototype")
     private TaskCommandsFactory.DeleteTaskCommand deleteTaskCommand() {
-        return new TaskCommandsFactory.DeleteTaskCommand(taskRepository);
+        return new TaskCommandsFactory.DeleteTaskCommand(taskRepository, projectRepository, taskDescriptionCache);
     }
 }
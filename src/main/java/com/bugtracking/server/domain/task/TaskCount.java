@@ -0,0 +1,35 @@
+package com.bugtracking.server.domain.task;
+
+/**
+ * Number of tasks of a project with the given status and priority.
+ */
+public class TaskCount {
+
+    private final long projectId;
+    private final TaskStatus status;
+    private final int priority;
+    private final long count;
+
+    public TaskCount(long projectId, TaskStatus status, int priority, long count) {
+        this.projectId = projectId;
+        this.status = status;
+        this.priority = priority;
+        this.count = count;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
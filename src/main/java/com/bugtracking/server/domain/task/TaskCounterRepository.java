@@ -0,0 +1,77 @@
+package com.bugtracking.server.domain.task;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the {@code task_counters} table, which holds the number of tasks per project, status and priority.
+ * The counters are maintained by triggers on {@code tasks} and {@code tasks_archive}, so every statement changing
+ * tasks, including the multi-row inserts and bulk updates, adjusts them within its own transaction.
+ * Moving a task to the archive leaves them unchanged.
+ */
+@Repository
+public class TaskCounterRepository {
+
+    private static final String COUNT_TASKS = "SELECT project_id, status, priority, count(1) FROM ("
+        + "SELECT project_id, status, priority FROM tasks WHERE project_id = ?1 "
+        + "UNION ALL SELECT project_id, status, priority FROM tasks_archive WHERE project_id = ?1"
+        + ") t GROUP BY project_id, status, priority";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Returns the non-zero counters of the projects, leaving out the projects which are being deleted.
+     */
+    public List<TaskCount> findByProjectIds(Collection<Long> projectIds) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+            "SELECT project_id, status, priority, task_count FROM task_counters WHERE project_id IN (?1) AND task_count <> 0 "
+            + "AND project_id NOT IN (SELECT project_id FROM projects WHERE deleted_at IS NOT NULL)")
+            .setParameter(1, projectIds)
+            .getResultList();
+        return toTaskCounts(rows);
+    }
+
+    /**
+     * Counts the tasks of the project from the {@code tasks} and {@code tasks_archive} tables themselves.
+     */
+    public List<TaskCount> countTasksByProjectId(long projectId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(COUNT_TASKS)
+            .setParameter(1, projectId)
+            .getResultList();
+        return toTaskCounts(rows);
+    }
+
+    /**
+     * Recomputes the counters of the project from its tasks. The tasks are read with a locking read,
+     * so writes to the project's tasks wait for the rebuild instead of being lost by it.
+     */
+    @Transactional
+    public void rebuildByProjectId(long projectId) {
+        em.createNativeQuery("INSERT INTO task_counters (project_id, status, priority, task_count) "
+            + COUNT_TASKS + " "
+            + "ON DUPLICATE KEY UPDATE task_count = VALUES(task_count)")
+            .setParameter(1, projectId)
+            .executeUpdate();
+        em.createNativeQuery("UPDATE task_counters c SET c.task_count = 0 WHERE c.project_id = ?1 AND c.task_count <> 0 "
+            + "AND NOT EXISTS (SELECT 1 FROM tasks t WHERE t.project_id = c.project_id AND t.status = c.status AND t.priority = c.priority) "
+            + "AND NOT EXISTS (SELECT 1 FROM tasks_archive t WHERE t.project_id = c.project_id AND t.status = c.status AND t.priority = c.priority)")
+            .setParameter(1, projectId)
+            .executeUpdate();
+    }
+
+    private static List<TaskCount> toTaskCounts(List<Object[]> rows) {
+        return rows.stream()
+            .map(row -> new TaskCount(((Number) row[0]).longValue(), TaskStatus.valueOf((String) row[1]),
+                ((Number) row[2]).intValue(), ((Number) row[3]).longValue()))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,62 @@
+package com.bugtracking.server.domain.task;
+
+import com.bugtracking.server.domain.project.ProjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically compares the task counters of every project with the actual number of its tasks
+ * and rebuilds the counters of the projects which have drifted, e.g. because tasks were loaded
+ * while the counter triggers had been dropped.
+ */
+@Component
+public class TaskCountersReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskCountersReconciler.class);
+    private static final int PROJECT_BATCH_SIZE = 100;
+
+    private ProjectRepository projectRepository;
+    private TaskCounterRepository taskCounterRepository;
+
+    public TaskCountersReconciler(ProjectRepository projectRepository, TaskCounterRepository taskCounterRepository) {
+        this.projectRepository = projectRepository;
+        this.taskCounterRepository = taskCounterRepository;
+    }
+
+    /**
+     * @return number of projects whose counters have been repaired
+     */
+    @Scheduled(initialDelayString = "${bugtracking.task-counters.reconcile-interval-ms:3600000}",
+        fixedDelayString = "${bugtracking.task-counters.reconcile-interval-ms:3600000}")
+    public int reconcile() {
+        int repaired = 0;
+        long lastProjectId = 0;
+        List<Long> projectIds;
+        do {
+            projectIds = projectRepository.findIdsAfter(lastProjectId, PageRequest.of(0, PROJECT_BATCH_SIZE));
+            for (Long projectId : projectIds) {
+                Map<String, Long> expected = toCountMap(taskCounterRepository.countTasksByProjectId(projectId));
+                Map<String, Long> actual = toCountMap(taskCounterRepository.findByProjectIds(Collections.singleton(projectId)));
+                if (!expected.equals(actual)) {
+                    log.warn("Task counters of project {} have drifted: expected {}, found {}", projectId, expected, actual);
+                    taskCounterRepository.rebuildByProjectId(projectId);
+                    ++repaired;
+                }
+                lastProjectId = projectId;
+            }
+        } while (projectIds.size() == PROJECT_BATCH_SIZE);
+        return repaired;
+    }
+
+    private static Map<String, Long> toCountMap(List<TaskCount> counts) {
+        return counts.stream().collect(Collectors.toMap(count -> count.getStatus() + "/" + count.getPriority(), TaskCount::getCount));
+    }
+}
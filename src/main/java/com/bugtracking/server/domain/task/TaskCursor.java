@@ -0,0 +1,94 @@
+package com.bugtracking.server.domain.task;
+
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset (seek) pagination over tasks.
+ * It remembers the sort it was produced for and the sort key values of the last returned task,
+ * so the next page can be fetched with a range predicate instead of an OFFSET.
+ */
+public class TaskCursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_VALUE = "-";
+
+    private final String sortKey;
+    private final long id;
+    private final Integer priority;
+    private final LocalDateTime modifiedAt;
+
+    public TaskCursor(Sort sort, long id, Integer priority, LocalDateTime modifiedAt) {
+        this(toSortKey(sort), id, priority, modifiedAt);
+    }
+
+    private TaskCursor(String sortKey, long id, Integer priority, LocalDateTime modifiedAt) {
+        this.sortKey = sortKey;
+        this.id = id;
+        this.priority = priority;
+        this.modifiedAt = modifiedAt;
+    }
+
+    public static TaskCursor parse(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new InvalidRequestException("Invalid cursor.");
+            }
+            return new TaskCursor(
+                parts[0],
+                Long.parseLong(parts[1]),
+                NULL_VALUE.equals(parts[2]) ? null : Integer.valueOf(parts[2]),
+                NULL_VALUE.equals(parts[3]) ? null : LocalDateTime.parse(parts[3])
+            );
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidRequestException("Invalid cursor.", ex);
+        }
+    }
+
+    public String encode() {
+        String decoded = sortKey + SEPARATOR + id
+            + SEPARATOR + (priority == null ? NULL_VALUE : priority.toString())
+            + SEPARATOR + (modifiedAt == null ? NULL_VALUE : modifiedAt.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    boolean matches(Sort sort) {
+        return sortKey.equals(toSortKey(sort));
+    }
+
+    Object getValue(String property) {
+        switch (property) {
+            case "id":
+                return id;
+            case "priority":
+                return priority;
+            case "modifiedAt":
+                return modifiedAt;
+            default:
+                throw new InvalidRequestException("Cursor pagination is not supported for ordering by '" + property + "'.");
+        }
+    }
+
+    private static String toSortKey(Sort sort) {
+        StringBuilder sb = new StringBuilder();
+        for (Sort.Order order : TaskRepositoryImpl.resolveOrders(sort)) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(order.getProperty()).append(':').append(order.getDirection());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
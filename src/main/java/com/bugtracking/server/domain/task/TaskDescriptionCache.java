@@ -0,0 +1,15 @@
+package com.bugtracking.server.domain.task;
+
+import com.bugtracking.server.domain.DescriptionCache;
+import com.bugtracking.server.dto.task.TaskDescription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TaskDescriptionCache extends DescriptionCache<TaskDescription> {
+
+    public TaskDescriptionCache(@Value("${bugtracking.details-cache.max-entries:10000}") int maxEntries,
+                                @Value("${bugtracking.details-cache.ttl-seconds:30}") long ttlSeconds) {
+        super("tasks", maxEntries, ttlSeconds);
+    }
+}
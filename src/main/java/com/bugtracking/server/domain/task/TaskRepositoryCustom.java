@@ -1,13 +1,51 @@
 package com.bugtracking.server.domain.task;
 
+import com.bugtracking.server.dto.task.TaskDescription;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface TaskRepositoryCustom {
 
     Page<Task> findAllByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
                                 LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    Slice<Task> findSliceByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                                   LocalDateTime startDate, LocalDateTime endDate, TaskCursor cursor, Pageable pageable);
+
+    Slice<TaskDescription> findDescriptionSliceByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                                                         LocalDateTime startDate, LocalDateTime endDate, Set<String> fields,
+                                                         TaskCursor cursor, Pageable pageable);
+
+    Optional<TaskDescription> findDescriptionById(long id);
+
+    Optional<Integer> findVersionById(long id);
+
+    int updateIfModifiable(long id, Integer expectedVersion, Map<String, Object> changes);
+
+    int deleteArchivedById(long id);
+
+    Slice<TaskDescription> searchDescriptions(String text, Long projectId, Set<TaskStatus> statusSet,
+                                              Set<Integer> prioritySet, Pageable pageable);
+
+    long countByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                        LocalDateTime startDate, LocalDateTime endDate, boolean estimated);
+
+    List<Long> insertAll(List<Task> tasks);
+
+    void streamByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                         LocalDateTime startDate, LocalDateTime endDate, Consumer<TaskDescription> consumer);
+
+    List<Long> findModifiableIdsByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                                          LocalDateTime startDate, LocalDateTime endDate, long afterId, int limit);
+
+    int updateByFilters(List<Long> ids, Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                        LocalDateTime startDate, LocalDateTime endDate, TaskStatus newStatus, Integer newPriority);
 }
@@ -1,26 +1,125 @@
 package com.bugtracking.server.domain.task;
 
+import com.bugtracking.server.domain.CountEstimator;
+import com.bugtracking.server.domain.QueryPlanCacheMonitor;
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
+import com.bugtracking.server.dto.task.TaskDescription;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.NativeQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 public class TaskRepositoryImpl implements TaskRepositoryCustom {
 
+    private static final int INSERT_BATCH_SIZE = 500;
+    /**
+     * Deepest page offset of a listing which merges the archive: both tables are read up to the end of the page,
+     * so deeper pages are only served through the cursor, which reads one page from each.
+     */
+    static final int MAX_MERGED_OFFSET = 10000;
+    private static final ChronoUnit ESTIMATE_DATE_BUCKET = ChronoUnit.HOURS;
+    private static final String DESCRIPTION_SELECT = "SELECT new " + TaskDescription.class.getName()
+        + "(t.id, t.projectId, t.name, t.description, t.priority, t.status, t.createdAt, t.modifiedAt, t.version) ";
+    private static final Map<String, BiConsumer<TaskDescription, Object>> DESCRIPTION_FIELDS = new LinkedHashMap<>();
+    private static final List<String> CURSOR_FIELDS = Arrays.asList("id", "priority", "modifiedAt");
+    /**
+     * Hides the tasks of projects which are being deleted. MySQL materializes the subquery once per statement,
+     * so it costs a lookup in a set which is empty most of the time.
+     */
+    static final String LIVE_PROJECT_FILTER = "t.projectId NOT IN (SELECT p.id FROM Project p WHERE p.deletedAt IS NOT NULL)";
+    private static final String NATIVE_LIVE_PROJECT_FILTER =
+        "t.project_id NOT IN (SELECT p.project_id FROM projects p WHERE p.deleted_at IS NOT NULL)";
+    private static final String NATIVE_DESCRIPTION_COLUMNS =
+        "t.task_id, t.project_id, t.name, t.description, t.priority, t.status, t.created_at, t.modified_at, t.version";
+    private static final Map<String, String> NATIVE_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        DESCRIPTION_FIELDS.put("id", (description, value) -> description.setId((Long) value));
+        DESCRIPTION_FIELDS.put("projectId", (description, value) -> description.setProjectId((Long) value));
+        DESCRIPTION_FIELDS.put("name", (description, value) -> description.setName((String) value));
+        DESCRIPTION_FIELDS.put("description", (description, value) -> description.setDescription((String) value));
+        DESCRIPTION_FIELDS.put("priority", (description, value) -> description.setPriority((Integer) value));
+        DESCRIPTION_FIELDS.put("status", (description, value) -> description.setStatus((TaskStatus) value));
+        DESCRIPTION_FIELDS.put("createdAt", (description, value) -> description.setCreatedAt((LocalDateTime) value));
+        DESCRIPTION_FIELDS.put("modifiedAt", (description, value) -> description.setModifiedAt((LocalDateTime) value));
+
+        NATIVE_COLUMNS.put("t.projectId", "t.project_id");
+        NATIVE_COLUMNS.put("t.modifiedAt", "t.modified_at");
+    }
+
+    private static final String SEARCH_SELECT = DESCRIPTION_FIELDS.keySet().stream().map(field -> "t." + field)
+        .collect(Collectors.joining(", ", "SELECT ", ", fulltext_match(t.name, t.description, :searchText) "));
+
+    /**
+     * Tables a task can be stored in. {@link TaskArchiver} moves closed tasks which have not been modified
+     * for a while from the hot tier to the archive, the two hold disjoint sets of task IDs.
+     */
+    enum Tier {
+        HOT("Task", "tasks"),
+        ARCHIVE("ArchivedTask", "tasks_archive");
+
+        private final String entityName;
+        private final String tableName;
+
+        Tier(String entityName, String tableName) {
+            this.entityName = entityName;
+            this.tableName = tableName;
+        }
+
+        /**
+         * Returns the status filter to apply to the tier. The archive only holds closed tasks and is only read
+         * when they are requested, so it needs none.
+         */
+        Set<TaskStatus> statusFilter(Set<TaskStatus> statusSet) {
+            return (this == ARCHIVE) ? null : statusSet;
+        }
+    }
+
     private EntityManager em;
+    private CountEstimator countEstimator;
+    private QueryPlanCacheMonitor queryPlanCacheMonitor;
 
-    public TaskRepositoryImpl(EntityManager em) {
+    public TaskRepositoryImpl(EntityManager em, CountEstimator countEstimator, QueryPlanCacheMonitor queryPlanCacheMonitor) {
         this.em = em;
+        this.countEstimator = countEstimator;
+        this.queryPlanCacheMonitor = queryPlanCacheMonitor;
     }
 
     @Override
@@ -30,40 +129,501 @@ public class TaskRepositoryImpl implements TaskRepositoryCustom {
             pageable = PageRequest.of(0, 1000);
         }
 
+        Slice<Task> taskSlice = findSliceByFilters(projectId, statusSet, prioritySet, startDate, endDate, null, pageable);
+        long total = pageable.getOffset() + taskSlice.getNumberOfElements();
+        if (!taskSlice.hasContent() || taskSlice.hasNext()) {
+            total = countByFilters(projectId, statusSet, prioritySet, startDate, endDate, false);
+        }
+
+        return new PageImpl<>(taskSlice.getContent(), pageable, total);
+    }
+
+    /**
+     * Returns the matching tasks of the hot tier. Archived tasks are closed and never modified,
+     * so they are only read as descriptions.
+     */
+    @Override
+    public Slice<Task> findSliceByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                                          LocalDateTime startDate, LocalDateTime endDate, TaskCursor cursor, Pageable pageable) {
+        if (pageable == null) {
+            pageable = PageRequest.of(0, 1000);
+        }
+        return toSlice(findRows(Tier.HOT, "", Task.class, projectId, statusSet, prioritySet, startDate, endDate, cursor,
+            pageable, (cursor == null) ? (int) pageable.getOffset() : 0, pageable.getPageSize() + 1), pageable);
+    }
+
+    /**
+     * Returns descriptions of the tasks matching the filters. When {@code fields} are given, only those columns
+     * and the ones the cursor is built from are selected, the rest of the description properties are left unset.
+     * The archive is only read when closed tasks are requested.
+     */
+    @Override
+    public Slice<TaskDescription> findDescriptionSliceByFilters(Long projectId, Set<TaskStatus> statusSet,
+                                                                Set<Integer> prioritySet, LocalDateTime startDate,
+                                                                LocalDateTime endDate, Set<String> fields,
+                                                                TaskCursor cursor, Pageable pageable) {
+        if (fields == null) {
+            return findDescriptionSlice(DESCRIPTION_SELECT, TaskDescription.class, Function.identity(), projectId,
+                statusSet, prioritySet, startDate, endDate, cursor, pageable);
+        }
+
+        List<String> selectedFields = new ArrayList<>();
+        for (String field : DESCRIPTION_FIELDS.keySet()) {
+            if (fields.contains(field) || CURSOR_FIELDS.contains(field)) {
+                selectedFields.add(field);
+            }
+        }
+        for (String field : fields) {
+            if (!DESCRIPTION_FIELDS.containsKey(field)) {
+                throw new InvalidRequestException("Unknown task field '" + field + "'.");
+            }
+        }
+
+        String select = selectedFields.stream().map(field -> "t." + field).collect(Collectors.joining(", ", "SELECT ", " "));
+        Function<Object[], TaskDescription> mapper = row -> {
+            TaskDescription description = new TaskDescription();
+            for (int i = 0; i < row.length; ++i) {
+                DESCRIPTION_FIELDS.get(selectedFields.get(i)).accept(description, row[i]);
+            }
+            return description;
+        };
+        return findDescriptionSlice(select, Object[].class, mapper, projectId, statusSet, prioritySet, startDate, endDate,
+            cursor, pageable);
+    }
+
+    /**
+     * Returns the task description from the hot tier, falling back to the archive.
+     */
+    @Override
+    public Optional<TaskDescription> findDescriptionById(long id) {
+        for (Tier tier : Tier.values()) {
+            TypedQuery<TaskDescription> query = em.createQuery(DESCRIPTION_SELECT + "FROM " + tier.entityName
+                + " t WHERE t.id = :id AND " + LIVE_PROJECT_FILTER, TaskDescription.class);
+            query.setFlushMode(FlushModeType.COMMIT);
+            query.setParameter("id", id);
+            Optional<TaskDescription> description = query.getResultList().stream().findFirst();
+            if (description.isPresent()) {
+                return description;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the version of the task from the hot tier, falling back to the archive.
+     */
+    @Override
+    public Optional<Integer> findVersionById(long id) {
+        for (Tier tier : Tier.values()) {
+            TypedQuery<Integer> query = em.createQuery("SELECT t.version FROM " + tier.entityName
+                + " t WHERE t.id = :id AND " + LIVE_PROJECT_FILTER, Integer.class);
+            query.setFlushMode(FlushModeType.COMMIT);
+            query.setParameter("id", id);
+            Optional<Integer> version = query.getResultList().stream().findFirst();
+            if (version.isPresent()) {
+                return version;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Sets the given task properties with a single UPDATE statement which only matches the task while it is not closed,
+     * its project is not deleted and, when {@code expectedVersion} is given, nobody has updated it since that version.
+     * No row is read or locked before, so concurrent updates of the task hold its row lock only for the statement.
+     * Only the given properties appear in the statement, keyed by their property name in {@link Task},
+     * so columns which are not changed are not written.
+     *
+     * @return 1 if the task has been updated, 0 if it did not match
+     */
+    @Override
+    public int updateIfModifiable(long id, Integer expectedVersion, Map<String, Object> changes) {
+        StringBuilder queryString = new StringBuilder("UPDATE Task t SET ");
+        changes.keySet().forEach(property -> queryString.append("t.").append(property).append(" = :").append(property).append(", "));
+        queryString.append("t.version = t.version + 1 WHERE t.id = :id AND t.status <> :closedStatus AND ")
+            .append(LIVE_PROJECT_FILTER);
+        if (expectedVersion != null) {
+            queryString.append(" AND t.version = :expectedVersion");
+        }
+        Query query = em.createQuery(queryString.toString())
+            .setParameter("id", id)
+            .setParameter("closedStatus", TaskStatus.CLOSED);
+        changes.forEach(query::setParameter);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        return query.executeUpdate();
+    }
+
+    @Override
+    public int deleteArchivedById(long id) {
+        return em.createQuery("DELETE FROM ArchivedTask t WHERE t.id = :id AND " + LIVE_PROJECT_FILTER)
+            .setParameter("id", id)
+            .executeUpdate();
+    }
+
+    /**
+     * Returns descriptions of the tasks whose name or description match the text, most relevant first.
+     * Matching is done by the {@code FULLTEXT} indexes on {@code (name, description)} which InnoDB updates
+     * together with the row, so tasks are searchable as soon as the transaction which wrote them commits.
+     * When closed tasks are requested the archive is searched too and the results are merged by relevance,
+     * which each table computes from its own word statistics.
+     */
+    @Override
+    public Slice<TaskDescription> searchDescriptions(String text, Long projectId, Set<TaskStatus> statusSet,
+                                                     Set<Integer> prioritySet, Pageable pageable) {
+        List<Tier> tiers = resolveTiers(statusSet);
+        int offset = (int) pageable.getOffset();
+        checkMergedOffset(tiers, offset);
+        List<Object[]> rows = new ArrayList<>();
+        for (Tier tier : tiers) {
+            StringBuilder where = new StringBuilder();
+            Map<String, Object> params = new HashMap<>();
+            buildWhereQuery(where, params, projectId, tier.statusFilter(statusSet), prioritySet, null, null);
+            params.put("searchText", text);
+
+            StringBuilder queryBuilder = new StringBuilder(SEARCH_SELECT).append("FROM ").append(tier.entityName)
+                .append(" t WHERE fulltext_match(t.name, t.description, :searchText) > 0 AND ").append(LIVE_PROJECT_FILTER);
+            if (where.length() > 0) {
+                queryBuilder.append(" AND ").append(where);
+            }
+            queryBuilder.append(" ORDER BY fulltext_match(t.name, t.description, :searchText) DESC, t.id DESC");
+
+            String queryString = queryBuilder.toString();
+            queryPlanCacheMonitor.record(queryString);
+            TypedQuery<Object[]> query = em.createQuery(queryString, Object[].class);
+            query.setFlushMode(FlushModeType.COMMIT);
+            query.setFirstResult((tiers.size() == 1) ? offset : 0);
+            query.setMaxResults((tiers.size() == 1) ? pageable.getPageSize() + 1 : offset + pageable.getPageSize() + 1);
+            params.forEach(query::setParameter);
+            rows.addAll(query.getResultList());
+        }
+
+        int scoreIndex = DESCRIPTION_FIELDS.size();
+        if (tiers.size() > 1) {
+            rows.sort(Comparator.<Object[]>comparingDouble(row -> ((Number) row[scoreIndex]).doubleValue())
+                .thenComparingLong(row -> (Long) row[0]).reversed());
+            rows = rows.subList(Math.min(offset, rows.size()), Math.min(offset + pageable.getPageSize() + 1, rows.size()));
+        }
+        List<String> fields = new ArrayList<>(DESCRIPTION_FIELDS.keySet());
+        List<TaskDescription> resultList = rows.stream()
+            .map(row -> {
+                TaskDescription description = new TaskDescription();
+                for (int i = 0; i < scoreIndex; ++i) {
+                    DESCRIPTION_FIELDS.get(fields.get(i)).accept(description, row[i]);
+                }
+                return description;
+            })
+            .collect(Collectors.toList());
+        return toSlice(resultList, pageable);
+    }
+
+    /**
+     * Reads the page of descriptions from each tier which can hold the requested statuses. When there are
+     * two, both are read up to the end of the page and merged in the requested order, which the ID
+     * tie-breaker makes total, so the page is the same as if the tasks were in one table.
+     * Such pages are limited to {@link #MAX_MERGED_OFFSET}, the cursor reads one page from each tier at any depth.
+     */
+    private <T> Slice<TaskDescription> findDescriptionSlice(String select, Class<T> resultClass,
+                                                            Function<T, TaskDescription> mapper, Long projectId,
+                                                            Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                                                            LocalDateTime startDate, LocalDateTime endDate,
+                                                            TaskCursor cursor, Pageable pageable) {
+        if (pageable == null) {
+            pageable = PageRequest.of(0, 1000);
+        }
+
+        List<Tier> tiers = resolveTiers(statusSet);
+        int offset = (cursor == null) ? (int) pageable.getOffset() : 0;
+        checkMergedOffset(tiers, offset);
+        if (tiers.size() == 1) {
+            List<T> rows = findRows(tiers.get(0), select, resultClass, projectId, statusSet, prioritySet, startDate,
+                endDate, cursor, pageable, offset, pageable.getPageSize() + 1);
+            return toSlice(rows.stream().map(mapper).collect(Collectors.toList()), pageable);
+        }
+
+        List<TaskDescription> merged = new ArrayList<>();
+        for (Tier tier : tiers) {
+            findRows(tier, select, resultClass, projectId, statusSet, prioritySet, startDate, endDate, cursor, pageable,
+                0, offset + pageable.getPageSize() + 1).forEach(row -> merged.add(mapper.apply(row)));
+        }
+        merged.sort(buildComparator(resolveOrders(pageable.getSort())));
+        return toSlice(merged.subList(Math.min(offset, merged.size()),
+            Math.min(offset + pageable.getPageSize() + 1, merged.size())), pageable);
+    }
+
+    private <T> List<T> findRows(Tier tier, String select, Class<T> resultClass, Long projectId, Set<TaskStatus> statusSet,
+                                 Set<Integer> prioritySet, LocalDateTime startDate, LocalDateTime endDate,
+                                 TaskCursor cursor, Pageable pageable, int firstResult, int maxResults) {
         StringBuilder where = new StringBuilder();
         Map<String, Object> params = new HashMap<>();
-        buildWhereQuery(where, params, projectId, statusSet, prioritySet, startDate, endDate);
+        buildWhereQuery(where, params, projectId, tier.statusFilter(statusSet), prioritySet, startDate, endDate);
 
-        StringBuilder queryBuilder = new StringBuilder("FROM Task t ");
+        StringBuilder queryBuilder = new StringBuilder(select).append("FROM ").append(tier.entityName)
+            .append(" t WHERE ").append(LIVE_PROJECT_FILTER);
         if (params.size() > 0) {
-            queryBuilder.append("WHERE ").append(where);
+            queryBuilder.append(" AND ").append(where);
         }
 
-        TypedQuery<Number> countQuery = em.createQuery("SELECT count(1) " + queryBuilder.toString(), Number.class);
+        if (cursor != null) {
+            if (!cursor.matches(pageable.getSort())) {
+                throw new InvalidRequestException("Cursor does not match requested ordering.");
+            }
+            queryBuilder.append(" AND ");
+            buildCursorQuery(queryBuilder, params, cursor, resolveOrders(pageable.getSort()));
+        }
         buildOrderQuery(queryBuilder, pageable);
 
-        Query query = em.createQuery(queryBuilder.toString());
-        query.setFirstResult((int) pageable.getOffset());
-        query.setMaxResults(pageable.getPageSize());
+        String queryString = queryBuilder.toString();
+        queryPlanCacheMonitor.record(queryString);
+        TypedQuery<T> query = em.createQuery(queryString, resultClass);
+        // the listing never reads its own writes, so there is nothing to flush before it
+        query.setFlushMode(FlushModeType.COMMIT);
+        query.setFirstResult(firstResult);
+        query.setMaxResults(maxResults);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
 
-        params.forEach((k, v) -> {
-            query.setParameter(k, v);
-            countQuery.setParameter(k, v);
+    /**
+     * Turns a page read with one extra row, which tells whether there is a next page without counting, into a slice.
+     */
+    private static <T> Slice<T> toSlice(List<T> resultList, Pageable pageable) {
+        boolean hasNext = resultList.size() > pageable.getPageSize();
+        if (hasNext) {
+            resultList = resultList.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(resultList, pageable, hasNext);
+    }
+
+    /**
+     * Counts the tasks matching the filters. Without a date range the count is the sum of the task counters,
+     * which the triggers keep exact for both tiers, so neither table is scanned. With one the tiers are counted,
+     * or estimated, with the archive only when closed tasks are requested.
+     */
+    @Override
+    public long countByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                               LocalDateTime startDate, LocalDateTime endDate, boolean estimated) {
+        if (startDate == null && endDate == null) {
+            return countFromCounters(projectId, statusSet, prioritySet);
+        }
+
+        Map<String, Map<String, Object>> countQueries = new LinkedHashMap<>();
+        Map<String, Object> params = new TreeMap<>();
+        for (Tier tier : resolveTiers(statusSet)) {
+            StringBuilder where = new StringBuilder();
+            Map<String, Object> tierParams = new HashMap<>();
+            buildWhereQuery(where, tierParams, projectId, tier.statusFilter(statusSet), prioritySet, startDate, endDate);
+            countQueries.put("SELECT count(1) FROM " + tier.entityName + " t WHERE " + LIVE_PROJECT_FILTER + " AND " + where,
+                tierParams);
+            params.putAll(tierParams);
+        }
+        LongSupplier exactCounter = () -> {
+            long count = 0;
+            for (Map.Entry<String, Map<String, Object>> countQuery : countQueries.entrySet()) {
+                queryPlanCacheMonitor.record(countQuery.getKey());
+                TypedQuery<Number> query = em.createQuery(countQuery.getKey(), Number.class);
+                countQuery.getValue().forEach(query::setParameter);
+                count += query.getSingleResult().longValue();
+            }
+            return count;
+        };
+        if (!estimated) {
+            return exactCounter.getAsLong();
+        }
+        return countEstimator.estimate(estimateKey(new ArrayList<>(countQueries.keySet()), params), null, exactCounter);
+    }
+
+    private long countFromCounters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet) {
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        buildWhereQuery(where, params, projectId, statusSet, prioritySet, null, null);
+        String queryString = "SELECT COALESCE(SUM(t.task_count), 0) FROM task_counters t WHERE " + NATIVE_LIVE_PROJECT_FILTER
+            + (params.size() > 0 ? " AND " + toNativeWhere(where) : "");
+
+        queryPlanCacheMonitor.record(queryString);
+        Query query = em.createNativeQuery(queryString);
+        query.setFlushMode(FlushModeType.COMMIT);
+        params.forEach((name, value) -> query.setParameter(name, toNativeValue(value)));
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    /**
+     * Returns the key of a count estimate: the count queries and their parameters with the dates truncated
+     * to {@link #ESTIMATE_DATE_BUCKET}. Listings over a moving date range, such as the last seven days,
+     * thus share one cached count instead of each paying for an exact count and taking a cache entry.
+     */
+    static String estimateKey(List<String> countQueries, Map<String, Object> params) {
+        Map<String, Object> keyParams = new TreeMap<>(params);
+        keyParams.replaceAll((name, value) -> (value instanceof LocalDateTime)
+            ? ((LocalDateTime) value).truncatedTo(ESTIMATE_DATE_BUCKET)
+            : value);
+        return String.join(" + ", countQueries) + keyParams;
+    }
+
+    /**
+     * Inserts the tasks with multi-row INSERT statements of up to {@link #INSERT_BATCH_SIZE} rows.
+     * Connector/J reports the generated keys of such a statement as the block of consecutive values starting at
+     * {@code LAST_INSERT_ID()}, which InnoDB only reserves with {@code innodb_autoinc_lock_mode} 0 or 1;
+     * {@link AutoIncrementLockModeCheck} refuses to start with the interleaved mode 2. The generated IDs are then
+     * returned in the order of the given tasks.
+     */
+    @Override
+    public List<Long> insertAll(List<Task> tasks) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            List<Long> ids = new ArrayList<>(tasks.size());
+            for (int from = 0; from < tasks.size(); from += INSERT_BATCH_SIZE) {
+                List<Task> chunk = tasks.subList(from, Math.min(from + INSERT_BATCH_SIZE, tasks.size()));
+                StringBuilder sql = new StringBuilder("INSERT INTO tasks (project_id, name, description, priority, status) VALUES ");
+                for (int i = 0; i < chunk.size(); ++i) {
+                    sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?)");
+                }
+
+                try (PreparedStatement statement = connection.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+                    int index = 1;
+                    for (Task task : chunk) {
+                        statement.setLong(index++, task.getProjectId());
+                        statement.setString(index++, task.getName());
+                        statement.setString(index++, task.getDescription());
+                        statement.setInt(index++, task.getPriority());
+                        statement.setString(index++, task.getStatus().name());
+                    }
+                    statement.executeUpdate();
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        while (generatedKeys.next()) {
+                            ids.add(generatedKeys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return ids;
         });
+    }
+
+    /**
+     * Passes descriptions of the tasks matching the filters to the consumer in ascending ID order while they are read.
+     * Rows are streamed from a forward-only MySQL result set of a stateless session, so neither the result set
+     * nor the read rows are accumulated in memory. With the archive both tiers are read by one
+     * {@code UNION ALL} statement, so an export holds a single pool connection; MySQL then sorts the union
+     * by ID in a temporary table before it sends the first row.
+     */
+    @Override
+    public void streamByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                                LocalDateTime startDate, LocalDateTime endDate, Consumer<TaskDescription> consumer) {
+        Map<String, Object> params = new HashMap<>();
+        List<String> tierQueries = new ArrayList<>();
+        for (Tier tier : resolveTiers(statusSet)) {
+            StringBuilder where = new StringBuilder();
+            Map<String, Object> tierParams = new HashMap<>();
+            buildWhereQuery(where, tierParams, projectId, tier.statusFilter(statusSet), prioritySet, startDate, endDate);
+            params.putAll(tierParams);
+            tierQueries.add("SELECT " + NATIVE_DESCRIPTION_COLUMNS + " FROM " + tier.tableName + " t WHERE "
+                + NATIVE_LIVE_PROJECT_FILTER + (where.length() > 0 ? " AND " + toNativeWhere(where) : ""));
+        }
+        String queryString = String.join(" UNION ALL ", tierQueries) + " ORDER BY task_id ASC";
+
+        try (StatelessSession session = em.getEntityManagerFactory().unwrap(SessionFactory.class).openStatelessSession()) {
+            queryPlanCacheMonitor.record(queryString);
+            NativeQuery<?> query = session.createNativeQuery(queryString);
+            // MySQL Connector/J streams rows one by one only when fetch size is Integer.MIN_VALUE
+            query.setFetchSize(Integer.MIN_VALUE);
+            query.setReadOnly(true);
+            params.forEach((name, value) -> query.setParameter(name, toNativeValue(value)));
+            try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    Object[] row = results.get();
+                    consumer.accept(new TaskDescription(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                        (String) row[2], (String) row[3], ((Number) row[4]).intValue(), TaskStatus.valueOf((String) row[5]),
+                        ((Timestamp) row[6]).toLocalDateTime(), ((Timestamp) row[7]).toLocalDateTime(),
+                        ((Number) row[8]).intValue()));
+                }
+            }
+        }
+    }
 
-        @SuppressWarnings("unchecked")
-        List<Task> taskList = query.getResultList();
-        long total = pageable.getOffset() + taskList.size();
-        if (taskList.isEmpty() || taskList.size() == 0 || taskList.size() == pageable.getPageSize()) {
-            total = countQuery.getSingleResult().longValue();
+    /**
+     * Turns a condition built by {@link #buildWhereQuery} into SQL over the task tables.
+     */
+    static String toNativeWhere(CharSequence where) {
+        String nativeWhere = where.toString();
+        for (Map.Entry<String, String> column : NATIVE_COLUMNS.entrySet()) {
+            nativeWhere = nativeWhere.replace(column.getKey(), column.getValue());
         }
+        return nativeWhere;
+    }
 
-        return new PageImpl(taskList, pageable, total);
+    private static Object toNativeValue(Object value) {
+        if (value instanceof TaskStatus) {
+            return ((TaskStatus) value).name();
+        }
+        return (value instanceof LocalDateTime) ? Timestamp.valueOf((LocalDateTime) value) : value;
     }
 
-    private void buildWhereQuery(StringBuilder where, Map<String, Object> params,
-                                 Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
-                                 LocalDateTime startDate, LocalDateTime endDate) {
+    /**
+     * Returns IDs of not closed tasks matching the filters, in ascending order and starting after {@code afterId}.
+     */
+    @Override
+    public List<Long> findModifiableIdsByFilters(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                                                 LocalDateTime startDate, LocalDateTime endDate, long afterId, int limit) {
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        buildWhereQuery(where, params, projectId, statusSet, prioritySet, startDate, endDate);
+
+        StringBuilder queryBuilder = new StringBuilder("SELECT t.id FROM Task t WHERE t.id > :afterId AND t.status <> :closedStatus AND ")
+            .append(LIVE_PROJECT_FILTER);
+        if (params.size() > 0) {
+            queryBuilder.append(" AND ").append(where);
+        }
+        queryBuilder.append(" ORDER BY t.id ASC");
+        params.put("afterId", afterId);
+        params.put("closedStatus", TaskStatus.CLOSED);
+
+        String queryString = queryBuilder.toString();
+        queryPlanCacheMonitor.record(queryString);
+        TypedQuery<Long> query = em.createQuery(queryString, Long.class);
+        query.setMaxResults(limit);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    /**
+     * Applies the new status and/or priority to the given tasks with a single UPDATE statement.
+     * The filters and the closed status check are repeated in the statement, so tasks which were
+     * changed after their IDs had been selected are left intact.
+     */
+    @Override
+    public int updateByFilters(List<Long> ids, Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                               LocalDateTime startDate, LocalDateTime endDate, TaskStatus newStatus, Integer newPriority) {
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        buildWhereQuery(where, params, projectId, statusSet, prioritySet, startDate, endDate);
+
+        StringBuilder queryBuilder = new StringBuilder("UPDATE Task t SET t.version = t.version + 1, ");
+        if (newStatus != null) {
+            queryBuilder.append("t.status = :newStatus");
+            params.put("newStatus", newStatus);
+        }
+        if (newPriority != null) {
+            queryBuilder.append(newStatus != null ? ", " : "").append("t.priority = :newPriority");
+            params.put("newPriority", newPriority);
+        }
+        queryBuilder.append(" WHERE t.id IN (:ids) AND t.status <> :closedStatus AND ").append(LIVE_PROJECT_FILTER);
+        if (where.length() > 0) {
+            queryBuilder.append(" AND ").append(where);
+        }
+        params.put("ids", padToPowerOfTwo(ids));
+        params.put("closedStatus", TaskStatus.CLOSED);
+
+        String queryString = queryBuilder.toString();
+        queryPlanCacheMonitor.record(queryString);
+        Query query = em.createQuery(queryString);
+        params.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+
+    static void buildWhereQuery(StringBuilder where, Map<String, Object> params,
+                                Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                                LocalDateTime startDate, LocalDateTime endDate) {
         if (projectId != null) {
             where.append("t.projectId = :projectId");
             params.put("projectId", projectId);
@@ -72,35 +632,13 @@ public class TaskRepositoryImpl implements TaskRepositoryCustom {
             if (params.size() > 0) {
                 where.append(" AND ");
             }
-            where.append('(');
-            int i = 0;
-            for (TaskStatus status : statusSet) {
-                String paramName = "status" + i;
-                where.append("t.status = :").append(paramName);
-                params.put(paramName, status);
-                ++i;
-                if (i != statusSet.size()) {
-                    where.append(" OR ");
-                }
-            }
-            where.append(')');
+            appendInList(where, params, "t.status", "status", statusSet);
         }
         if (prioritySet != null && !prioritySet.isEmpty()) {
             if (params.size() > 0) {
                 where.append(" AND ");
             }
-            where.append('(');
-            int i = 0;
-            for (Integer priority : prioritySet) {
-                String paramName = "priority" + i;
-                where.append("t.priority = :").append(paramName);
-                params.put(paramName, priority);
-                ++i;
-                if (i != prioritySet.size()) {
-                    where.append(" OR ");
-                }
-            }
-            where.append(')');
+            appendInList(where, params, "t.priority", "priority", prioritySet);
         }
         if (startDate != null) {
             if (params.size() > 0) {
@@ -118,29 +656,152 @@ public class TaskRepositoryImpl implements TaskRepositoryCustom {
         }
     }
 
-    private void buildOrderQuery(StringBuilder queryBuilder, Pageable pageable) {
+    /**
+     * Appends {@code property IN (:param0, :param1, ...)} with the values in their natural order and the list
+     * padded to the next power of two by repeating the last value. Any set of values thus maps to one of
+     * a few query strings, which keeps Hibernate's query plan cache and the driver's statement cache warm.
+     */
+    private static <V extends Comparable<? super V>> void appendInList(StringBuilder where, Map<String, Object> params,
+                                                                     String property, String paramPrefix,
+                                                                     Collection<V> values) {
+        List<V> sortedValues = new ArrayList<>(values);
+        Collections.sort(sortedValues);
+        List<V> paddedValues = padToPowerOfTwo(sortedValues);
+
+        where.append(property).append(" IN (");
+        for (int i = 0; i < paddedValues.size(); ++i) {
+            String paramName = paramPrefix + i;
+            where.append(i == 0 ? ":" : ", :").append(paramName);
+            params.put(paramName, paddedValues.get(i));
+        }
+        where.append(')');
+    }
+
+    static <V> List<V> padToPowerOfTwo(List<V> values) {
+        int paddedSize = values.size() <= 1 ? values.size() : Integer.highestOneBit(values.size() - 1) << 1;
+        if (paddedSize == values.size()) {
+            return values;
+        }
+        List<V> paddedValues = new ArrayList<>(paddedSize);
+        paddedValues.addAll(values);
+        V last = values.get(values.size() - 1);
+        while (paddedValues.size() < paddedSize) {
+            paddedValues.add(last);
+        }
+        return paddedValues;
+    }
+
+    static void buildOrderQuery(StringBuilder queryBuilder, Pageable pageable) {
         queryBuilder.append(" ORDER BY ");
-        if (pageable.getSort() == null || !pageable.getSort().iterator().hasNext()) {
-            queryBuilder.append(" t.id ASC");
-        } else {
-            boolean needComa = false;
-            boolean sortedById = false;
-            for (Sort.Order order : pageable.getSort()) {
-                if (needComa) {
-                    queryBuilder.append(", ");
-                }
-                queryBuilder.append(" t.").append(order.getProperty()).append(' ').append(order.getDirection());
-                needComa = true;
+        boolean needComa = false;
+        for (Sort.Order order : resolveOrders(pageable.getSort())) {
+            if (needComa) {
+                queryBuilder.append(", ");
+            }
+            queryBuilder.append("t.").append(order.getProperty()).append(' ').append(order.getDirection());
+            needComa = true;
+        }
+    }
+
+    /**
+     * Appends a seek predicate which selects tasks positioned strictly after the cursor for the given ordering:
+     * {@code (a > :a) OR (a = :a AND b > :b) OR ...}, guarded by a plain range on the leading column
+     * so the optimizer can use it as an index range.
+     */
+    private static void buildCursorQuery(StringBuilder queryBuilder, Map<String, Object> params,
+                                         TaskCursor cursor, List<Sort.Order> orders) {
+        Sort.Order leading = orders.get(0);
+        queryBuilder.append("t.").append(leading.getProperty())
+            .append(leading.isAscending() ? " >= :" : " <= :").append(cursorParamName(leading))
+            .append(" AND (");
+        for (int i = 0; i < orders.size(); ++i) {
+            if (i > 0) {
+                queryBuilder.append(" OR ");
+            }
+            queryBuilder.append('(');
+            for (int j = 0; j < i; ++j) {
+                queryBuilder.append("t.").append(orders.get(j).getProperty())
+                    .append(" = :").append(cursorParamName(orders.get(j))).append(" AND ");
+            }
+            Sort.Order order = orders.get(i);
+            queryBuilder.append("t.").append(order.getProperty())
+                .append(order.isAscending() ? " > :" : " < :").append(cursorParamName(order));
+            queryBuilder.append(')');
+            params.put(cursorParamName(order), cursor.getValue(order.getProperty()));
+        }
+        queryBuilder.append(')');
+    }
+
+    private static String cursorParamName(Sort.Order order) {
+        return "cursor_" + order.getProperty();
+    }
+
+    private static void checkMergedOffset(List<Tier> tiers, int offset) {
+        if (tiers.size() > 1 && offset > MAX_MERGED_OFFSET) {
+            throw new InvalidRequestException("Pages of listings including closed tasks can not start after task "
+                + MAX_MERGED_OFFSET + ", use the cursor to read further.");
+        }
+    }
+
+    /**
+     * Returns the tiers which can hold tasks with the given statuses. Only closed tasks are archived,
+     * so a listing of open work never touches the archive.
+     */
+    static List<Tier> resolveTiers(Set<TaskStatus> statusSet) {
+        if (statusSet == null || statusSet.isEmpty() || statusSet.contains(TaskStatus.CLOSED)) {
+            return Arrays.asList(Tier.values());
+        }
+        return Collections.singletonList(Tier.HOT);
+    }
+
+    /**
+     * Returns the comparator which orders descriptions as the database does for the given orders.
+     */
+    static Comparator<TaskDescription> buildComparator(List<Sort.Order> orders) {
+        Comparator<TaskDescription> comparator = null;
+        for (Sort.Order order : orders) {
+            Comparator<TaskDescription> next;
+            switch (order.getProperty()) {
+                case "id":
+                    next = Comparator.comparing(TaskDescription::getId);
+                    break;
+                case "priority":
+                    next = Comparator.comparing(TaskDescription::getPriority);
+                    break;
+                case "modifiedAt":
+                    next = Comparator.comparing(TaskDescription::getModifiedAt);
+                    break;
+                default:
+                    throw new InvalidRequestException("Unknown task order '" + order.getProperty() + "'.");
+            }
+            next = order.isAscending() ? next : next.reversed();
+            comparator = (comparator == null) ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    /**
+     * Returns the effective ordering of a task listing: the requested orders followed by {@code id}
+     * as a tie-breaker, unless the listing is already ordered by {@code id}.
+     * The tie-breaker follows the direction of the last requested order, so the whole ordering
+     * can be read from a single index in one direction instead of ending up in a filesort.
+     */
+    static List<Sort.Order> resolveOrders(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        boolean sortedById = false;
+        Sort.Direction lastDirection = Sort.Direction.ASC;
+        if (sort != null) {
+            for (Sort.Order order : sort) {
+                orders.add(order);
+                lastDirection = order.getDirection();
                 if ("id".equalsIgnoreCase(order.getProperty())) {
                     sortedById = true;
                 }
             }
-            if (!sortedById) {
-                if (needComa) {
-                    queryBuilder.append(", ");
-                }
-                queryBuilder.append("t.id ASC");
-            }
         }
+        if (!sortedById) {
+            orders.add(new Sort.Order(lastDirection, "id"));
+        }
+        return orders;
     }
 }
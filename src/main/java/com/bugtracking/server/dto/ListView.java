@@ -0,0 +1,6 @@
+package com.bugtracking.server.dto;
+
+public enum ListView {
+    FULL,
+    SUMMARY
+}
@@ -0,0 +1,21 @@
+package com.bugtracking.server.dto;
+
+public class OnlyCountDescription {
+
+    private long count;
+
+    public OnlyCountDescription(long count) {
+        this.count = count;
+    }
+
+    public OnlyCountDescription() {
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
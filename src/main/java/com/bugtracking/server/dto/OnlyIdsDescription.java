@@ -0,0 +1,23 @@
+package com.bugtracking.server.dto;
+
+import java.util.List;
+
+public class OnlyIdsDescription {
+
+    private List<Long> ids;
+
+    public OnlyIdsDescription(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public OnlyIdsDescription() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -1,28 +1,44 @@
 package com.bugtracking.server.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class PageableItemsDescription<I> {
 
-    private long total;
+    public static final String ITEM_FIELDS_FILTER = "itemFields";
+
+    private Long total;
+    private boolean hasMore;
     private List<I> items;
 
     public PageableItemsDescription() {
     }
 
-    public PageableItemsDescription(long total, List<I> items) {
+    public PageableItemsDescription(Long total, List<I> items) {
         this.total = total;
         this.items = items;
     }
 
-    public long getTotal() {
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long getTotal() {
         return total;
     }
 
-    public void setTotal(long total) {
+    public void setTotal(Long total) {
         this.total = total;
     }
 
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    @JsonFilter(ITEM_FIELDS_FILTER)
     public List<I> getItems() {
         return items;
     }
@@ -0,0 +1,7 @@
+package com.bugtracking.server.dto;
+
+public enum TotalCountMode {
+    NONE,
+    EXACT,
+    ESTIMATED
+}
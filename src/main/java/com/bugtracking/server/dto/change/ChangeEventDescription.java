@@ -0,0 +1,77 @@
+package com.bugtracking.server.dto.change;
+
+import com.bugtracking.server.domain.change.ChangeEntityType;
+import com.bugtracking.server.domain.change.ChangeOperation;
+
+import java.time.LocalDateTime;
+
+public class ChangeEventDescription {
+
+    private long id;
+    private ChangeEntityType entityType;
+    private long entityId;
+    private long projectId;
+    private ChangeOperation operation;
+    private LocalDateTime occurredAt;
+
+    public ChangeEventDescription(long id, ChangeEntityType entityType, long entityId, long projectId,
+                                  ChangeOperation operation, LocalDateTime occurredAt) {
+        this.id = id;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.projectId = projectId;
+        this.operation = operation;
+        this.occurredAt = occurredAt;
+    }
+
+    public ChangeEventDescription() {
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public ChangeEntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(ChangeEntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(long entityId) {
+        this.entityId = entityId;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    public ChangeOperation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(ChangeOperation operation) {
+        this.operation = operation;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bugtracking.server.dto.diagnostics;
+
+public class CacheStatsDescription {
+
+    private String name;
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public void setInvalidations(long invalidations) {
+        this.invalidations = invalidations;
+    }
+}
@@ -0,0 +1,104 @@
+package com.bugtracking.server.dto.diagnostics;
+
+public class PoolStatsDescription {
+
+    private String name;
+    private int active;
+    private int idle;
+    private int total;
+    private int pending;
+    private int maxSize;
+    private long acquisitions;
+    private long timeouts;
+    private double averageWaitMillis;
+    private double maxWaitMillis;
+    private double averageUsageMillis;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public void setAcquisitions(long acquisitions) {
+        this.acquisitions = acquisitions;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(long timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public double getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    public void setAverageWaitMillis(double averageWaitMillis) {
+        this.averageWaitMillis = averageWaitMillis;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(double maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public double getAverageUsageMillis() {
+        return averageUsageMillis;
+    }
+
+    public void setAverageUsageMillis(double averageUsageMillis) {
+        this.averageUsageMillis = averageUsageMillis;
+    }
+}
@@ -0,0 +1,86 @@
+package com.bugtracking.server.dto.diagnostics;
+
+public class StatementStatsDescription {
+
+    private String sql;
+    private long executions;
+    private double totalMillis;
+    private double averageMillis;
+    private double maxMillis;
+    private long rows;
+    private long errors;
+    private long slowExecutions;
+    private long repeatedRequests;
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public void setExecutions(long executions) {
+        this.executions = executions;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(double totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public double getAverageMillis() {
+        return averageMillis;
+    }
+
+    public void setAverageMillis(double averageMillis) {
+        this.averageMillis = averageMillis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public void setMaxMillis(double maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long errors) {
+        this.errors = errors;
+    }
+
+    public long getSlowExecutions() {
+        return slowExecutions;
+    }
+
+    public void setSlowExecutions(long slowExecutions) {
+        this.slowExecutions = slowExecutions;
+    }
+
+    public long getRepeatedRequests() {
+        return repeatedRequests;
+    }
+
+    public void setRepeatedRequests(long repeatedRequests) {
+        this.repeatedRequests = repeatedRequests;
+    }
+}
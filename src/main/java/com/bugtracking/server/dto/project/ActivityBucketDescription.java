@@ -0,0 +1,43 @@
+package com.bugtracking.server.dto.project;
+
+import java.time.LocalDateTime;
+
+public class ActivityBucketDescription {
+
+    private LocalDateTime start;
+    private long created;
+    private long modified;
+
+    public ActivityBucketDescription(LocalDateTime start, long created, long modified) {
+        this.start = start;
+        this.created = created;
+        this.modified = modified;
+    }
+
+    public ActivityBucketDescription() {
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getModified() {
+        return modified;
+    }
+
+    public void setModified(long modified) {
+        this.modified = modified;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bugtracking.server.dto.project;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.validation.constraints.Size;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Changes of a single project. Only the properties present in the request are changed, the setters record which
+ * ones were, so an explicit {@code null} description clears it while an absent one keeps it.
+ */
+public class PartialProjectSpec {
+
+    private final Set<String> suppliedFields = new HashSet<>();
+    private String name;
+    private String description;
+
+    @Size(min = 1, max = 255)
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        suppliedFields.add("name");
+    }
+
+    @Size(max = 255)
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        suppliedFields.add("description");
+    }
+
+    @JsonIgnore
+    public Set<String> getSuppliedFields() {
+        return suppliedFields;
+    }
+}
@@ -0,0 +1,39 @@
+package com.bugtracking.server.dto.project;
+
+import com.bugtracking.server.dto.ActivityBucket;
+
+import java.util.List;
+
+public class ProjectActivityDescription {
+
+    private long projectId;
+    private ActivityBucket bucket;
+    private List<ActivityBucketDescription> items;
+
+    public ProjectActivityDescription() {
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    public ActivityBucket getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(ActivityBucket bucket) {
+        this.bucket = bucket;
+    }
+
+    public List<ActivityBucketDescription> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ActivityBucketDescription> items) {
+        this.items = items;
+    }
+}
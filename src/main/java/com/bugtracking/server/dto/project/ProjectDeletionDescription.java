@@ -0,0 +1,78 @@
+package com.bugtracking.server.dto.project;
+
+import java.time.LocalDateTime;
+
+public class ProjectDeletionDescription {
+
+    private long projectId;
+    private ProjectDeletionStatus status;
+    private long totalTasks;
+    private long deletedTasks;
+    private LocalDateTime requestedAt;
+    private LocalDateTime completedAt;
+
+    public ProjectDeletionDescription(long projectId, long totalTasks, long deletedTasks, LocalDateTime requestedAt,
+                                      LocalDateTime completedAt) {
+        this.projectId = projectId;
+        this.totalTasks = totalTasks;
+        this.deletedTasks = deletedTasks;
+        this.requestedAt = requestedAt;
+        this.completedAt = completedAt;
+        if (completedAt != null) {
+            status = ProjectDeletionStatus.COMPLETED;
+        } else {
+            status = (deletedTasks > 0) ? ProjectDeletionStatus.IN_PROGRESS : ProjectDeletionStatus.PENDING;
+        }
+    }
+
+    public ProjectDeletionDescription() {
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    public ProjectDeletionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ProjectDeletionStatus status) {
+        this.status = status;
+    }
+
+    public long getTotalTasks() {
+        return totalTasks;
+    }
+
+    public void setTotalTasks(long totalTasks) {
+        this.totalTasks = totalTasks;
+    }
+
+    public long getDeletedTasks() {
+        return deletedTasks;
+    }
+
+    public void setDeletedTasks(long deletedTasks) {
+        this.deletedTasks = deletedTasks;
+    }
+
+    public LocalDateTime getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(LocalDateTime requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
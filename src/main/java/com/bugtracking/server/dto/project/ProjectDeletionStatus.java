@@ -0,0 +1,7 @@
+package com.bugtracking.server.dto.project;
+
+public enum ProjectDeletionStatus {
+    PENDING,
+    IN_PROGRESS,
+    COMPLETED
+}
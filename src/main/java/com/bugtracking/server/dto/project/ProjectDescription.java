@@ -1,14 +1,37 @@
 package com.bugtracking.server.dto.project;
 
+import com.bugtracking.server.domain.task.TaskStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 public class ProjectDescription {
 
+    public static final Set<String> SUMMARY_FIELDS = Collections.unmodifiableSet(
+        new LinkedHashSet<>(Arrays.asList("id", "name")));
+
     private long id;
     private String name;
     private String description;
     private LocalDateTime createdAt;
     private LocalDateTime modifiedAt;
+    private Map<TaskStatus, Long> taskCounts;
+
+    public ProjectDescription(long id, String name, String description, LocalDateTime createdAt, LocalDateTime modifiedAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.modifiedAt = modifiedAt;
+    }
+
+    public ProjectDescription() {
+    }
 
     public long getId() {
         return id;
@@ -49,4 +72,13 @@ public class ProjectDescription {
     public void setModifiedAt(LocalDateTime modifiedAt) {
         this.modifiedAt = modifiedAt;
     }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Map<TaskStatus, Long> getTaskCounts() {
+        return taskCounts;
+    }
+
+    public void setTaskCounts(Map<TaskStatus, Long> taskCounts) {
+        this.taskCounts = taskCounts;
+    }
 }
@@ -0,0 +1,48 @@
+package com.bugtracking.server.dto.project;
+
+import com.bugtracking.server.domain.task.TaskStatus;
+
+import java.util.Map;
+
+public class ProjectStatsDescription {
+
+    private long projectId;
+    private long total;
+    private Map<TaskStatus, Long> byStatus;
+    private Map<Integer, Map<TaskStatus, Long>> byPriority;
+
+    public ProjectStatsDescription() {
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<TaskStatus, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(Map<TaskStatus, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public Map<Integer, Map<TaskStatus, Long>> getByPriority() {
+        return byPriority;
+    }
+
+    public void setByPriority(Map<Integer, Map<TaskStatus, Long>> byPriority) {
+        this.byPriority = byPriority;
+    }
+}
@@ -3,4 +3,14 @@ package com.bugtracking.server.dto.task;
 import com.bugtracking.server.dto.PageableItemsDescription;
 
 public class GetTasksDescription extends PageableItemsDescription<TaskDescription> {
+
+    private String nextCursor;
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,66 @@
+package com.bugtracking.server.dto.task;
+
+import com.bugtracking.server.domain.task.TaskStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Changes of a single task. Only the properties present in the request are changed, the setters record which
+ * ones were, so an explicit {@code null} description clears it while an absent one keeps it.
+ */
+public class PartialTaskSpec {
+
+    private final Set<String> suppliedFields = new HashSet<>();
+    private String name;
+    private String description;
+    private Integer priority;
+    private TaskStatus status;
+
+    @Size(min = 1, max = 255)
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        suppliedFields.add("name");
+    }
+
+    @Size(max = 65535)
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        suppliedFields.add("description");
+    }
+
+    @Min(1)
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+        suppliedFields.add("priority");
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+        suppliedFields.add("status");
+    }
+
+    @JsonIgnore
+    public Set<String> getSuppliedFields() {
+        return suppliedFields;
+    }
+}
@@ -1,11 +1,19 @@
 package com.bugtracking.server.dto.task;
 
 import com.bugtracking.server.domain.task.TaskStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class TaskDescription {
 
+    public static final Set<String> SUMMARY_FIELDS = Collections.unmodifiableSet(
+        new LinkedHashSet<>(Arrays.asList("id", "name", "priority", "status")));
+
     private long id;
     private Long projectId;
     private String name;
@@ -14,6 +22,23 @@ public class TaskDescription {
     private TaskStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime modifiedAt;
+    private int version;
+
+    public TaskDescription(long id, Long projectId, String name, String description, Integer priority,
+                           TaskStatus status, LocalDateTime createdAt, LocalDateTime modifiedAt, int version) {
+        this.id = id;
+        this.projectId = projectId;
+        this.name = name;
+        this.description = description;
+        this.priority = priority;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.modifiedAt = modifiedAt;
+        this.version = version;
+    }
+
+    public TaskDescription() {
+    }
 
     public long getId() {
         return id;
@@ -78,4 +103,16 @@ public class TaskDescription {
     public void setModifiedAt(LocalDateTime modifiedAt) {
         this.modifiedAt = modifiedAt;
     }
+
+    /**
+     * Returns the version the task has been read at. It is sent as the entity tag rather than in the body.
+     */
+    @JsonIgnore
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,28 @@
+package com.bugtracking.server.dto.task;
+
+import com.bugtracking.server.domain.task.TaskStatus;
+
+import javax.validation.constraints.Min;
+
+public class TaskPatchSpec {
+
+    private TaskStatus status;
+    private Integer priority;
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+
+    @Min(1)
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+}
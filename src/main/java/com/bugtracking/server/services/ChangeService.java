@@ -0,0 +1,19 @@
+package com.bugtracking.server.services;
+
+import com.bugtracking.server.domain.change.ChangeFeed;
+import com.bugtracking.server.domain.change.ChangeListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ChangeService {
+
+    private ChangeFeed changeFeed;
+
+    public ChangeService(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    public ChangeFeed.Subscription subscribe(Long cursor, ChangeListener listener) {
+        return changeFeed.subscribe(cursor, listener);
+    }
+}
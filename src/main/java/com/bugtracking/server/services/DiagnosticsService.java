@@ -0,0 +1,50 @@
+package com.bugtracking.server.services;
+
+import com.bugtracking.server.config.DataSourcePoolMetrics;
+import com.bugtracking.server.config.JdbcInstrumentation;
+import com.bugtracking.server.domain.DescriptionCache;
+import com.bugtracking.server.domain.QueryPlanCacheMonitor;
+import com.bugtracking.server.dto.diagnostics.CacheStatsDescription;
+import com.bugtracking.server.dto.diagnostics.PoolStatsDescription;
+import com.bugtracking.server.dto.diagnostics.StatementStatsDescription;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class DiagnosticsService {
+
+    private List<DescriptionCache<?>> descriptionCaches;
+    private DataSourcePoolMetrics dataSourcePoolMetrics;
+    private JdbcInstrumentation jdbcInstrumentation;
+    private QueryPlanCacheMonitor queryPlanCacheMonitor;
+
+    public DiagnosticsService(List<DescriptionCache<?>> descriptionCaches, DataSourcePoolMetrics dataSourcePoolMetrics,
+                              JdbcInstrumentation jdbcInstrumentation, QueryPlanCacheMonitor queryPlanCacheMonitor) {
+        this.descriptionCaches = descriptionCaches;
+        this.dataSourcePoolMetrics = dataSourcePoolMetrics;
+        this.jdbcInstrumentation = jdbcInstrumentation;
+        this.queryPlanCacheMonitor = queryPlanCacheMonitor;
+    }
+
+    public List<CacheStatsDescription> getCacheStats() {
+        List<CacheStatsDescription> stats = descriptionCaches.stream()
+            .map(DescriptionCache::getStats)
+            .collect(Collectors.toList());
+        stats.add(queryPlanCacheMonitor.getStats());
+        return stats;
+    }
+
+    public List<PoolStatsDescription> getPoolStats() {
+        return dataSourcePoolMetrics.getStats();
+    }
+
+    public List<StatementStatsDescription> getStatementStats(int limit) {
+        return jdbcInstrumentation.getStats(limit);
+    }
+
+    public void resetStatementStats() {
+        jdbcInstrumentation.resetStats();
+    }
+}
@@ -1,76 +1,262 @@
 package com.bugtracking.server.services;
 
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
 import com.bugtracking.server.domain.exceptions.ObjectAlreadyExistsException;
 import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
 import com.bugtracking.server.domain.project.Project;
 import com.bugtracking.server.domain.project.ProjectCommandsFactory;
+import com.bugtracking.server.domain.project.ProjectDeletionRepository;
+import com.bugtracking.server.domain.project.ProjectDescriptionCache;
 import com.bugtracking.server.domain.project.ProjectRepository;
+import com.bugtracking.server.domain.task.TaskActivityRepository;
+import com.bugtracking.server.domain.task.TaskCount;
+import com.bugtracking.server.domain.task.TaskCounterRepository;
+import com.bugtracking.server.domain.task.TaskStatus;
+import com.bugtracking.server.dto.ActivityBucket;
+import com.bugtracking.server.dto.TotalCountMode;
+import com.bugtracking.server.dto.project.ActivityBucketDescription;
 import com.bugtracking.server.dto.project.GetProjectsDescription;
 import com.bugtracking.server.dto.project.NewProjectSpec;
+import com.bugtracking.server.dto.project.PartialProjectSpec;
+import com.bugtracking.server.dto.project.ProjectActivityDescription;
+import com.bugtracking.server.dto.project.ProjectDeletionDescription;
 import com.bugtracking.server.dto.project.ProjectDescription;
 import com.bugtracking.server.dto.project.ProjectSpec;
-import org.springframework.data.domain.Page;
+import com.bugtracking.server.dto.project.ProjectStatsDescription;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 public class ProjectService {
 
+    private static final int MYSQL_DUPLICATE_ENTRY_ERROR = 1062;
+    private static final int MAX_ACTIVITY_BUCKETS = 10000;
+
     private ProjectRepository projectRepository;
+    private ProjectDescriptionCache projectDescriptionCache;
+    private TaskCounterRepository taskCounterRepository;
+    private TaskActivityRepository taskActivityRepository;
+    private ProjectDeletionRepository projectDeletionRepository;
     private ProjectCommandsFactory.CreateProjectCommand createProjectCommand;
     private ProjectCommandsFactory.UpdateProjectCommand updateProjectCommand;
     private ProjectCommandsFactory.DeleteProjectCommand deleteProjectCommand;
 
     public ProjectService(ProjectRepository projectRepository,
+                          ProjectDescriptionCache projectDescriptionCache,
+                          TaskCounterRepository taskCounterRepository,
+                          TaskActivityRepository taskActivityRepository,
+                          ProjectDeletionRepository projectDeletionRepository,
                           ProjectCommandsFactory.CreateProjectCommand createProjectCommand,
                           ProjectCommandsFactory.UpdateProjectCommand updateProjectCommand,
                           ProjectCommandsFactory.DeleteProjectCommand deleteProjectCommand
     ) {
         this.projectRepository = projectRepository;
+        this.projectDescriptionCache = projectDescriptionCache;
+        this.taskCounterRepository = taskCounterRepository;
+        this.taskActivityRepository = taskActivityRepository;
+        this.projectDeletionRepository = projectDeletionRepository;
         this.createProjectCommand = createProjectCommand;
         this.updateProjectCommand = updateProjectCommand;
         this.deleteProjectCommand = deleteProjectCommand;
     }
 
     public Long createProject(NewProjectSpec spec) throws ObjectAlreadyExistsException {
-        return createProjectCommand.createProject(spec).getId();
+        try {
+            return createProjectCommand.createProject(spec).getId();
+        } catch (DataIntegrityViolationException ex) {
+            throw translateNameConflict(ex, spec.getName());
+        }
     }
 
     public void updateProject(long id, ProjectSpec spec) throws ObjectAlreadyExistsException, ObjectNotFoundException {
-        updateProjectCommand.updateProject(id, spec);
+        try {
+            updateProjectCommand.updateProject(id, spec);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateNameConflict(ex, spec.getName());
+        }
+    }
+
+    public void patchProject(long id, PartialProjectSpec spec) throws ObjectAlreadyExistsException, ObjectNotFoundException {
+        try {
+            updateProjectCommand.patchProject(id, spec);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateNameConflict(ex, spec.getName());
+        }
     }
 
-    public void deleteProject(long id) throws ObjectNotFoundException {
+    /**
+     * Deletes the project asynchronously: the project and its tasks disappear right away,
+     * the returned deletion tracks how they are purged.
+     */
+    public ProjectDeletionDescription deleteProject(long id) throws ObjectNotFoundException {
         deleteProjectCommand.deleteProject(id);
+        return getProjectDeletion(id);
     }
 
-    @Transactional(readOnly = true)
+    public ProjectDeletionDescription getProjectDeletion(long id) throws ObjectNotFoundException {
+        ProjectDeletionDescription deletion = projectDeletionRepository.findByProjectId(id).orElse(null);
+        if (deletion == null) {
+            throw new ObjectNotFoundException(Project.class, id);
+        }
+        return deletion;
+    }
+
+    /**
+     * Returns the project description from the details cache, so a cache hit does not touch the database at all.
+     * A miss is read with a single auto-committed query.
+     */
     public ProjectDescription getProjectDetails(long id) throws ObjectNotFoundException {
-        Project project = projectRepository.findById(id).orElse(null);
-        if (project == null) {
+        return projectDescriptionCache.get(id, projectId -> {
+            ProjectDescription description = projectRepository.findDescriptionById(projectId).orElse(null);
+            if (description == null) {
+                throw new ObjectNotFoundException(Project.class, projectId);
+            }
+            return description;
+        });
+    }
+
+    /**
+     * Returns the modification time of the project without loading the project itself.
+     */
+    public LocalDateTime getProjectVersion(long id) throws ObjectNotFoundException {
+        LocalDateTime modifiedAt = projectRepository.findModifiedAtById(id).orElse(null);
+        if (modifiedAt == null) {
             throw new ObjectNotFoundException(Project.class, id);
         }
+        return modifiedAt;
+    }
 
-        return project.toDescription(new ProjectDescription());
+    /**
+     * Returns the numbers of the project's tasks by status and by priority, read from the task counters
+     * rather than counted, so the cost does not depend on the number of tasks.
+     */
+    @Transactional(readOnly = true)
+    public ProjectStatsDescription getProjectStats(long id) throws ObjectNotFoundException {
+        List<TaskCount> counts = taskCounterRepository.findByProjectIds(Collections.singleton(id));
+        if (counts.isEmpty() && !projectRepository.existsLiveById(id)) {
+            throw new ObjectNotFoundException(Project.class, id);
+        }
+
+        ProjectStatsDescription stats = new ProjectStatsDescription();
+        stats.setProjectId(id);
+        stats.setTotal(counts.stream().mapToLong(TaskCount::getCount).sum());
+        stats.setByStatus(toStatusCounts(counts));
+        stats.setByPriority(counts.stream().collect(Collectors.groupingBy(TaskCount::getPriority, TreeMap::new,
+            Collectors.collectingAndThen(Collectors.toList(), ProjectService::toStatusCounts))));
+        return stats;
     }
 
+    /**
+     * Returns the numbers of the project's tasks created and modified in each hour or day of the range.
+     * The range is widened to whole buckets and every bucket in it is returned, including the empty ones.
+     */
     @Transactional(readOnly = true)
-    public GetProjectsDescription getProjects(Integer limit, Integer pageNumber, Sort.Direction sortOrder) {
+    public ProjectActivityDescription getProjectActivity(long id, ActivityBucket bucket, LocalDateTime from,
+                                                         LocalDateTime to) throws ObjectNotFoundException {
+        bucket = (bucket == null) ? ActivityBucket.DAY : bucket;
+        ChronoUnit unit = (bucket == ActivityBucket.HOUR) ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        LocalDateTime start = from.truncatedTo(unit);
+        LocalDateTime end = to.truncatedTo(unit).equals(to) ? to : to.truncatedTo(unit).plus(1, unit);
+        if (!start.isBefore(end)) {
+            throw new InvalidRequestException("Start of the range must be before its end.");
+        }
+        if (unit.between(start, end) > MAX_ACTIVITY_BUCKETS) {
+            throw new InvalidRequestException("Range must not span more than " + MAX_ACTIVITY_BUCKETS + " buckets.");
+        }
+
+        List<ActivityBucketDescription> buckets = taskActivityRepository.findByProjectId(id, bucket, start, end);
+        if (buckets.isEmpty() && !projectRepository.existsLiveById(id)) {
+            throw new ObjectNotFoundException(Project.class, id);
+        }
+
+        List<ActivityBucketDescription> items = new ArrayList<>();
+        int next = 0;
+        for (LocalDateTime bucketStart = start; bucketStart.isBefore(end); bucketStart = bucketStart.plus(1, unit)) {
+            if (next < buckets.size() && buckets.get(next).getStart().equals(bucketStart)) {
+                items.add(buckets.get(next++));
+            } else {
+                items.add(new ActivityBucketDescription(bucketStart, 0, 0));
+            }
+        }
+
+        ProjectActivityDescription activity = new ProjectActivityDescription();
+        activity.setProjectId(id);
+        activity.setBucket(bucket);
+        activity.setItems(items);
+        return activity;
+    }
+
+    /**
+     * Returns a page of projects. With {@code includeTaskCounts}, each project carries the numbers of its tasks
+     * by status, which are read from the task counters with one query for the whole page.
+     */
+    @Transactional(readOnly = true)
+    public GetProjectsDescription getProjects(Integer limit, Integer pageNumber, Sort.Direction sortOrder,
+                                              TotalCountMode includeTotal, Set<String> fields, boolean includeTaskCounts) {
         PageRequest pageable = producePageRequest(limit, pageNumber, sortOrder);
-        Page<Project> projectPage = projectRepository.findAllByFilters(pageable);
+        Slice<ProjectDescription> projectSlice = projectRepository.findDescriptionSliceByFilters(fields, pageable);
+        if (includeTaskCounts && projectSlice.hasContent()) {
+            Map<Long, List<TaskCount>> countsByProject = new HashMap<>();
+            List<Long> projectIds = projectSlice.map(ProjectDescription::getId).getContent();
+            for (TaskCount count : taskCounterRepository.findByProjectIds(projectIds)) {
+                countsByProject.computeIfAbsent(count.getProjectId(), projectId -> new ArrayList<>()).add(count);
+            }
+            for (ProjectDescription description : projectSlice) {
+                description.setTaskCounts(toStatusCounts(
+                    countsByProject.getOrDefault(description.getId(), Collections.emptyList())));
+            }
+        }
 
         GetProjectsDescription result = new GetProjectsDescription();
-        result.setTotal(projectPage.getTotalElements());
-        result.setItems(projectPage.stream()
-            .map(project -> project.toDescription(new ProjectDescription()))
-            .collect(Collectors.toList()));
+        result.setTotal(TotalCountResolver.resolve(includeTotal, projectSlice, true, projectRepository::countByFilters));
+        result.setHasMore(projectSlice.hasNext());
+        result.setItems(projectSlice.getContent());
         return result;
     }
 
+    /**
+     * Turns a violation of the unique project name index into {@link ObjectAlreadyExistsException}
+     * pointing to the project holding the name. The lookup runs after the failed transaction has been rolled back,
+     * so it only costs a query when there is a conflict.
+     */
+    private ObjectAlreadyExistsException translateNameConflict(DataIntegrityViolationException ex, String name) {
+        Throwable cause = ex.getMostSpecificCause();
+        if (!(cause instanceof SQLException) || ((SQLException) cause).getErrorCode() != MYSQL_DUPLICATE_ENTRY_ERROR) {
+            throw ex;
+        }
+        Project existingProject = projectRepository.findByName(name);
+        return new ObjectAlreadyExistsException(Project.class, Collections.singletonMap("name", name),
+            (existingProject == null) ? null : existingProject.getId());
+    }
+
+    private static Map<TaskStatus, Long> toStatusCounts(List<TaskCount> counts) {
+        Map<TaskStatus, Long> statusCounts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            statusCounts.put(status, 0L);
+        }
+        for (TaskCount count : counts) {
+            statusCounts.merge(count.getStatus(), count.getCount(), Long::sum);
+        }
+        return statusCounts;
+    }
+
     private PageRequest producePageRequest(Integer limit, Integer pageNumber, Sort.Direction sortOrder) {
         if (limit != null || pageNumber != null || sortOrder != null) {
             limit = (limit == null) ? 1000 : limit;
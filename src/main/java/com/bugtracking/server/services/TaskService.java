@@ -1,84 +1,206 @@
 package com.bugtracking.server.services;
 
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
+import com.bugtracking.server.domain.exceptions.ObjectModifiedException;
 import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
 import com.bugtracking.server.domain.task.Task;
 import com.bugtracking.server.domain.task.TaskCommandsFactory;
+import com.bugtracking.server.domain.task.TaskCursor;
+import com.bugtracking.server.domain.task.TaskDescriptionCache;
 import com.bugtracking.server.domain.task.TaskRepository;
 import com.bugtracking.server.domain.task.TaskStatus;
 import com.bugtracking.server.dto.TaskOrderFormat;
+import com.bugtracking.server.dto.TotalCountMode;
 import com.bugtracking.server.dto.task.GetTasksDescription;
 import com.bugtracking.server.dto.task.NewTaskSpec;
+import com.bugtracking.server.dto.task.PartialTaskSpec;
 import com.bugtracking.server.dto.task.TaskDescription;
+import com.bugtracking.server.dto.task.TaskPatchSpec;
 import com.bugtracking.server.dto.task.TaskSpec;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 public class TaskService {
 
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 50;
+
+    private int bulkUpdateChunkSize;
+
     private TaskRepository taskRepository;
+    private TaskDescriptionCache taskDescriptionCache;
     private TaskCommandsFactory.CreateTaskCommand createTaskCommand;
+    private TaskCommandsFactory.CreateTasksCommand createTasksCommand;
     private TaskCommandsFactory.UpdateTaskCommand updateTaskCommand;
+    private TaskCommandsFactory.UpdateTasksCommand updateTasksCommand;
     private TaskCommandsFactory.DeleteTaskCommand deleteTaskCommand;
 
     public TaskService(TaskRepository taskRepository,
+                       TaskDescriptionCache taskDescriptionCache,
                        TaskCommandsFactory.CreateTaskCommand createTaskCommand,
+                       TaskCommandsFactory.CreateTasksCommand createTasksCommand,
                        TaskCommandsFactory.UpdateTaskCommand updateTaskCommand,
-                       TaskCommandsFactory.DeleteTaskCommand deleteTaskCommand
+                       TaskCommandsFactory.UpdateTasksCommand updateTasksCommand,
+                       TaskCommandsFactory.DeleteTaskCommand deleteTaskCommand,
+                       @Value("${bugtracking.tasks.bulk-update.chunk-size:1000}") int bulkUpdateChunkSize
     ) {
         this.taskRepository = taskRepository;
+        this.taskDescriptionCache = taskDescriptionCache;
         this.createTaskCommand = createTaskCommand;
+        this.createTasksCommand = createTasksCommand;
         this.updateTaskCommand = updateTaskCommand;
+        this.updateTasksCommand = updateTasksCommand;
         this.deleteTaskCommand = deleteTaskCommand;
+        this.bulkUpdateChunkSize = bulkUpdateChunkSize;
     }
 
     public Long createTask(NewTaskSpec spec) throws ObjectNotFoundException {
         return createTaskCommand.createTask(spec).getId();
     }
 
-    public void updateTask(long id, TaskSpec spec) throws ObjectNotFoundException {
-        updateTaskCommand.updateTask(id, spec);
+    public List<Long> createTasks(List<NewTaskSpec> specs) throws ObjectNotFoundException {
+        return createTasksCommand.createTasks(specs);
+    }
+
+    /**
+     * Updates the task if it is still at {@code expectedVersion}, or regardless of its version when that is {@code null}.
+     */
+    public void updateTask(long id, Integer expectedVersion, TaskSpec spec) throws ObjectNotFoundException, ObjectModifiedException {
+        updateTaskCommand.updateTask(id, expectedVersion, spec);
+    }
+
+    /**
+     * Changes only the properties present in the spec, with the same version check as {@link #updateTask}.
+     */
+    public void patchTask(long id, Integer expectedVersion, PartialTaskSpec spec) throws ObjectNotFoundException, ObjectModifiedException {
+        updateTaskCommand.patchTask(id, expectedVersion, spec);
+    }
+
+    /**
+     * Applies the patch to all not closed tasks matching the filters. Tasks are updated in chunks,
+     * each in its own transaction, so row locks are held only for the duration of one chunk.
+     *
+     * @return number of updated tasks
+     */
+    public long updateTasks(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                            LocalDateTime startDate, LocalDateTime endDate, TaskPatchSpec patch) {
+        if (patch.getStatus() == null && patch.getPriority() == null) {
+            throw new InvalidRequestException("Either status or priority must be specified.");
+        }
+
+        long updated = 0;
+        long lastTaskId = 0;
+        List<Long> taskIds;
+        do {
+            taskIds = taskRepository.findModifiableIdsByFilters(projectId, statusSet, prioritySet, startDate, endDate,
+                lastTaskId, bulkUpdateChunkSize);
+            if (taskIds.isEmpty()) {
+                break;
+            }
+            updated += updateTasksCommand.updateTasks(taskIds, projectId, statusSet, prioritySet, startDate, endDate, patch);
+            lastTaskId = taskIds.get(taskIds.size() - 1);
+        } while (taskIds.size() == bulkUpdateChunkSize);
+        return updated;
     }
 
     public void deleteTask(long id) throws ObjectNotFoundException {
         deleteTaskCommand.deleteTask(id);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Returns the task description from the details cache, so a cache hit does not touch the database at all.
+     * A miss is read with a single auto-committed query.
+     */
     public TaskDescription getTaskDetails(long id) throws ObjectNotFoundException {
-        Task task = taskRepository.findById(id).orElse(null);
-        if (task == null) {
+        return taskDescriptionCache.get(id, taskId -> {
+            TaskDescription description = taskRepository.findDescriptionById(taskId).orElse(null);
+            if (description == null) {
+                throw new ObjectNotFoundException(Task.class, taskId);
+            }
+            return description;
+        });
+    }
+
+    /**
+     * Returns the version of the task without loading the task itself.
+     */
+    public int getTaskVersion(long id) throws ObjectNotFoundException {
+        Integer version = taskRepository.findVersionById(id).orElse(null);
+        if (version == null) {
             throw new ObjectNotFoundException(Task.class, id);
         }
-        return task.toDescription(new TaskDescription());
+        return version;
     }
 
     @Transactional(readOnly = true)
     public GetTasksDescription getTasks(Integer limit, Integer pageNumber, Sort.Direction sortOrder,
                                         TaskOrderFormat orderBy, Long projectId, Set<TaskStatus> statusSet,
-                                        Set<Integer> prioritySet, LocalDateTime startDate, LocalDateTime endDate
+                                        Set<Integer> prioritySet, LocalDateTime startDate, LocalDateTime endDate,
+                                        String cursor, TotalCountMode includeTotal, Set<String> fields
     ) {
-        PageRequest pageable = producePageRequest(limit, pageNumber, sortOrder, orderBy);
-        Page<Task> taskPage = taskRepository.findAllByFilters(projectId, statusSet, prioritySet, startDate, endDate, pageable);
+        TaskCursor taskCursor = (cursor == null) ? null : TaskCursor.parse(cursor);
+        PageRequest pageable = producePageRequest(limit, (taskCursor == null) ? pageNumber : null, sortOrder, orderBy,
+            taskCursor != null);
+        Slice<TaskDescription> taskSlice = taskRepository.findDescriptionSliceByFilters(projectId, statusSet, prioritySet, startDate, endDate,
+            fields, taskCursor, pageable);
 
         GetTasksDescription result = new GetTasksDescription();
-        result.setTotal(taskPage.getTotalElements());
-        result.setItems(taskPage.stream()
-            .map(task -> task.toDescription(new TaskDescription()))
-            .collect(Collectors.toList()));
+        result.setTotal(TotalCountResolver.resolve(includeTotal, taskSlice, taskCursor == null,
+            estimated -> taskRepository.countByFilters(projectId, statusSet, prioritySet, startDate, endDate, estimated)));
+        result.setHasMore(taskSlice.hasNext());
+        result.setItems(taskSlice.getContent());
+        if (taskSlice.hasNext()) {
+            result.setNextCursor(produceNextCursor(result.getItems(), pageable));
+        }
         return result;
     }
 
-    private PageRequest producePageRequest(Integer limit, Integer pageNumber, Sort.Direction sortOrder, TaskOrderFormat orderBy) {
-        if (limit != null || pageNumber != null || sortOrder != null || orderBy != null) {
-            limit = (limit == null) ? 1000 : limit;
+    /**
+     * Returns tasks matching the search text, ordered by relevance. The total is never counted,
+     * {@code hasMore} tells whether there is a next page.
+     */
+    @Transactional(readOnly = true)
+    public GetTasksDescription searchTasks(String text, Integer limit, Integer pageNumber, Long projectId,
+                                           Set<TaskStatus> statusSet, Set<Integer> prioritySet) {
+        PageRequest pageable = PageRequest.of((pageNumber == null) ? 0 : pageNumber,
+            (limit == null) ? DEFAULT_SEARCH_PAGE_SIZE : limit);
+        Slice<TaskDescription> taskSlice = taskRepository.searchDescriptions(text.trim(), projectId, statusSet,
+            prioritySet, pageable);
+
+        GetTasksDescription result = new GetTasksDescription();
+        result.setHasMore(taskSlice.hasNext());
+        result.setItems(taskSlice.getContent());
+        return result;
+    }
+
+    /**
+     * Passes descriptions of all tasks matching the filters to the consumer as they are read from the database.
+     */
+    public void exportTasks(Long projectId, Set<TaskStatus> statusSet, Set<Integer> prioritySet,
+                            LocalDateTime startDate, LocalDateTime endDate, Consumer<TaskDescription> consumer) {
+        taskRepository.streamByFilters(projectId, statusSet, prioritySet, startDate, endDate, consumer);
+    }
+
+    private String produceNextCursor(List<TaskDescription> items, PageRequest pageable) {
+        TaskDescription last = items.get(items.size() - 1);
+        Sort sort = (pageable == null) ? Sort.unsorted() : pageable.getSort();
+        return new TaskCursor(sort, last.getId(), last.getPriority(), last.getModifiedAt()).encode();
+    }
+
+    private PageRequest producePageRequest(Integer limit, Integer pageNumber, Sort.Direction sortOrder,
+                                           TaskOrderFormat orderBy, boolean cursorRequested) {
+        if (limit != null || pageNumber != null || sortOrder != null || orderBy != null || cursorRequested) {
+            limit = (limit == null) ? DEFAULT_PAGE_SIZE : limit;
             pageNumber = (pageNumber == null) ? 0 : pageNumber;
             sortOrder = (sortOrder == null) ? Sort.Direction.ASC : sortOrder;
 
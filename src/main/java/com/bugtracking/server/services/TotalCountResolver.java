@@ -0,0 +1,31 @@
+package com.bugtracking.server.services;
+
+import com.bugtracking.server.dto.TotalCountMode;
+import org.springframework.data.domain.Slice;
+
+final class TotalCountResolver {
+
+    interface Counter {
+        long count(boolean estimated);
+    }
+
+    private TotalCountResolver() {
+    }
+
+    /**
+     * Produces the total to report along with a listing page. When the page is the last one and its
+     * offset is known, the total follows from the page itself and no count query is issued at all.
+     */
+    static Long resolve(TotalCountMode mode, Slice<?> slice, boolean offsetKnown, Counter counter) {
+        if (mode == null) {
+            mode = TotalCountMode.EXACT;
+        }
+        if (mode == TotalCountMode.NONE) {
+            return null;
+        }
+        if (offsetKnown && slice.hasContent() && !slice.hasNext()) {
+            return slice.getPageable().getOffset() + slice.getNumberOfElements();
+        }
+        return counter.count(mode == TotalCountMode.ESTIMATED);
+    }
+}
@@ -0,0 +1,19 @@
+package com.bugtracking.server.utils;
+
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.spatial.dialect.mysql.MySQLSpatialDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * MySQL dialect with the full-text search functions used by JPQL queries:
+ * {@code fulltext_match(column1, column2, :text)} renders to {@code MATCH (...) AGAINST (... IN NATURAL LANGUAGE MODE)}
+ * and returns the relevance of the row, which is zero for rows not matching the text.
+ */
+public class BugTrackingMySQLDialect extends MySQLSpatialDialect {
+
+    public BugTrackingMySQLDialect() {
+        super();
+        registerFunction("fulltext_match", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+            "MATCH (?1, ?2) AGAINST (?3 IN NATURAL LANGUAGE MODE)"));
+    }
+}
@@ -6,7 +6,6 @@ import java.sql.Connection;
 import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
-import java.sql.Statement;
 import java.util.Properties;
 import java.util.logging.Logger;
 
@@ -27,19 +26,13 @@ public class Utf8Mb4SupportingMySQLDriver extends NonRegisteringDriver implement
     public Utf8Mb4SupportingMySQLDriver() throws SQLException {
     }
 
+    /**
+     * Opens a plain MySQL connection. The utf8mb4 session charset is applied once per physical connection
+     * by the pool ({@code spring.datasource.hikari.connection-init-sql}) instead of a statement batch here.
+     */
     @Override
     public Connection connect(String url, Properties info) throws SQLException {
-        Connection connection = super.connect(replaceUrl(url), info);
-        if (connection != null) {
-            try (Statement statement = connection.createStatement()) {
-                statement.addBatch("SET SESSION character_set_client = utf8mb4");
-                statement.addBatch("SET SESSION character_set_results = utf8mb4");
-                statement.addBatch("SET SESSION character_set_connection = utf8mb4");
-                statement.addBatch("SET SESSION collation_connection = utf8mb4_unicode_ci");
-                statement.executeBatch();
-            }
-        }
-        return connection;
+        return super.connect(replaceUrl(url), info);
     }
 
     private static String replaceUrl(String url) {
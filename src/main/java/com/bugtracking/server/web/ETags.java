@@ -0,0 +1,71 @@
+package com.bugtracking.server.web;
+
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds strong entity tags from the modification times the database maintains for projects
+ * and from the version numbers of tasks.
+ */
+public final class ETags {
+
+    private static final Pattern VERSION_TAG = Pattern.compile("\"(\\d+)-v(\\d+)\"");
+
+    private ETags() {
+    }
+
+    public static String forVersion(long id, LocalDateTime modifiedAt) {
+        return "\"" + id + '-' + toMillis(modifiedAt) + '"';
+    }
+
+    public static String forVersion(long id, int version) {
+        return "\"" + id + "-v" + version + '"';
+    }
+
+    /**
+     * Returns the version held by an {@code If-Match} tag of the object, or {@code null} for {@code *},
+     * which matches any version.
+     *
+     * @throws InvalidRequestException if the tag is not a version tag of the object
+     */
+    public static Integer parseVersion(long id, String eTag) {
+        String tag = eTag.trim();
+        if ("*".equals(tag)) {
+            return null;
+        }
+        Matcher matcher = VERSION_TAG.matcher(tag);
+        if (!matcher.matches() || !matcher.group(1).equals(Long.toString(id))) {
+            throw new InvalidRequestException("If-Match must hold the entity tag of the object or '*'.");
+        }
+        return Integer.valueOf(matcher.group(2));
+    }
+
+    /**
+     * Returns a tag for a page of items, derived from IDs and modification times of the items
+     * and from anything else which shapes the response, such as the total count or the selected fields.
+     */
+    public static <I> String forItems(List<I> items, ToLongFunction<I> idGetter, Function<I, LocalDateTime> modifiedAtGetter,
+                                      Object... attributes) {
+        StringBuilder sb = new StringBuilder();
+        for (Object attribute : attributes) {
+            sb.append(attribute).append('|');
+        }
+        for (I item : items) {
+            sb.append(idGetter.applyAsLong(item)).append(':').append(toMillis(modifiedAtGetter.apply(item))).append(',');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return (dateTime == null) ? 0 : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -2,6 +2,7 @@ package com.bugtracking.server.web;
 
 import com.bugtracking.server.domain.exceptions.InvalidRequestException;
 import com.bugtracking.server.domain.exceptions.ObjectAlreadyExistsException;
+import com.bugtracking.server.domain.exceptions.ObjectModifiedException;
 import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
@@ -37,6 +38,12 @@ public class ExceptionHandlingAdvice {
         return "forward:/error";
     }
 
+    @ExceptionHandler(ObjectModifiedException.class)
+    public String handleException(ObjectModifiedException ex, HttpServletRequest request) {
+        request.setAttribute(WebUtils.ERROR_STATUS_CODE_ATTRIBUTE, HttpStatus.CONFLICT.value());
+        return "forward:/error";
+    }
+
     @ExceptionHandler(InvalidRequestException.class)
     public String handleException(InvalidRequestException ex, HttpServletRequest request) {
         request.setAttribute(WebUtils.ERROR_STATUS_CODE_ATTRIBUTE, HttpStatus.BAD_REQUEST.value());
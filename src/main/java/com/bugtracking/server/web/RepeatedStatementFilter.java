@@ -0,0 +1,53 @@
+package com.bugtracking.server.web;
+
+import com.bugtracking.server.config.JdbcInstrumentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts the statements each request issues and logs the request when it repeats the same statement shape
+ * many times, which usually means an association is loaded one row at a time (N+1 queries).
+ * Requests which repeat statements by design, such as a bulk update working through its tasks in chunks,
+ * are listed as {@code "METHOD /path"} in {@code exemptRequests} and not counted.
+ */
+public class RepeatedStatementFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RepeatedStatementFilter.class);
+
+    private final JdbcInstrumentation jdbcInstrumentation;
+    private final Set<String> exemptRequests;
+
+    public RepeatedStatementFilter(JdbcInstrumentation jdbcInstrumentation, Set<String> exemptRequests) {
+        this.jdbcInstrumentation = jdbcInstrumentation;
+        this.exemptRequests = exemptRequests;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return exemptRequests.contains(request.getMethod() + " " + path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        jdbcInstrumentation.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Map<String, Integer> repeated = jdbcInstrumentation.endRequest();
+            if (!repeated.isEmpty()) {
+                log.warn("Possible N+1 queries in {} {}: {}", request.getMethod(), request.getRequestURI(), repeated);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bugtracking.server.web.rest;
+
+import com.bugtracking.server.domain.change.ChangeFeed;
+import com.bugtracking.server.domain.change.ChangeListener;
+import com.bugtracking.server.dto.change.ChangeEventDescription;
+import com.bugtracking.server.services.ChangeService;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.util.List;
+
+@Validated
+@RestController
+@RequestMapping(value = "/api/changes", produces = {MediaType.TEXT_EVENT_STREAM_VALUE})
+public class ChangeRestController {
+
+    private static final String EVENT_NAME = "change";
+
+    @Autowired
+    private ChangeService changeService;
+
+    /**
+     * Streams the task and project changes as server-sent events. Every event carries its ID, so a client
+     * which reconnects with the {@code Last-Event-ID} header, or the {@code cursor} parameter, continues after
+     * the last event it has received. Without either the stream starts with the changes from now on.
+     */
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK", response = ChangeEventDescription.class, responseContainer = "List")
+    })
+    @RequestMapping(path = "stream", method = RequestMethod.GET)
+    public SseEmitter streamChanges(
+        @RequestParam(value = "cursor", required = false) @Min(value = 0, message = "Cursor must not be negative.") Long cursor,
+        @RequestHeader(value = "Last-Event-ID", required = false) @Min(value = 0, message = "Last-Event-ID must not be negative.") Long lastEventId
+    ) {
+        SseEmitter emitter = new SseEmitter();
+        ChangeFeed.Subscription subscription = changeService.subscribe((lastEventId != null) ? lastEventId : cursor,
+            new ChangeListener() {
+                private long lastEventId = -1;
+
+                @Override
+                public void onEvents(List<ChangeEventDescription> events) throws IOException {
+                    for (ChangeEventDescription event : events) {
+                        SseEmitter.SseEventBuilder builder = SseEmitter.event();
+                        // an event committed after its gap was skipped comes late and must not move the client's cursor back
+                        if (event.getId() > lastEventId) {
+                            lastEventId = event.getId();
+                            builder.id(String.valueOf(event.getId()));
+                        }
+                        emitter.send(builder.name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON));
+                    }
+                }
+
+                @Override
+                public void onDropped() {
+                    emitter.complete();
+                }
+            });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(ex -> subscription.cancel());
+        return emitter;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bugtracking.server.web.rest;
+
+import com.bugtracking.server.dto.diagnostics.CacheStatsDescription;
+import com.bugtracking.server.dto.diagnostics.PoolStatsDescription;
+import com.bugtracking.server.dto.diagnostics.StatementStatsDescription;
+import com.bugtracking.server.services.DiagnosticsService;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.Min;
+import java.util.List;
+
+@Validated
+@RestController
+@RequestMapping(value = "/api/diagnostics", produces = {"application/json"})
+public class DiagnosticsRestController {
+
+    @Autowired
+    private DiagnosticsService diagnosticsService;
+
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK", response = CacheStatsDescription.class, responseContainer = "List")
+    })
+    @RequestMapping(path = "caches", method = RequestMethod.GET)
+    public ResponseEntity<List<CacheStatsDescription>> getCacheStats() {
+        return ResponseEntity.ok(diagnosticsService.getCacheStats());
+    }
+
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK", response = PoolStatsDescription.class, responseContainer = "List")
+    })
+    @RequestMapping(path = "pool", method = RequestMethod.GET)
+    public ResponseEntity<List<PoolStatsDescription>> getPoolStats() {
+        return ResponseEntity.ok(diagnosticsService.getPoolStats());
+    }
+
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK", response = StatementStatsDescription.class, responseContainer = "List")
+    })
+    @RequestMapping(path = "jdbc", method = RequestMethod.GET)
+    public ResponseEntity<List<StatementStatsDescription>> getStatementStats(
+        @RequestParam(value = "limit", required = false, defaultValue = "50") @Min(value = 1, message = "Limit must not be less than one.") int limit
+    ) {
+        return ResponseEntity.ok(diagnosticsService.getStatementStats(limit));
+    }
+
+    @ApiResponses({
+        @ApiResponse(code = 204, message = "Statistics are reset")
+    })
+    @RequestMapping(path = "jdbc", method = RequestMethod.DELETE)
+    public ResponseEntity<Void> resetStatementStats() {
+        diagnosticsService.resetStatementStats();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.bugtracking.server.web.rest;
+
+import com.bugtracking.server.dto.PageableItemsDescription;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Set;
+
+/**
+ * Narrows JSON output of listed items to the requested fields.
+ */
+final class ItemFieldsFilter {
+
+    private ItemFieldsFilter() {
+    }
+
+    static MappingJacksonValue apply(PageableItemsDescription<?> description, Set<String> fields) {
+        SimpleBeanPropertyFilter filter = (fields == null)
+            ? SimpleBeanPropertyFilter.serializeAll()
+            : SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+        MappingJacksonValue value = new MappingJacksonValue(description);
+        value.setFilters(new SimpleFilterProvider().addFilter(PageableItemsDescription.ITEM_FIELDS_FILTER, filter));
+        return value;
+    }
+}
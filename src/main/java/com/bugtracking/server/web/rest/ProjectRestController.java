@@ -2,19 +2,30 @@ package com.bugtracking.server.web.rest;
 
 import com.bugtracking.server.domain.exceptions.ObjectAlreadyExistsException;
 import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
+import com.bugtracking.server.dto.ActivityBucket;
+import com.bugtracking.server.dto.ListView;
 import com.bugtracking.server.dto.OnlyIdDescription;
+import com.bugtracking.server.dto.TotalCountMode;
 import com.bugtracking.server.dto.project.GetProjectsDescription;
 import com.bugtracking.server.dto.project.NewProjectSpec;
+import com.bugtracking.server.dto.project.PartialProjectSpec;
+import com.bugtracking.server.dto.project.ProjectActivityDescription;
+import com.bugtracking.server.dto.project.ProjectDeletionDescription;
 import com.bugtracking.server.dto.project.ProjectDescription;
 import com.bugtracking.server.dto.project.ProjectSpec;
+import com.bugtracking.server.dto.project.ProjectStatsDescription;
 import com.bugtracking.server.services.ProjectService;
+import com.bugtracking.server.web.ETags;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -23,11 +34,16 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Validated
 @RestController
@@ -65,35 +81,115 @@ public class ProjectRestController {
     }
 
     @ApiResponses({
-        @ApiResponse(code = 204, message = "Project is successfully deleted"),
+        @ApiResponse(code = 204, message = "Specified properties of the project have been successfully updated"),
         @ApiResponse(code = 404, message = "Project with specified ID does not exist")
     })
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    @RequestMapping(path = "{projectId}", method = RequestMethod.DELETE)
-    public ResponseEntity<Void> deleteProject(@PathVariable("projectId") long projectId) throws ObjectNotFoundException {
-        projectService.deleteProject(projectId);
+    @RequestMapping(path = "{projectId}", method = RequestMethod.PATCH, consumes = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Void> patchProject(
+        @PathVariable("projectId") long projectId,
+        @Valid @RequestBody PartialProjectSpec spec
+    ) throws ObjectAlreadyExistsException, ObjectNotFoundException {
+        projectService.patchProject(projectId, spec);
         return ResponseEntity.noContent().build();
     }
 
+    @ApiResponses({
+        @ApiResponse(code = 202, message = "Project is deleted, its tasks are being purged"),
+        @ApiResponse(code = 404, message = "Project with specified ID does not exist")
+    })
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @RequestMapping(path = "{projectId}", method = RequestMethod.DELETE)
+    public ResponseEntity<ProjectDeletionDescription> deleteProject(
+        @PathVariable("projectId") long projectId,
+        UriComponentsBuilder uriComponentsBuilder
+    ) throws ObjectNotFoundException {
+        ProjectDeletionDescription deletion = projectService.deleteProject(projectId);
+        URI deletionUri = uriComponentsBuilder.path("/api/projects/{projectId}/deletion").buildAndExpand(projectId).toUri();
+        return ResponseEntity.accepted().location(deletionUri).body(deletion);
+    }
+
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "Status and progress of the project deletion"),
+        @ApiResponse(code = 404, message = "Project with specified ID has not been deleted")
+    })
+    @RequestMapping(path = "{projectId}/deletion", method = RequestMethod.GET)
+    public ResponseEntity<ProjectDeletionDescription> getProjectDeletion(
+        @PathVariable("projectId") long projectId
+    ) throws ObjectNotFoundException {
+        return ResponseEntity.ok(projectService.getProjectDeletion(projectId));
+    }
+
     @ApiResponses({
         @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 304, message = "Project has not been modified since the version given in If-None-Match"),
         @ApiResponse(code = 404, message = "Project with specified ID does not exist")
     })
     @RequestMapping(path = "{projectId}", method = RequestMethod.GET)
-    public ResponseEntity<ProjectDescription> getProjectDetails(@PathVariable("projectId") long projectId) throws ObjectNotFoundException {
+    public ResponseEntity<ProjectDescription> getProjectDetails(
+        @PathVariable("projectId") long projectId,
+        WebRequest request
+    ) throws ObjectNotFoundException {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+            && request.checkNotModified(ETags.forVersion(projectId, projectService.getProjectVersion(projectId)))) {
+            return null;
+        }
         ProjectDescription description  = projectService.getProjectDetails(projectId);
-        return ResponseEntity.ok().body(description);
+        return ResponseEntity.ok().eTag(ETags.forVersion(projectId, description.getModifiedAt())).body(description);
+    }
+
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "Numbers of the project's tasks by status and by priority"),
+        @ApiResponse(code = 404, message = "Project with specified ID does not exist")
+    })
+    @RequestMapping(path = "{projectId}/stats", method = RequestMethod.GET)
+    public ResponseEntity<ProjectStatsDescription> getProjectStats(
+        @PathVariable("projectId") long projectId
+    ) throws ObjectNotFoundException {
+        return ResponseEntity.ok(projectService.getProjectStats(projectId));
+    }
+
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "Numbers of the project's tasks created and modified per hour or day"),
+        @ApiResponse(code = 400, message = "Range is empty or spans too many buckets"),
+        @ApiResponse(code = 404, message = "Project with specified ID does not exist")
+    })
+    @RequestMapping(path = "{projectId}/activity", method = RequestMethod.GET)
+    public ResponseEntity<ProjectActivityDescription> getProjectActivity(
+        @PathVariable("projectId") long projectId,
+        @RequestParam(value = "bucket", required = false) ActivityBucket bucket,
+        @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) throws ObjectNotFoundException {
+        return ResponseEntity.ok(projectService.getProjectActivity(projectId, bucket, from, to));
     }
 
     @ApiResponses({
         @ApiResponse(code = 200, message = "OK", response = GetProjectsDescription.class)
     })
     @RequestMapping(method = RequestMethod.GET)
-    public ResponseEntity<GetProjectsDescription> listProjects(
+    public ResponseEntity<MappingJacksonValue> listProjects(
         @RequestParam(value = "limit", required = false) @Min(value = 1, message = "Page limit must not be less than one.") Integer limit,
         @RequestParam(value = "page", required = false) @Min(value = 0, message = "Page index must not be less than zero.") Integer page,
-        @RequestParam(value = "sortOrder", required = false) Sort.Direction sortOrder
+        @RequestParam(value = "sortOrder", required = false) Sort.Direction sortOrder,
+        @RequestParam(value = "includeTotal", required = false) TotalCountMode includeTotal,
+        @RequestParam(value = "fields", required = false) Set<String> fields,
+        @RequestParam(value = "view", required = false) ListView view,
+        @RequestParam(value = "includeTaskCounts", defaultValue = "false") boolean includeTaskCounts
     ) {
-        return ResponseEntity.ok(projectService.getProjects(limit, page, sortOrder));
+        Set<String> selectedFields = (fields == null && view == ListView.SUMMARY) ? ProjectDescription.SUMMARY_FIELDS : fields;
+        GetProjectsDescription projects = projectService.getProjects(limit, page, sortOrder, includeTotal, selectedFields,
+            includeTaskCounts);
+        // task counts change without touching the project, so they are part of the tag themselves
+        Object taskCounts = includeTaskCounts
+            ? projects.getItems().stream().map(ProjectDescription::getTaskCounts).collect(Collectors.toList())
+            : null;
+        String eTag = ETags.forItems(projects.getItems(), ProjectDescription::getId, ProjectDescription::getModifiedAt,
+            projects.getTotal(), projects.isHasMore(), selectedFields, taskCounts);
+        Set<String> serializedFields = selectedFields;
+        if (selectedFields != null && includeTaskCounts) {
+            serializedFields = new LinkedHashSet<>(selectedFields);
+            serializedFields.add("taskCounts");
+        }
+        return ResponseEntity.ok().eTag(eTag).body(ItemFieldsFilter.apply(projects, serializedFields));
     }
 }
@@ -1,36 +1,57 @@
 package com.bugtracking.server.web.rest;
 
+import com.bugtracking.server.domain.exceptions.ObjectModifiedException;
 import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
 import com.bugtracking.server.domain.task.TaskStatus;
+import com.bugtracking.server.dto.ListView;
+import com.bugtracking.server.dto.OnlyCountDescription;
 import com.bugtracking.server.dto.OnlyIdDescription;
+import com.bugtracking.server.dto.OnlyIdsDescription;
 import com.bugtracking.server.dto.TaskOrderFormat;
+import com.bugtracking.server.dto.TotalCountMode;
 import com.bugtracking.server.dto.task.GetTasksDescription;
 import com.bugtracking.server.dto.task.NewTaskSpec;
+import com.bugtracking.server.dto.task.PartialTaskSpec;
 import com.bugtracking.server.dto.task.TaskDescription;
+import com.bugtracking.server.dto.task.TaskPatchSpec;
 import com.bugtracking.server.dto.task.TaskSpec;
 import com.bugtracking.server.services.TaskService;
+import com.bugtracking.server.web.ETags;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 
 @Validated
@@ -38,8 +59,12 @@ import java.util.Set;
 @RequestMapping(value = "/api/tasks", produces = {"application/json"})
 public class TaskRestController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     @Autowired
     private TaskService taskService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @ApiResponses({
         @ApiResponse(code = 201, message = "New Task is successfully created")
@@ -55,19 +80,66 @@ public class TaskRestController {
         return ResponseEntity.created(taskUri).body(new OnlyIdDescription(taskId));
     }
 
+    @ApiResponses({
+        @ApiResponse(code = 201, message = "New Tasks are successfully created"),
+        @ApiResponse(code = 404, message = "Project with specified ID does not exist")
+    })
+    @ResponseStatus(HttpStatus.CREATED)
+    @RequestMapping(path = "batch", method = RequestMethod.POST, consumes = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<OnlyIdsDescription> createTasks(
+        @RequestBody @Size(min = 1, max = 10000, message = "Batch must contain from 1 to 10000 tasks.") List<@Valid NewTaskSpec> specs
+    ) throws ObjectNotFoundException {
+        List<Long> taskIds = taskService.createTasks(specs);
+        return ResponseEntity.status(HttpStatus.CREATED).body(new OnlyIdsDescription(taskIds));
+    }
+
     @ApiResponses({
         @ApiResponse(code = 204, message = "Task has been successfully updated"),
-        @ApiResponse(code = 404, message = "Task with specified ID does not exist")
+        @ApiResponse(code = 404, message = "Task with specified ID does not exist"),
+        @ApiResponse(code = 409, message = "Task has been modified since the version given in If-Match")
     })
     @RequestMapping(path = "{taskId}", method = RequestMethod.PUT, consumes = {MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<Void> updateTask(
         @PathVariable("taskId") long taskId,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody TaskSpec spec
-    ) throws ObjectNotFoundException {
-        taskService.updateTask(taskId, spec);
+    ) throws ObjectNotFoundException, ObjectModifiedException {
+        taskService.updateTask(taskId, (ifMatch == null) ? null : ETags.parseVersion(taskId, ifMatch), spec);
         return ResponseEntity.noContent().build();
     }
 
+    @ApiResponses({
+        @ApiResponse(code = 204, message = "Specified properties of the task have been successfully updated"),
+        @ApiResponse(code = 404, message = "Task with specified ID does not exist"),
+        @ApiResponse(code = 409, message = "Task has been modified since the version given in If-Match")
+    })
+    @RequestMapping(path = "{taskId}", method = RequestMethod.PATCH, consumes = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Void> patchTask(
+        @PathVariable("taskId") long taskId,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @Valid @RequestBody PartialTaskSpec spec
+    ) throws ObjectNotFoundException, ObjectModifiedException {
+        taskService.patchTask(taskId, (ifMatch == null) ? null : ETags.parseVersion(taskId, ifMatch), spec);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "Tasks matching the filters have been updated, closed tasks are left intact",
+            response = OnlyCountDescription.class)
+    })
+    @RequestMapping(method = RequestMethod.PATCH, consumes = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<OnlyCountDescription> updateTasks(
+        @RequestParam(value = "projectId", required = false) Long projectId,
+        @RequestParam(value = "status", required = false) Set<TaskStatus> statusSet,
+        @RequestParam(value = "priority", required = false) Set<@Min(value = 1, message = "Priority must be greater than or equal to 1.") Integer> prioritySet,
+        @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+        @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+        @Valid @RequestBody TaskPatchSpec patch
+    ) {
+        long updated = taskService.updateTasks(projectId, statusSet, prioritySet, startDate, endDate, patch);
+        return ResponseEntity.ok(new OnlyCountDescription(updated));
+    }
+
     @ApiResponses({
         @ApiResponse(code = 204, message = "Task is successfully deleted"),
         @ApiResponse(code = 404, message = "Task with specified ID does not exist")
@@ -81,19 +153,71 @@ public class TaskRestController {
 
     @ApiResponses({
         @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 304, message = "Task has not been modified since the version given in If-None-Match"),
         @ApiResponse(code = 404, message = "Task with specified ID does not exist")
     })
     @RequestMapping(path = "{taskId}", method = RequestMethod.GET)
-    public ResponseEntity<TaskDescription> getTaskDetails(@PathVariable("taskId") long taskId) throws ObjectNotFoundException {
+    public ResponseEntity<TaskDescription> getTaskDetails(
+        @PathVariable("taskId") long taskId,
+        WebRequest request
+    ) throws ObjectNotFoundException {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+            && request.checkNotModified(ETags.forVersion(taskId, taskService.getTaskVersion(taskId)))) {
+            return null;
+        }
         TaskDescription description  = taskService.getTaskDetails(taskId);
-        return ResponseEntity.ok().body(description);
+        return ResponseEntity.ok().eTag(ETags.forVersion(taskId, description.getVersion())).body(description);
+    }
+
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "Newline-delimited JSON stream of tasks", response = TaskDescription.class)
+    })
+    @RequestMapping(path = "export", method = RequestMethod.GET, produces = {NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+        @RequestParam(value = "projectId", required = false) Long projectId,
+        @RequestParam(value = "status", required = false) Set<TaskStatus> statusSet,
+        @RequestParam(value = "priority", required = false) Set<@Min(value = 1, message = "Priority must be greater than or equal to 1.") Integer> prioritySet,
+        @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+        @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate
+    ) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                taskService.exportTasks(projectId, statusSet, prioritySet, startDate, endDate, description -> {
+                    try {
+                        objectMapper.writeValue(generator, description);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "Tasks whose name or description match the text, most relevant first",
+            response = GetTasksDescription.class)
+    })
+    @RequestMapping(path = "search", method = RequestMethod.GET)
+    public ResponseEntity<MappingJacksonValue> searchTasks(
+        @RequestParam(value = "q") @NotBlank(message = "Search text must not be blank.") String text,
+        @RequestParam(value = "limit", required = false) @Min(value = 1, message = "Page limit must not be less than one.") @Max(value = 1000, message = "Page limit must not be greater than 1000.") Integer limit,
+        @RequestParam(value = "page", required = false) @Min(value = 0, message = "Page index must not be less than zero.") Integer page,
+        @RequestParam(value = "projectId", required = false) Long projectId,
+        @RequestParam(value = "status", required = false) Set<TaskStatus> statusSet,
+        @RequestParam(value = "priority", required = false) Set<@Min(value = 1, message = "Priority must be greater than or equal to 1.") Integer> prioritySet
+    ) {
+        GetTasksDescription tasks = taskService.searchTasks(text, limit, page, projectId, statusSet, prioritySet);
+        return ResponseEntity.ok(ItemFieldsFilter.apply(tasks, null));
     }
 
     @ApiResponses({
         @ApiResponse(code = 200, message = "OK", response = GetTasksDescription.class)
     })
     @RequestMapping(method = RequestMethod.GET)
-    public ResponseEntity<GetTasksDescription> listTasks(
+    public ResponseEntity<MappingJacksonValue> listTasks(
         @RequestParam(value = "limit", required = false) @Min(value = 1, message = "Page limit must not be less than one.") Integer limit,
         @RequestParam(value = "page", required = false) @Min(value = 0, message = "Page index must not be less than zero.") Integer page,
         @RequestParam(value = "sortOrder", required = false) Sort.Direction sortOrder,
@@ -102,9 +226,17 @@ public class TaskRestController {
         @RequestParam(value = "status", required = false) Set<TaskStatus> statusSet,
         @RequestParam(value = "priority", required = false) Set<@Min(value = 1, message = "Priority must be greater than or equal to 1.") Integer> prioritySet,
         @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-        @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate
+        @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "includeTotal", required = false) TotalCountMode includeTotal,
+        @RequestParam(value = "fields", required = false) Set<String> fields,
+        @RequestParam(value = "view", required = false) ListView view
     ) {
-        GetTasksDescription tasks = taskService.getTasks(limit, page, sortOrder, orderBy, projectId, statusSet, prioritySet, startDate, endDate);
-        return ResponseEntity.ok(tasks);
+        Set<String> selectedFields = (fields == null && view == ListView.SUMMARY) ? TaskDescription.SUMMARY_FIELDS : fields;
+        GetTasksDescription tasks = taskService.getTasks(limit, page, sortOrder, orderBy, projectId, statusSet, prioritySet,
+            startDate, endDate, cursor, includeTotal, selectedFields);
+        String eTag = ETags.forItems(tasks.getItems(), TaskDescription::getId, TaskDescription::getModifiedAt,
+            tasks.getTotal(), tasks.isHasMore(), tasks.getNextCursor(), selectedFields);
+        return ResponseEntity.ok().eTag(eTag).body(ItemFieldsFilter.apply(tasks, selectedFields));
     }
 }
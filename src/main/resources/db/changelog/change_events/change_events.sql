@@ -0,0 +1,51 @@
+CREATE TABLE change_events (
+    event_id bigint(20) NOT NULL AUTO_INCREMENT,
+    entity_type enum('PROJECT', 'TASK') NOT NULL,
+    entity_id bigint(20) NOT NULL,
+    project_id bigint(20) NOT NULL,
+    operation enum('CREATED', 'UPDATED', 'DELETED') NOT NULL,
+    occurred_at datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (event_id),
+    INDEX idx_change_events_occurred (occurred_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+/
+
+CREATE TRIGGER trg_tasks_events_insert AFTER INSERT ON tasks FOR EACH ROW
+    INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+    VALUES ('TASK', NEW.task_id, NEW.project_id, 'CREATED')
+/
+
+CREATE TRIGGER trg_tasks_events_update AFTER UPDATE ON tasks FOR EACH ROW
+BEGIN
+    IF NOT (NEW.project_id <=> OLD.project_id AND NEW.name <=> OLD.name AND NEW.description <=> OLD.description
+            AND NEW.priority <=> OLD.priority AND NEW.status <=> OLD.status) THEN
+        INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+        VALUES ('TASK', NEW.task_id, NEW.project_id, 'UPDATED');
+    END IF;
+END
+/
+
+CREATE TRIGGER trg_tasks_events_delete AFTER DELETE ON tasks FOR EACH ROW
+    INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+    VALUES ('TASK', OLD.task_id, OLD.project_id, 'DELETED')
+/
+
+CREATE TRIGGER trg_projects_events_insert AFTER INSERT ON projects FOR EACH ROW
+    INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+    VALUES ('PROJECT', NEW.project_id, NEW.project_id, 'CREATED')
+/
+
+CREATE TRIGGER trg_projects_events_update AFTER UPDATE ON projects FOR EACH ROW
+BEGIN
+    IF NOT (NEW.name <=> OLD.name AND NEW.description <=> OLD.description) THEN
+        INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+        VALUES ('PROJECT', NEW.project_id, NEW.project_id, 'UPDATED');
+    END IF;
+END
+/
+
+-- tasks removed by the cascade of a project delete fire no triggers, the project event stands for them
+CREATE TRIGGER trg_projects_events_delete AFTER DELETE ON projects FOR EACH ROW
+    INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+    VALUES ('PROJECT', OLD.project_id, OLD.project_id, 'DELETED')
+/
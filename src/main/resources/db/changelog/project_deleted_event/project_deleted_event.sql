@@ -0,0 +1,28 @@
+-- a project is deleted when it is marked so: the event is recorded in that transaction, the purge of its row later
+-- records nothing
+DROP TRIGGER trg_projects_events_update
+/
+
+CREATE TRIGGER trg_projects_events_update AFTER UPDATE ON projects FOR EACH ROW
+BEGIN
+    IF OLD.deleted_at IS NULL AND NEW.deleted_at IS NOT NULL THEN
+        INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+        VALUES ('PROJECT', NEW.project_id, NEW.project_id, 'DELETED');
+    ELSEIF NOT (NEW.name <=> OLD.name AND NEW.description <=> OLD.description) THEN
+        INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+        VALUES ('PROJECT', NEW.project_id, NEW.project_id, 'UPDATED');
+    END IF;
+END
+/
+
+DROP TRIGGER trg_projects_events_delete
+/
+
+CREATE TRIGGER trg_projects_events_delete AFTER DELETE ON projects FOR EACH ROW
+BEGIN
+    IF OLD.deleted_at IS NULL THEN
+        INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+        VALUES ('PROJECT', OLD.project_id, OLD.project_id, 'DELETED');
+    END IF;
+END
+/
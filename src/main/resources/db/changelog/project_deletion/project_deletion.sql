@@ -0,0 +1,18 @@
+-- the project name stays unique among live projects only, so it can be reused while the deleted one is purged
+ALTER TABLE projects
+    ADD COLUMN deleted_at datetime(3) DEFAULT NULL,
+    ADD COLUMN live_name varchar(255) CHARSET utf8 AS (IF(deleted_at IS NULL, name, NULL)) STORED,
+    DROP INDEX name,
+    ADD UNIQUE INDEX uq_projects_live_name (live_name),
+    ADD INDEX idx_projects_deleted (deleted_at);
+
+-- no foreign key: the record outlives the project to report the completed deletion
+CREATE TABLE project_deletions (
+    project_id bigint(20) NOT NULL,
+    requested_at datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    total_tasks bigint(20) NOT NULL,
+    deleted_tasks bigint(20) NOT NULL DEFAULT 0,
+    completed_at datetime(3) DEFAULT NULL,
+    PRIMARY KEY (project_id),
+    INDEX idx_project_deletions_pending (completed_at, requested_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,51 @@
+-- tasks purged with a deleted project neither change the counters nor the change feed: the counters of the project
+-- go with it and the project event stands for its tasks, as for tasks moved to the archive
+DROP TRIGGER trg_tasks_counters_delete
+/
+
+CREATE TRIGGER trg_tasks_counters_delete AFTER DELETE ON tasks FOR EACH ROW
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM tasks_archive WHERE task_id = OLD.task_id)
+            AND NOT EXISTS (SELECT 1 FROM projects WHERE project_id = OLD.project_id AND deleted_at IS NOT NULL) THEN
+        UPDATE task_counters SET task_count = task_count - 1
+        WHERE project_id = OLD.project_id AND status = OLD.status AND priority = OLD.priority;
+    END IF;
+END
+/
+
+DROP TRIGGER trg_tasks_events_delete
+/
+
+CREATE TRIGGER trg_tasks_events_delete AFTER DELETE ON tasks FOR EACH ROW
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM tasks_archive WHERE task_id = OLD.task_id)
+            AND NOT EXISTS (SELECT 1 FROM projects WHERE project_id = OLD.project_id AND deleted_at IS NOT NULL) THEN
+        INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+        VALUES ('TASK', OLD.task_id, OLD.project_id, 'DELETED');
+    END IF;
+END
+/
+
+DROP TRIGGER trg_tasks_archive_counters_delete
+/
+
+CREATE TRIGGER trg_tasks_archive_counters_delete AFTER DELETE ON tasks_archive FOR EACH ROW
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM projects WHERE project_id = OLD.project_id AND deleted_at IS NOT NULL) THEN
+        UPDATE task_counters SET task_count = task_count - 1
+        WHERE project_id = OLD.project_id AND status = OLD.status AND priority = OLD.priority;
+    END IF;
+END
+/
+
+DROP TRIGGER trg_tasks_archive_events_delete
+/
+
+CREATE TRIGGER trg_tasks_archive_events_delete AFTER DELETE ON tasks_archive FOR EACH ROW
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM projects WHERE project_id = OLD.project_id AND deleted_at IS NOT NULL) THEN
+        INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+        VALUES ('TASK', OLD.task_id, OLD.project_id, 'DELETED');
+    END IF;
+END
+/
@@ -0,0 +1,38 @@
+CREATE TABLE task_activity (
+    project_id bigint(20) NOT NULL,
+    bucket_start datetime NOT NULL,
+    created_count int NOT NULL DEFAULT 0,
+    modified_count int NOT NULL DEFAULT 0,
+    PRIMARY KEY (project_id, bucket_start),
+    CONSTRAINT fk_task_activity_projects FOREIGN KEY (project_id) REFERENCES projects (project_id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+/
+
+CREATE TRIGGER trg_tasks_activity_insert AFTER INSERT ON tasks FOR EACH ROW
+    INSERT INTO task_activity (project_id, bucket_start, created_count)
+    VALUES (NEW.project_id, DATE_FORMAT(NEW.created_at, '%Y-%m-%d %H:00:00'), 1)
+    ON DUPLICATE KEY UPDATE created_count = created_count + 1
+/
+
+CREATE TRIGGER trg_tasks_activity_update AFTER UPDATE ON tasks FOR EACH ROW
+BEGIN
+    IF NEW.modified_at <> OLD.modified_at THEN
+        INSERT INTO task_activity (project_id, bucket_start, modified_count)
+        VALUES (NEW.project_id, DATE_FORMAT(NEW.modified_at, '%Y-%m-%d %H:00:00'), 1)
+        ON DUPLICATE KEY UPDATE modified_count = modified_count + 1;
+    END IF;
+END
+/
+
+INSERT INTO task_activity (project_id, bucket_start, created_count)
+SELECT project_id, DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00') AS bucket_start, count(1) FROM tasks
+GROUP BY project_id, bucket_start
+ON DUPLICATE KEY UPDATE created_count = VALUES(created_count)
+/
+
+INSERT INTO task_activity (project_id, bucket_start, modified_count)
+SELECT project_id, DATE_FORMAT(modified_at, '%Y-%m-%d %H:00:00') AS bucket_start, count(1) FROM tasks
+WHERE modified_at > created_at
+GROUP BY project_id, bucket_start
+ON DUPLICATE KEY UPDATE modified_count = VALUES(modified_count)
+/
@@ -0,0 +1,56 @@
+-- closed tasks never change, so the archive only needs the indexes of the listings which can include them
+CREATE TABLE tasks_archive (
+    task_id bigint(20) NOT NULL,
+    project_id bigint(20) NOT NULL,
+    name varchar(255) CHARSET utf8mb4 NOT NULL,
+    description text DEFAULT NULL,
+    priority int NOT NULL,
+    status enum('NEW', 'IN_PROGRESS', 'CLOSED') NOT NULL,
+    created_at datetime(3) NOT NULL,
+    modified_at datetime(3) NOT NULL,
+    archived_at datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (task_id),
+    INDEX idx_tasks_archive_project_priority (project_id, priority, modified_at, task_id),
+    INDEX idx_tasks_archive_project_modified (project_id, modified_at, task_id),
+    INDEX idx_tasks_archive_priority_modified (priority, modified_at, task_id),
+    INDEX idx_tasks_archive_modified (modified_at, task_id),
+    FULLTEXT INDEX ft_tasks_archive_name_description (name, description),
+    CONSTRAINT fk_tasks_archive_projects FOREIGN KEY (project_id) REFERENCES projects (project_id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+/
+
+-- a task moved to the archive is inserted there before it is deleted from tasks in the same transaction,
+-- so the delete triggers can tell a move, which changes neither the counters nor the change feed, from a delete
+DROP TRIGGER trg_tasks_counters_delete
+/
+
+CREATE TRIGGER trg_tasks_counters_delete AFTER DELETE ON tasks FOR EACH ROW
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM tasks_archive WHERE task_id = OLD.task_id) THEN
+        UPDATE task_counters SET task_count = task_count - 1
+        WHERE project_id = OLD.project_id AND status = OLD.status AND priority = OLD.priority;
+    END IF;
+END
+/
+
+DROP TRIGGER trg_tasks_events_delete
+/
+
+CREATE TRIGGER trg_tasks_events_delete AFTER DELETE ON tasks FOR EACH ROW
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM tasks_archive WHERE task_id = OLD.task_id) THEN
+        INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+        VALUES ('TASK', OLD.task_id, OLD.project_id, 'DELETED');
+    END IF;
+END
+/
+
+CREATE TRIGGER trg_tasks_archive_counters_delete AFTER DELETE ON tasks_archive FOR EACH ROW
+    UPDATE task_counters SET task_count = task_count - 1
+    WHERE project_id = OLD.project_id AND status = OLD.status AND priority = OLD.priority
+/
+
+CREATE TRIGGER trg_tasks_archive_events_delete AFTER DELETE ON tasks_archive FOR EACH ROW
+    INSERT INTO change_events (entity_type, entity_id, project_id, operation)
+    VALUES ('TASK', OLD.task_id, OLD.project_id, 'DELETED')
+/
@@ -0,0 +1,37 @@
+CREATE TABLE task_counters (
+    project_id bigint(20) NOT NULL,
+    status enum('NEW', 'IN_PROGRESS', 'CLOSED') NOT NULL,
+    priority int NOT NULL,
+    task_count bigint(20) NOT NULL DEFAULT 0,
+    PRIMARY KEY (project_id, status, priority),
+    CONSTRAINT fk_task_counters_projects FOREIGN KEY (project_id) REFERENCES projects (project_id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+/
+
+CREATE TRIGGER trg_tasks_counters_insert AFTER INSERT ON tasks FOR EACH ROW
+    INSERT INTO task_counters (project_id, status, priority, task_count)
+    VALUES (NEW.project_id, NEW.status, NEW.priority, 1)
+    ON DUPLICATE KEY UPDATE task_count = task_count + 1
+/
+
+CREATE TRIGGER trg_tasks_counters_update AFTER UPDATE ON tasks FOR EACH ROW
+BEGIN
+    IF NEW.project_id <> OLD.project_id OR NEW.status <> OLD.status OR NEW.priority <> OLD.priority THEN
+        UPDATE task_counters SET task_count = task_count - 1
+        WHERE project_id = OLD.project_id AND status = OLD.status AND priority = OLD.priority;
+        INSERT INTO task_counters (project_id, status, priority, task_count)
+        VALUES (NEW.project_id, NEW.status, NEW.priority, 1)
+        ON DUPLICATE KEY UPDATE task_count = task_count + 1;
+    END IF;
+END
+/
+
+CREATE TRIGGER trg_tasks_counters_delete AFTER DELETE ON tasks FOR EACH ROW
+    UPDATE task_counters SET task_count = task_count - 1
+    WHERE project_id = OLD.project_id AND status = OLD.status AND priority = OLD.priority
+/
+
+INSERT INTO task_counters (project_id, status, priority, task_count)
+SELECT project_id, status, priority, count(1) FROM tasks GROUP BY project_id, status, priority
+ON DUPLICATE KEY UPDATE task_count = VALUES(task_count)
+/
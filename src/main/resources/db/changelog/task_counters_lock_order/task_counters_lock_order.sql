@@ -0,0 +1,24 @@
+-- a task moved between two counters locks both counter rows; they are locked in primary key order,
+-- so concurrent updates moving tasks between the same two counters in opposite directions cannot deadlock
+DROP TRIGGER trg_tasks_counters_update
+/
+
+CREATE TRIGGER trg_tasks_counters_update AFTER UPDATE ON tasks FOR EACH ROW
+BEGIN
+    IF NEW.project_id <> OLD.project_id OR NEW.status <> OLD.status OR NEW.priority <> OLD.priority THEN
+        IF (OLD.project_id, OLD.status + 0, OLD.priority) < (NEW.project_id, NEW.status + 0, NEW.priority) THEN
+            UPDATE task_counters SET task_count = task_count - 1
+            WHERE project_id = OLD.project_id AND status = OLD.status AND priority = OLD.priority;
+            INSERT INTO task_counters (project_id, status, priority, task_count)
+            VALUES (NEW.project_id, NEW.status, NEW.priority, 1)
+            ON DUPLICATE KEY UPDATE task_count = task_count + 1;
+        ELSE
+            INSERT INTO task_counters (project_id, status, priority, task_count)
+            VALUES (NEW.project_id, NEW.status, NEW.priority, 1)
+            ON DUPLICATE KEY UPDATE task_count = task_count + 1;
+            UPDATE task_counters SET task_count = task_count - 1
+            WHERE project_id = OLD.project_id AND status = OLD.status AND priority = OLD.priority;
+        END IF;
+    END IF;
+END
+/
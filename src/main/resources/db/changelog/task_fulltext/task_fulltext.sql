@@ -0,0 +1,4 @@
+-- columns of one FULLTEXT index must share the character set, description is already utf8mb4
+ALTER TABLE tasks MODIFY name varchar(255) CHARSET utf8mb4 NOT NULL;
+
+ALTER TABLE tasks ADD FULLTEXT INDEX ft_tasks_name_description (name, description);
@@ -0,0 +1,7 @@
+ALTER TABLE tasks
+    ADD INDEX idx_tasks_project_status_priority (project_id, status, priority, modified_at, task_id),
+    ADD INDEX idx_tasks_project_priority (project_id, priority, modified_at, task_id),
+    ADD INDEX idx_tasks_project_modified (project_id, modified_at, task_id),
+    ADD INDEX idx_tasks_status_modified (status, modified_at, task_id),
+    ADD INDEX idx_tasks_priority_modified (priority, modified_at, task_id),
+    ADD INDEX idx_tasks_modified (modified_at, task_id);
@@ -0,0 +1,5 @@
+-- incremented by every update of the task, so a client can update it only if nobody else has in the meantime
+ALTER TABLE tasks ADD COLUMN version int NOT NULL DEFAULT 0;
+
+-- archived tasks keep the version they were closed with
+ALTER TABLE tasks_archive ADD COLUMN version int NOT NULL DEFAULT 0;
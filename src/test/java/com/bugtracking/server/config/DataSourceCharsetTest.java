@@ -0,0 +1,36 @@
+package com.bugtracking.server.config;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@RunWith(SpringJUnit4ClassRunner.class)
+public class DataSourceCharsetTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void testConnectionSessionUsesUtf8mb4() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT @@character_set_client, @@character_set_results, "
+                 + "@@character_set_connection, @@collation_connection")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("utf8mb4");
+            assertThat(rs.getString(2)).isEqualTo("utf8mb4");
+            assertThat(rs.getString(3)).isEqualTo("utf8mb4");
+            assertThat(rs.getString(4)).isEqualTo("utf8mb4_unicode_ci");
+        }
+    }
+}
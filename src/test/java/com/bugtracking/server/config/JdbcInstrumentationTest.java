@@ -0,0 +1,125 @@
+package com.bugtracking.server.config;
+
+import com.bugtracking.server.dto.diagnostics.StatementStatsDescription;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class JdbcInstrumentationTest {
+
+    private JdbcInstrumentation instrumentation;
+    private DataSource dataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        given(statement.executeQuery()).willAnswer(invocation -> createResultSet(2));
+        given(statement.executeUpdate()).willReturn(3);
+
+        Connection connection = mock(Connection.class);
+        given(connection.prepareStatement(anyString())).willReturn(statement);
+
+        DataSource target = mock(DataSource.class);
+        given(target.getConnection()).willReturn(connection);
+
+        instrumentation = new JdbcInstrumentation(true, 0, 3, 100);
+        dataSource = (DataSource) instrumentation.postProcessAfterInitialization(target, "dataSource");
+    }
+
+    @Test
+    public void testNormalize() {
+        assertThat(JdbcInstrumentation.normalize("select task0_.task_id  from tasks task0_\\n where task0_.name = 'It''s' and task0_.priority > 10"))
+            .isEqualTo("select task0_.task_id from tasks task0_\\n where task0_.name = ? and task0_.priority > ?");
+        assertThat(JdbcInstrumentation.normalize("SELECT * FROM tasks WHERE task_id IN (?, ?, ?)"))
+            .isEqualTo(JdbcInstrumentation.normalize("SELECT * FROM tasks WHERE task_id IN (?)"));
+        assertThat(JdbcInstrumentation.normalize("INSERT INTO tasks (name, priority) VALUES (?, ?), (?, ?), (?, ?)"))
+            .isEqualTo("INSERT INTO tasks (name, priority) VALUES (?)");
+    }
+
+    @Test
+    public void testRecordsExecutionsAndRowsPerShape() throws Exception {
+        for (int id : new int[]{1, 2}) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT * FROM tasks WHERE task_id IN (" + id + ")")) {
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                    }
+                }
+            }
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("UPDATE tasks SET priority = ? WHERE project_id = ?")) {
+            statement.setInt(1, 5);
+            statement.setLong(2, 7L);
+            assertThat(statement.executeUpdate()).isEqualTo(3);
+        }
+
+        List<StatementStatsDescription> stats = instrumentation.getStats(10);
+        assertThat(stats).extracting(StatementStatsDescription::getSql)
+            .containsExactlyInAnyOrder("SELECT * FROM tasks WHERE task_id IN (?)", "UPDATE tasks SET priority = ? WHERE project_id = ?");
+        StatementStatsDescription select = stats.stream().filter(s -> s.getSql().startsWith("SELECT")).findFirst().get();
+        assertThat(select.getExecutions()).isEqualTo(2);
+        assertThat(select.getRows()).isEqualTo(4);
+        assertThat(select.getSlowExecutions()).isEqualTo(2);
+        StatementStatsDescription update = stats.stream().filter(s -> s.getSql().startsWith("UPDATE")).findFirst().get();
+        assertThat(update.getExecutions()).isEqualTo(1);
+        assertThat(update.getRows()).isEqualTo(3);
+
+        assertThat(instrumentation.getStats(1)).hasSize(1);
+        instrumentation.resetStats();
+        assertThat(instrumentation.getStats(10)).isEmpty();
+    }
+
+    @Test
+    public void testReportsRepeatedStatementsOfRequest() throws Exception {
+        instrumentation.beginRequest();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int id = 0; id < 5; ++id) {
+                try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM projects WHERE project_id = ?")) {
+                    statement.setLong(1, id);
+                    statement.executeQuery().close();
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM tasks")) {
+                statement.executeQuery().close();
+            }
+        }
+        Map<String, Integer> repeated = instrumentation.endRequest();
+
+        assertThat(repeated).containsOnlyKeys("SELECT * FROM projects WHERE project_id = ?");
+        assertThat(repeated).containsEntry("SELECT * FROM projects WHERE project_id = ?", 5);
+        assertThat(instrumentation.getStats(10)).filteredOn(s -> s.getSql().contains("projects"))
+            .extracting(StatementStatsDescription::getRepeatedRequests).containsExactly(1L);
+        assertThat(instrumentation.endRequest()).isEmpty();
+    }
+
+    @Test
+    public void testLoggedParametersRedactStrings() {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        parameters.put(1, 7L);
+        parameters.put(2, "Password is admin123");
+        parameters.put(3, null);
+
+        assertThat(JdbcInstrumentation.describeParameters(parameters)).isEqualTo("[1=7, 2=<20 chars>, 3=null]");
+    }
+
+    private static ResultSet createResultSet(int rows) throws Exception {
+        AtomicInteger remaining = new AtomicInteger(rows);
+        ResultSet resultSet = mock(ResultSet.class);
+        given(resultSet.next()).willAnswer(invocation -> remaining.getAndDecrement() > 0);
+        return resultSet;
+    }
+}
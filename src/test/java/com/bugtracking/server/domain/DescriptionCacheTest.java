@@ -0,0 +1,98 @@
+package com.bugtracking.server.domain;
+
+import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
+import com.bugtracking.server.dto.diagnostics.CacheStatsDescription;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DescriptionCacheTest {
+
+    @Test
+    public void testReadThrough() throws Exception {
+        DescriptionCache<String> cache = new DescriptionCache<>("test", 10, 60);
+        AtomicInteger loads = new AtomicInteger();
+        DescriptionCache.Loader<String> loader = id -> "value" + id + "_" + loads.incrementAndGet();
+
+        assertThat(cache.get(1, loader)).isEqualTo("value1_1");
+        assertThat(cache.get(1, loader)).isEqualTo("value1_1");
+        assertThat(cache.get(2, loader)).isEqualTo("value2_2");
+
+        CacheStatsDescription stats = cache.getStats();
+        assertThat(stats.getSize()).isEqualTo(2);
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSizeEviction() throws Exception {
+        DescriptionCache<String> cache = new DescriptionCache<>("test", 2, 60);
+        DescriptionCache.Loader<String> loader = id -> "value" + id;
+
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.get(1, loader);
+        cache.get(3, loader);
+        cache.get(1, loader);
+
+        CacheStatsDescription stats = cache.getStats();
+        assertThat(stats.getSize()).isEqualTo(2);
+        assertThat(stats.getEvictions()).isEqualTo(1);
+        assertThat(stats.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    public void testTtlEviction() throws Exception {
+        DescriptionCache<String> cache = new DescriptionCache<>("test", 10, 0);
+        DescriptionCache.Loader<String> loader = id -> "value" + id;
+
+        cache.get(1, loader);
+        Thread.sleep(5);
+        cache.get(1, loader);
+
+        CacheStatsDescription stats = cache.getStats();
+        assertThat(stats.getMisses()).isEqualTo(2);
+        assertThat(stats.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        DescriptionCache<String> cache = new DescriptionCache<>("test", 10, 60);
+        AtomicInteger loads = new AtomicInteger();
+        DescriptionCache.Loader<String> loader = id -> "value" + id + "_" + loads.incrementAndGet();
+
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.invalidateAfterCommit(1);
+        assertThat(cache.get(1, loader)).isEqualTo("value1_3");
+
+        cache.invalidateAfterCommit(value -> value.startsWith("value2"));
+        assertThat(cache.get(2, loader)).isEqualTo("value2_4");
+        assertThat(cache.getStats().getInvalidations()).isEqualTo(2);
+    }
+
+    @Test
+    public void testValueLoadedBeforeInvalidationIsNotCached() throws Exception {
+        DescriptionCache<String> cache = new DescriptionCache<>("test", 10, 60);
+
+        assertThat(cache.get(1, id -> {
+            cache.invalidateAfterCommit(id);
+            return "stale";
+        })).isEqualTo("stale");
+        assertThat(cache.get(1, id -> "fresh")).isEqualTo("fresh");
+    }
+
+    @Test(expected = ObjectNotFoundException.class)
+    public void testMissingObjectIsNotCached() throws Exception {
+        DescriptionCache<String> cache = new DescriptionCache<>("test", 10, 60);
+        try {
+            cache.get(1, id -> {
+                throw new ObjectNotFoundException("Test", id);
+            });
+        } finally {
+            assertThat(cache.getStats().getSize()).isEqualTo(0);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.bugtracking.server.domain.change;
+
+import com.bugtracking.server.dto.change.ChangeEventDescription;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class ChangeFeedTest {
+
+    private final TreeMap<Long, ChangeEventDescription> outbox = new TreeMap<>();
+    private ChangeEventRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = mock(ChangeEventRepository.class);
+        given(repository.findLastId()).willAnswer(invocation -> outbox.isEmpty() ? 0L : outbox.lastKey());
+        given(repository.findRange(anyLong(), anyLong(), anyInt())).willAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            long toId = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            List<ChangeEventDescription> events = new ArrayList<>(outbox.subMap(afterId, false, toId, true).values());
+            return events.subList(0, Math.min(limit, events.size()));
+        });
+    }
+
+    @Test
+    public void testLiveEvents() throws Exception {
+        addEvents(1, 2);
+        ChangeFeed feed = new ChangeFeed(repository, 2, 60000, 100, 168, Runnable::run);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        addEvents(3, 4, 5);
+        feed.poll();
+        assertThat(listener.ids).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    public void testWaitForGap() throws Exception {
+        ChangeFeed feed = new ChangeFeed(repository, 10, 60000, 100, 168, Runnable::run);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        // event 2 belongs to a transaction which commits after the one of event 3
+        addEvents(1, 3);
+        feed.poll();
+        assertThat(listener.ids).containsExactly(1L);
+
+        addEvents(2);
+        feed.poll();
+        assertThat(listener.ids).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void testSkipExpiredGap() throws Exception {
+        ChangeFeed feed = new ChangeFeed(repository, 10, 0, 100, 168, Runnable::run);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        addEvents(1, 3);
+        feed.poll();
+        assertThat(listener.ids).containsExactly(1L, 3L);
+    }
+
+    @Test
+    public void testPublishEventCommittedAfterGapWasSkipped() throws Exception {
+        ChangeFeed feed = new ChangeFeed(repository, 10, 0, 100, 168, Runnable::run);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        addEvents(1, 5);
+        feed.poll();
+        assertThat(listener.ids).containsExactly(1L, 5L);
+
+        // the transactions of events 3 and 2 commit after the gap 2-4 has been skipped, 4 has been rolled back
+        addEvents(3, 6);
+        feed.poll();
+        assertThat(listener.ids).containsExactly(1L, 5L, 6L, 3L);
+        addEvents(2);
+        feed.poll();
+        feed.poll();
+        assertThat(listener.ids).containsExactly(1L, 5L, 6L, 3L, 2L);
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        addEvents(1, 2, 3, 4, 5);
+        ChangeFeed feed = new ChangeFeed(repository, 2, 60000, 100, 168, Runnable::run);
+        feed.subscribe(null, new RecordingListener());
+
+        addEvents(6, 7);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(2L, listener);
+        assertThat(listener.ids).containsExactly(3L, 4L, 5L);
+
+        feed.poll();
+        assertThat(listener.ids).containsExactly(3L, 4L, 5L, 6L, 7L);
+    }
+
+    @Test
+    public void testDropSlowSubscriber() throws Exception {
+        List<Runnable> dispatched = new ArrayList<>();
+        ChangeFeed feed = new ChangeFeed(repository, 10, 60000, 2, 168, dispatched::add);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        addEvents(1, 2, 3);
+        feed.poll();
+        assertThat(listener.dropped).isTrue();
+        assertThat(feed.getSubscriberCount()).isZero();
+        dispatched.forEach(Runnable::run);
+        assertThat(listener.ids).isEmpty();
+    }
+
+    @Test
+    public void testDropFailingSubscriber() throws Exception {
+        ChangeFeed feed = new ChangeFeed(repository, 10, 60000, 100, 168, Runnable::run);
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void onEvents(List<ChangeEventDescription> events) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        feed.subscribe(null, listener);
+
+        addEvents(1);
+        feed.poll();
+        assertThat(listener.dropped).isTrue();
+        assertThat(feed.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        ChangeFeed feed = new ChangeFeed(repository, 10, 60000, 100, 168, Runnable::run);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener).cancel();
+
+        addEvents(1);
+        feed.poll();
+        assertThat(listener.ids).isEmpty();
+        assertThat(listener.dropped).isFalse();
+    }
+
+    private void addEvents(long... ids) {
+        for (long id : ids) {
+            outbox.put(id, new ChangeEventDescription(id, ChangeEntityType.TASK, id, 1, ChangeOperation.UPDATED,
+                LocalDateTime.now()));
+        }
+    }
+
+    private static class RecordingListener implements ChangeListener {
+
+        private final List<Long> ids = new ArrayList<>();
+        private boolean dropped;
+
+        @Override
+        public void onEvents(List<ChangeEventDescription> events) throws IOException {
+            events.forEach(event -> ids.add(event.getId()));
+        }
+
+        @Override
+        public void onDropped() {
+            dropped = true;
+        }
+    }
+}
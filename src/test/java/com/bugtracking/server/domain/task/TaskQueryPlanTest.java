@@ -0,0 +1,141 @@
+package com.bugtracking.server.domain.task;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.internal.ast.ASTQueryTranslatorFactory;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN for every query shape the task listing can generate and fails if any of them
+ * falls back to a full table scan.
+ */
+@SpringBootTest
+@RunWith(SpringJUnit4ClassRunner.class)
+public class TaskQueryPlanTest {
+
+    private static final int PROJECTS = 50;
+    private static final int TASKS_PER_PROJECT = 500;
+    // in the future, so the task archiver of any cached test context leaves the closed tasks alone
+    private static final LocalDateTime BASE_DATE = LocalDate.now().plusYears(1).atStartOfDay();
+
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long projectId;
+
+    @Before
+    public void setUp() {
+        tearDown();
+        for (int p = 0; p < PROJECTS; ++p) {
+            jdbc.update("INSERT INTO projects (name) VALUES (?)", "QueryPlanProject_" + p);
+        }
+        List<Long> projectIds = jdbc.queryForList("SELECT project_id FROM projects ORDER BY project_id", Long.class);
+        projectId = projectIds.get(0);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (Long id : projectIds) {
+            for (int t = 0; t < TASKS_PER_PROJECT; ++t) {
+                TaskStatus status = (t % 10 == 0) ? TaskStatus.NEW : (t % 10 == 1) ? TaskStatus.IN_PROGRESS : TaskStatus.CLOSED;
+                rows.add(new Object[]{id, "Task_" + t, t % 100 + 1, status.name(), Timestamp.valueOf(BASE_DATE.plusHours(t * 17))});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO tasks (project_id, name, priority, status, modified_at) VALUES (?, ?, ?, ?, ?)", rows);
+        jdbc.execute("ANALYZE TABLE tasks");
+    }
+
+    @After
+    public void tearDown() {
+        jdbc.update("DELETE FROM tasks");
+        jdbc.update("DELETE FROM projects");
+    }
+
+    @Test
+    public void testListingQueriesDoNotScanWholeTable() {
+        List<Sort> sorts = Arrays.asList(
+            Sort.unsorted(),
+            Sort.by(Sort.Direction.DESC, "id"),
+            Sort.by(Sort.Direction.ASC, "modifiedAt"),
+            Sort.by(Sort.Direction.DESC, "modifiedAt"),
+            Sort.by(Sort.Direction.ASC, "priority", "modifiedAt"),
+            Sort.by(Sort.Direction.DESC, "priority", "modifiedAt")
+        );
+
+        List<String> fullScans = new ArrayList<>();
+        for (int filterMask = 0; filterMask < 32; ++filterMask) {
+            StringBuilder where = new StringBuilder();
+            Map<String, Object> params = new HashMap<>();
+            TaskRepositoryImpl.buildWhereQuery(where, params,
+                (filterMask & 1) != 0 ? projectId : null,
+                (filterMask & 2) != 0 ? EnumSet.of(TaskStatus.NEW, TaskStatus.IN_PROGRESS) : null,
+                (filterMask & 4) != 0 ? new HashSet<>(Arrays.asList(1, 2)) : null,
+                (filterMask & 8) != 0 ? BASE_DATE.plusDays(30) : null,
+                (filterMask & 16) != 0 ? BASE_DATE.plusDays(37) : null);
+
+            String from = "FROM Task t " + (params.isEmpty() ? "" : "WHERE " + where);
+            explain("SELECT count(1) " + from, params, "", fullScans);
+            for (Sort sort : sorts) {
+                StringBuilder query = new StringBuilder(from);
+                TaskRepositoryImpl.buildOrderQuery(query, PageRequest.of(0, 100, sort));
+                explain(query.toString(), params, " limit 100", fullScans);
+            }
+        }
+
+        assertThat(fullScans).isEmpty();
+    }
+
+    private void explain(String jpql, Map<String, Object> params, String limitClause, List<String> fullScans) {
+        QueryTranslator translator = new ASTQueryTranslatorFactory().createQueryTranslator(jpql, jpql,
+            Collections.emptyMap(), entityManagerFactory.unwrap(SessionFactoryImplementor.class), null);
+        translator.compile(Collections.emptyMap(), false);
+
+        String sql = translator.getSQLString() + limitClause;
+        Object[] args = new Object[sql.length() - sql.replace("?", "").length()];
+        params.forEach((name, value) -> {
+            for (int location : translator.getParameterTranslations().getNamedParameterSqlLocations(name)) {
+                args[location] = toJdbcValue(value);
+            }
+        });
+
+        for (Map<String, Object> row : jdbc.queryForList("EXPLAIN " + sql, args)) {
+            if ("ALL".equals(row.get("type"))) {
+                fullScans.add(jpql + " => " + row);
+            }
+        }
+    }
+
+    private static Object toJdbcValue(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum) value).name();
+        }
+        if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,111 @@
+package com.bugtracking.server.domain.task;
+
+import com.bugtracking.server.dto.task.TaskDescription;
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TaskQueryShapeTest {
+
+    @Test
+    public void testFilterSetsOfSameSizeClassShareQuery() {
+        Set<String> queries = new HashSet<>();
+        queries.add(buildWhere(EnumSet.of(TaskStatus.NEW, TaskStatus.CLOSED), new LinkedHashSet<>(Arrays.asList(5, 3, 7))));
+        queries.add(buildWhere(EnumSet.of(TaskStatus.IN_PROGRESS, TaskStatus.NEW), new LinkedHashSet<>(Arrays.asList(1, 2, 3, 4))));
+        queries.add(buildWhere(EnumSet.of(TaskStatus.CLOSED, TaskStatus.IN_PROGRESS), new LinkedHashSet<>(Arrays.asList(9, 8, 1))));
+
+        assertThat(queries).containsExactly(
+            "t.status IN (:status0, :status1) AND t.priority IN (:priority0, :priority1, :priority2, :priority3)");
+    }
+
+    @Test
+    public void testInListIsSortedAndPaddedWithLastValue() {
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        TaskRepositoryImpl.buildWhereQuery(where, params, null, null, new LinkedHashSet<>(Arrays.asList(5, 3, 7)), null, null);
+
+        assertThat(params).containsEntry("priority0", 3).containsEntry("priority1", 5)
+            .containsEntry("priority2", 7).containsEntry("priority3", 7).hasSize(4);
+    }
+
+    @Test
+    public void testNativeWhereUsesColumnNames() {
+        StringBuilder where = new StringBuilder();
+        TaskRepositoryImpl.buildWhereQuery(where, new HashMap<>(), 1L, EnumSet.of(TaskStatus.CLOSED),
+            Collections.singleton(2), LocalDateTime.now(), LocalDateTime.now());
+
+        assertThat(TaskRepositoryImpl.toNativeWhere(where)).isEqualTo("t.project_id = :projectId AND t.status IN (:status0) "
+            + "AND t.priority IN (:priority0) AND t.modified_at >= :startDate AND t.modified_at <= :endDate");
+    }
+
+    @Test
+    public void testPadToPowerOfTwo() {
+        assertThat(TaskRepositoryImpl.padToPowerOfTwo(Collections.emptyList())).isEmpty();
+        assertThat(TaskRepositoryImpl.padToPowerOfTwo(Collections.singletonList(1L))).containsExactly(1L);
+        assertThat(TaskRepositoryImpl.padToPowerOfTwo(Arrays.asList(1L, 2L))).containsExactly(1L, 2L);
+        assertThat(TaskRepositoryImpl.padToPowerOfTwo(Arrays.asList(1L, 2L, 3L))).containsExactly(1L, 2L, 3L, 3L);
+        assertThat(TaskRepositoryImpl.padToPowerOfTwo(Arrays.asList(1L, 2L, 3L, 4L, 5L))).hasSize(8).endsWith(5L, 5L, 5L, 5L);
+    }
+
+    @Test
+    public void testEstimateKeyBucketsDates() {
+        List<String> countQueries = Collections.singletonList("SELECT count(1) FROM Task t WHERE t.modifiedAt >= :startDate");
+        LocalDateTime startDate = LocalDateTime.of(2018, 3, 1, 10, 0);
+
+        assertThat(TaskRepositoryImpl.estimateKey(countQueries, Collections.singletonMap("startDate", startDate.plusMinutes(5))))
+            .isEqualTo(TaskRepositoryImpl.estimateKey(countQueries, Collections.singletonMap("startDate", startDate.plusMinutes(59))));
+        assertThat(TaskRepositoryImpl.estimateKey(countQueries, Collections.singletonMap("startDate", startDate.plusMinutes(5))))
+            .isNotEqualTo(TaskRepositoryImpl.estimateKey(countQueries, Collections.singletonMap("startDate", startDate.plusHours(1))));
+    }
+
+    @Test
+    public void testOnlyClosedTasksAreReadFromArchive() {
+        assertThat(TaskRepositoryImpl.resolveTiers(null)).containsExactly(TaskRepositoryImpl.Tier.HOT, TaskRepositoryImpl.Tier.ARCHIVE);
+        assertThat(TaskRepositoryImpl.resolveTiers(EnumSet.of(TaskStatus.NEW, TaskStatus.CLOSED)))
+            .containsExactly(TaskRepositoryImpl.Tier.HOT, TaskRepositoryImpl.Tier.ARCHIVE);
+        assertThat(TaskRepositoryImpl.resolveTiers(EnumSet.of(TaskStatus.NEW, TaskStatus.IN_PROGRESS)))
+            .containsExactly(TaskRepositoryImpl.Tier.HOT);
+    }
+
+    @Test
+    public void testMergedTiersFollowOrdering() {
+        LocalDateTime now = LocalDateTime.now();
+        List<TaskDescription> tasks = new ArrayList<>(Arrays.asList(
+            createDescription(1, 5, now), createDescription(2, 7, now.minusDays(1)),
+            createDescription(3, 5, now.minusDays(2)), createDescription(4, 7, now)));
+
+        tasks.sort(TaskRepositoryImpl.buildComparator(TaskRepositoryImpl.resolveOrders(
+            Sort.by(Sort.Order.desc("priority"), Sort.Order.asc("modifiedAt")))));
+        assertThat(tasks).extracting(TaskDescription::getId).containsExactly(2L, 4L, 3L, 1L);
+
+        tasks.sort(TaskRepositoryImpl.buildComparator(TaskRepositoryImpl.resolveOrders(Sort.by(Sort.Order.desc("id")))));
+        assertThat(tasks).extracting(TaskDescription::getId).containsExactly(4L, 3L, 2L, 1L);
+    }
+
+    private static TaskDescription createDescription(long id, int priority, LocalDateTime modifiedAt) {
+        TaskDescription description = new TaskDescription();
+        description.setId(id);
+        description.setPriority(priority);
+        description.setModifiedAt(modifiedAt);
+        return description;
+    }
+
+    private static String buildWhere(Set<TaskStatus> statusSet, Set<Integer> prioritySet) {
+        StringBuilder where = new StringBuilder();
+        TaskRepositoryImpl.buildWhereQuery(where, new HashMap<>(), null, statusSet, prioritySet, null, null);
+        return where.toString();
+    }
+}
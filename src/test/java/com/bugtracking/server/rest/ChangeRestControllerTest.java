@@ -0,0 +1,97 @@
+package com.bugtracking.server.rest;
+
+import com.bugtracking.server.domain.change.ChangeEntityType;
+import com.bugtracking.server.domain.change.ChangeFeed;
+import com.bugtracking.server.domain.change.ChangeListener;
+import com.bugtracking.server.domain.change.ChangeOperation;
+import com.bugtracking.server.dto.change.ChangeEventDescription;
+import com.bugtracking.server.services.ChangeService;
+import com.bugtracking.server.web.rest.ChangeRestController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ChangeRestController.class)
+@RunWith(SpringJUnit4ClassRunner.class)
+public class ChangeRestControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @MockBean
+    private ChangeService changeService;
+
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public void setObjectMapper(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        objectMapper = objectMapperBuilder.build();
+    }
+
+    @Test
+    public void testStreamChanges() throws Exception {
+        List<ChangeEventDescription> events = Arrays.asList(
+            new ChangeEventDescription(8, ChangeEntityType.TASK, 3, 1, ChangeOperation.CREATED, LocalDateTime.of(2018, 3, 1, 10, 0)),
+            new ChangeEventDescription(9, ChangeEntityType.PROJECT, 1, 1, ChangeOperation.UPDATED, LocalDateTime.of(2018, 3, 1, 10, 5)));
+
+        givenStreamedEvents(7L, events);
+        MvcResult result = mvc.perform(get("/api/changes/stream").header("Last-Event-ID", "7"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(
+                "id:8\nevent:change\ndata:" + objectMapper.writeValueAsString(events.get(0)) + "\n\n" +
+                "id:9\nevent:change\ndata:" + objectMapper.writeValueAsString(events.get(1)) + "\n\n"));
+    }
+
+    @Test
+    public void testStreamChangesFromCursor() throws Exception {
+        List<ChangeEventDescription> events = Arrays.asList(
+            new ChangeEventDescription(5, ChangeEntityType.TASK, 3, 1, ChangeOperation.DELETED, LocalDateTime.of(2018, 3, 1, 10, 0)));
+
+        givenStreamedEvents(4L, events);
+        MvcResult result = mvc.perform(get("/api/changes/stream").param("cursor", "4"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(
+                "id:5\nevent:change\ndata:" + objectMapper.writeValueAsString(events.get(0)) + "\n\n"));
+    }
+
+    @Test
+    public void testStreamChangesFromNegativeCursor() throws Exception {
+        mvc.perform(get("/api/changes/stream").param("cursor", "-1"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private void givenStreamedEvents(Long cursor, List<ChangeEventDescription> events) {
+        given(changeService.subscribe(eq(cursor), any(ChangeListener.class))).willAnswer(invocation -> {
+            ChangeListener listener = invocation.getArgument(1);
+            listener.onEvents(events);
+            listener.onDropped();
+            return mock(ChangeFeed.Subscription.class);
+        });
+    }
+}
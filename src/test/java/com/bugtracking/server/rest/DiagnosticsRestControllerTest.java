@@ -0,0 +1,102 @@
+package com.bugtracking.server.rest;
+
+import com.bugtracking.server.dto.diagnostics.CacheStatsDescription;
+import com.bugtracking.server.dto.diagnostics.PoolStatsDescription;
+import com.bugtracking.server.dto.diagnostics.StatementStatsDescription;
+import com.bugtracking.server.services.DiagnosticsService;
+import com.bugtracking.server.web.rest.DiagnosticsRestController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DiagnosticsRestController.class)
+@RunWith(SpringJUnit4ClassRunner.class)
+public class DiagnosticsRestControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @MockBean
+    private DiagnosticsService diagnosticsService;
+
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public void setObjectMapper(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        objectMapper = objectMapperBuilder.build();
+    }
+
+    @Test
+    public void testGetCacheStats() throws Exception {
+        CacheStatsDescription stats = new CacheStatsDescription();
+        stats.setName("tasks");
+        stats.setSize(RandomUtils.nextInt(1, 100));
+        stats.setMaxSize(100);
+        stats.setHits(RandomUtils.nextLong(1, 100000));
+        stats.setMisses(RandomUtils.nextLong(1, 100000));
+        List<CacheStatsDescription> expectedStats = Collections.singletonList(stats);
+
+        given(diagnosticsService.getCacheStats()).willReturn(expectedStats);
+        mvc.perform(get("/api/diagnostics/caches"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(content().string(objectMapper.writeValueAsString(expectedStats)));
+    }
+
+    @Test
+    public void testGetPoolStats() throws Exception {
+        PoolStatsDescription stats = new PoolStatsDescription();
+        stats.setName("bugtracking");
+        stats.setActive(RandomUtils.nextInt(0, 40));
+        stats.setIdle(RandomUtils.nextInt(0, 40));
+        stats.setPending(RandomUtils.nextInt(0, 10));
+        stats.setMaxSize(40);
+        stats.setAcquisitions(RandomUtils.nextLong(1, 100000));
+        stats.setAverageWaitMillis(0.5);
+        List<PoolStatsDescription> expectedStats = Collections.singletonList(stats);
+
+        given(diagnosticsService.getPoolStats()).willReturn(expectedStats);
+        mvc.perform(get("/api/diagnostics/pool"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(content().string(objectMapper.writeValueAsString(expectedStats)));
+    }
+
+    @Test
+    public void testGetStatementStats() throws Exception {
+        StatementStatsDescription stats = new StatementStatsDescription();
+        stats.setSql("SELECT * FROM tasks WHERE task_id = ?");
+        stats.setExecutions(RandomUtils.nextLong(1, 100000));
+        stats.setTotalMillis(RandomUtils.nextDouble(1, 1000));
+        stats.setRows(RandomUtils.nextLong(1, 100000));
+        stats.setRepeatedRequests(1);
+        List<StatementStatsDescription> expectedStats = Collections.singletonList(stats);
+
+        given(diagnosticsService.getStatementStats(10)).willReturn(expectedStats);
+        mvc.perform(get("/api/diagnostics/jdbc").param("limit", "10"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(content().string(objectMapper.writeValueAsString(expectedStats)));
+
+        mvc.perform(delete("/api/diagnostics/jdbc"))
+            .andExpect(status().isNoContent());
+        verify(diagnosticsService).resetStatementStats();
+    }
+}
@@ -1,8 +1,18 @@
 package com.bugtracking.server.rest;
 
+import com.bugtracking.server.domain.task.TaskStatus;
+import com.bugtracking.server.dto.ActivityBucket;
+import com.bugtracking.server.dto.ListView;
+import com.bugtracking.server.dto.TotalCountMode;
+import com.bugtracking.server.dto.project.ActivityBucketDescription;
+import com.bugtracking.server.dto.project.GetProjectsDescription;
 import com.bugtracking.server.dto.project.NewProjectSpec;
+import com.bugtracking.server.dto.project.PartialProjectSpec;
+import com.bugtracking.server.dto.project.ProjectActivityDescription;
+import com.bugtracking.server.dto.project.ProjectDeletionDescription;
 import com.bugtracking.server.dto.project.ProjectDescription;
 import com.bugtracking.server.dto.project.ProjectSpec;
+import com.bugtracking.server.dto.project.ProjectStatsDescription;
 import com.bugtracking.server.services.ProjectService;
 import com.bugtracking.server.utils.DtoCreator;
 import com.bugtracking.server.web.rest.ProjectRestController;
@@ -14,6 +24,7 @@ import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
@@ -21,19 +32,29 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProjectRestController.class)
@@ -89,19 +110,55 @@ public class ProjectRestControllerTest {
         assertThat(specCaptor.getValue()).isEqualToComparingFieldByFieldRecursively(spec);
     }
 
+    @Test
+    public void testPatch() throws Exception {
+        Long projectId = RandomUtils.nextLong(1, 100000);
+
+        doNothing().when(projectService).patchProject(nullable(long.class), nullable(PartialProjectSpec.class));
+        mvc.perform(patch("/api/projects/{id}", projectId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\": \"Renamed project\"}"))
+            .andExpect(status().isNoContent())
+            .andExpect(content().bytes(new byte[0]));
+
+        ArgumentCaptor<PartialProjectSpec> specCaptor = ArgumentCaptor.forClass(PartialProjectSpec.class);
+        verify(projectService).patchProject(eq(projectId), specCaptor.capture());
+        assertThat(specCaptor.getValue().getSuppliedFields()).containsExactly("name");
+        assertThat(specCaptor.getValue().getName()).isEqualTo("Renamed project");
+    }
+
     @Test
     public void testDelete() throws Exception {
         Long projectId = RandomUtils.nextLong(1, 100000);
+        ProjectDeletionDescription deletion = new ProjectDeletionDescription(projectId, 500000, 0,
+            LocalDateTime.of(2018, 3, 1, 10, 0), null);
 
-        doNothing().when(projectService).deleteProject(nullable(long.class));
+        given(projectService.deleteProject(nullable(long.class))).willReturn(deletion);
         mvc.perform(delete("/api/projects/{id}", projectId))
-            .andExpect(status().isNoContent());
+            .andExpect(status().isAccepted())
+            .andExpect(header().string(HttpHeaders.LOCATION, endsWith("/api/projects/" + projectId + "/deletion")))
+            .andExpect(content().string(objectMapper.writeValueAsString(deletion)));
 
         ArgumentCaptor<Long> idCaptor = ArgumentCaptor.forClass(Long.class);
         verify(projectService).deleteProject(idCaptor.capture());
         assertThat(idCaptor.getValue()).isEqualTo(projectId);
     }
 
+    @Test
+    public void testGetDeletion() throws Exception {
+        Long projectId = RandomUtils.nextLong(1, 100000);
+        ProjectDeletionDescription deletion = new ProjectDeletionDescription(projectId, 500000, 12000,
+            LocalDateTime.of(2018, 3, 1, 10, 0), null);
+
+        given(projectService.getProjectDeletion(nullable(long.class))).willReturn(deletion);
+        mvc.perform(get("/api/projects/{id}/deletion", projectId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("IN_PROGRESS"))
+            .andExpect(content().string(objectMapper.writeValueAsString(deletion)));
+
+        verify(projectService).getProjectDeletion(projectId);
+    }
+
     @Test
     public void testGetDetails() throws Exception {
         ProjectDescription expectedDescription = DtoCreator.createProjectDescription();
@@ -118,4 +175,78 @@ public class ProjectRestControllerTest {
         verify(projectService).getProjectDetails(idCaptor.capture());
         assertThat(idCaptor.getValue()).isEqualTo(projectId);
     }
+
+    @Test
+    public void testGetStats() throws Exception {
+        Long projectId = RandomUtils.nextLong(1, 100000);
+        ProjectStatsDescription stats = new ProjectStatsDescription();
+        stats.setProjectId(projectId);
+        stats.setTotal(3);
+        stats.setByStatus(new EnumMap<>(TaskStatus.class));
+        stats.getByStatus().put(TaskStatus.NEW, 1L);
+        stats.getByStatus().put(TaskStatus.CLOSED, 2L);
+
+        given(projectService.getProjectStats(nullable(long.class))).willReturn(stats);
+        mvc.perform(get("/api/projects/{id}/stats", projectId))
+            .andExpect(status().isOk())
+            .andExpect(content().string(objectMapper.writeValueAsString(stats)));
+
+        verify(projectService).getProjectStats(projectId);
+    }
+
+    @Test
+    public void testGetActivity() throws Exception {
+        Long projectId = RandomUtils.nextLong(1, 100000);
+        LocalDateTime from = LocalDateTime.of(2018, 3, 1, 0, 0);
+        ProjectActivityDescription activity = new ProjectActivityDescription();
+        activity.setProjectId(projectId);
+        activity.setBucket(ActivityBucket.DAY);
+        activity.setItems(Collections.singletonList(new ActivityBucketDescription(from, 3, 1)));
+
+        given(projectService.getProjectActivity(nullable(long.class), nullable(ActivityBucket.class),
+            nullable(LocalDateTime.class), nullable(LocalDateTime.class))).willReturn(activity);
+        mvc.perform(get("/api/projects/{id}/activity", projectId)
+            .param("bucket", ActivityBucket.DAY.name())
+            .param("from", "2018-03-01T00:00:00")
+            .param("to", "2018-03-02T00:00:00"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(objectMapper.writeValueAsString(activity)));
+
+        verify(projectService).getProjectActivity(projectId, ActivityBucket.DAY, from, from.plusDays(1));
+    }
+
+    @Test
+    public void testListWithTaskCounts() throws Exception {
+        ProjectDescription project = DtoCreator.createProjectDescription();
+        project.setTaskCounts(Collections.singletonMap(TaskStatus.NEW, 4L));
+        GetProjectsDescription description = new GetProjectsDescription();
+        description.setItems(Collections.singletonList(project));
+
+        given(projectService.getProjects(nullable(Integer.class), nullable(Integer.class), nullable(Sort.Direction.class),
+            nullable(TotalCountMode.class), nullable(Set.class), anyBoolean())).willReturn(description);
+        mvc.perform(get("/api/projects").param("includeTaskCounts", "true").param("view", ListView.SUMMARY.name()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].name").value(project.getName()))
+            .andExpect(jsonPath("$.items[0].description").doesNotExist())
+            .andExpect(jsonPath("$.items[0].taskCounts.NEW").value(4));
+
+        verify(projectService).getProjects(isNull(), isNull(), isNull(), isNull(), eq(ProjectDescription.SUMMARY_FIELDS), eq(true));
+    }
+
+    @Test
+    public void testGetDetailsNotModified() throws Exception {
+        ProjectDescription description = DtoCreator.createProjectDescription();
+        Long projectId = description.getId();
+
+        given(projectService.getProjectDetails(nullable(long.class))).willReturn(description);
+        given(projectService.getProjectVersion(nullable(long.class))).willReturn(description.getModifiedAt());
+        String eTag = mvc.perform(get("/api/projects/{id}", projectId))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        mvc.perform(get("/api/projects/{id}", projectId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+        verify(projectService, times(1)).getProjectDetails(projectId);
+    }
 }
@@ -1,10 +1,23 @@
 package com.bugtracking.server.rest;
 
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
+import com.bugtracking.server.domain.exceptions.ObjectModifiedException;
+import com.bugtracking.server.domain.task.Task;
+import com.bugtracking.server.domain.task.TaskStatus;
+import com.bugtracking.server.dto.ListView;
+import com.bugtracking.server.dto.OnlyCountDescription;
+import com.bugtracking.server.dto.OnlyIdsDescription;
+import com.bugtracking.server.dto.TaskOrderFormat;
+import com.bugtracking.server.dto.TotalCountMode;
+import com.bugtracking.server.dto.task.GetTasksDescription;
 import com.bugtracking.server.dto.task.NewTaskSpec;
+import com.bugtracking.server.dto.task.PartialTaskSpec;
 import com.bugtracking.server.dto.task.TaskDescription;
+import com.bugtracking.server.dto.task.TaskPatchSpec;
 import com.bugtracking.server.dto.task.TaskSpec;
 import com.bugtracking.server.services.TaskService;
 import com.bugtracking.server.utils.DtoCreator;
+import com.bugtracking.server.web.ETags;
 import com.bugtracking.server.web.rest.TaskRestController;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.RandomUtils;
@@ -14,26 +27,48 @@ import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.forwardedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(TaskRestController.class)
@@ -69,13 +104,34 @@ public class TaskRestControllerTest {
         assertThat(specCaptor.getValue()).isEqualToComparingFieldByFieldRecursively(spec);
     }
 
+    @Test
+    public void testCreateBatch() throws Exception {
+        List<Long> expectedTaskIds = Arrays.asList(RandomUtils.nextLong(1, 100000), RandomUtils.nextLong(1, 100000));
+        List<NewTaskSpec> specs = Arrays.asList(
+            DtoCreator.createNewTaskSpec(RandomUtils.nextLong(1, 100000)),
+            DtoCreator.createNewTaskSpec(RandomUtils.nextLong(1, 100000))
+        );
+
+        given(taskService.createTasks(anyList())).willReturn(expectedTaskIds);
+        mvc.perform(post("/api/tasks/batch")
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .content(objectMapper.writeValueAsString(specs)))
+            .andExpect(status().isCreated())
+            .andExpect(content().string(objectMapper.writeValueAsString(new OnlyIdsDescription(expectedTaskIds))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NewTaskSpec>> specsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(taskService).createTasks(specsCaptor.capture());
+        assertThat(specsCaptor.getValue()).usingFieldByFieldElementComparator().containsExactlyElementsOf(specs);
+    }
+
     @Test
     public void testUpdate() throws Exception {
         Long taskId = RandomUtils.nextLong(1, 100000);
         TaskSpec spec = DtoCreator.createTaskSpec();
         String specStr = objectMapper.writeValueAsString(spec);
 
-        doNothing().when(taskService).updateTask(nullable(long.class), nullable(TaskSpec.class));
+        doNothing().when(taskService).updateTask(nullable(long.class), nullable(Integer.class), nullable(TaskSpec.class));
         mvc.perform(put("/api/tasks/{id}", taskId)
             .contentType(MediaType.APPLICATION_JSON)
             .content(specStr))
@@ -84,11 +140,173 @@ public class TaskRestControllerTest {
 
         ArgumentCaptor<Long> idCaptor = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<TaskSpec> specCaptor = ArgumentCaptor.forClass(TaskSpec.class);
-        verify(taskService).updateTask(idCaptor.capture(), specCaptor.capture());
+        verify(taskService).updateTask(idCaptor.capture(), isNull(), specCaptor.capture());
         assertThat(idCaptor.getValue()).isEqualTo(taskId);
         assertThat(specCaptor.getValue()).isEqualToComparingFieldByFieldRecursively(spec);
     }
 
+    @Test
+    public void testUpdateIfMatch() throws Exception {
+        Long taskId = RandomUtils.nextLong(1, 100000);
+        String specStr = objectMapper.writeValueAsString(DtoCreator.createTaskSpec());
+
+        mvc.perform(put("/api/tasks/{id}", taskId)
+            .header(HttpHeaders.IF_MATCH, ETags.forVersion(taskId, 3))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(specStr))
+            .andExpect(status().isNoContent());
+        verify(taskService).updateTask(eq(taskId), eq(3), any(TaskSpec.class));
+
+        mvc.perform(put("/api/tasks/{id}", taskId)
+            .header(HttpHeaders.IF_MATCH, "*")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(specStr))
+            .andExpect(status().isNoContent());
+        verify(taskService).updateTask(eq(taskId), isNull(), any(TaskSpec.class));
+
+        doThrow(new ObjectModifiedException(Task.class, taskId, 3))
+            .when(taskService).updateTask(eq(taskId), eq(3), any(TaskSpec.class));
+        mvc.perform(put("/api/tasks/{id}", taskId)
+            .header(HttpHeaders.IF_MATCH, ETags.forVersion(taskId, 3))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(specStr))
+            .andExpect(forwardedUrl("/error"))
+            .andExpect(result -> assertThat(result.getResolvedException()).isInstanceOf(ObjectModifiedException.class));
+
+        mvc.perform(put("/api/tasks/{id}", taskId)
+            .header(HttpHeaders.IF_MATCH, ETags.forVersion(taskId + 1, 3))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(specStr))
+            .andExpect(forwardedUrl("/error"))
+            .andExpect(result -> assertThat(result.getResolvedException()).isInstanceOf(InvalidRequestException.class));
+    }
+
+    @Test
+    public void testPatch() throws Exception {
+        Long taskId = RandomUtils.nextLong(1, 100000);
+
+        mvc.perform(patch("/api/tasks/{id}", taskId)
+            .header(HttpHeaders.IF_MATCH, ETags.forVersion(taskId, 4))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"status\": \"CLOSED\", \"description\": null}"))
+            .andExpect(status().isNoContent())
+            .andExpect(content().bytes(new byte[0]));
+
+        ArgumentCaptor<PartialTaskSpec> specCaptor = ArgumentCaptor.forClass(PartialTaskSpec.class);
+        verify(taskService).patchTask(eq(taskId), eq(4), specCaptor.capture());
+        PartialTaskSpec spec = specCaptor.getValue();
+        assertThat(spec.getSuppliedFields()).containsExactlyInAnyOrder("status", "description");
+        assertThat(spec.getStatus()).isEqualTo(TaskStatus.CLOSED);
+        assertThat(spec.getDescription()).isNull();
+
+        mvc.perform(patch("/api/tasks/{id}", taskId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"priority\": 0}"))
+            .andExpect(status().isBadRequest());
+        verify(taskService, times(1)).patchTask(nullable(long.class), nullable(Integer.class), nullable(PartialTaskSpec.class));
+    }
+
+    @Test
+    public void testBulkUpdate() throws Exception {
+        Long projectId = RandomUtils.nextLong(1, 100000);
+        TaskPatchSpec patchSpec = new TaskPatchSpec();
+        patchSpec.setStatus(TaskStatus.CLOSED);
+
+        given(taskService.updateTasks(nullable(Long.class), nullable(Set.class), nullable(Set.class),
+            nullable(LocalDateTime.class), nullable(LocalDateTime.class), nullable(TaskPatchSpec.class))).willReturn(42L);
+        mvc.perform(patch("/api/tasks")
+            .param("projectId", projectId.toString())
+            .param("status", TaskStatus.NEW.name(), TaskStatus.IN_PROGRESS.name())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(patchSpec)))
+            .andExpect(status().isOk())
+            .andExpect(content().string(objectMapper.writeValueAsString(new OnlyCountDescription(42))));
+
+        ArgumentCaptor<TaskPatchSpec> patchCaptor = ArgumentCaptor.forClass(TaskPatchSpec.class);
+        verify(taskService).updateTasks(eq(projectId), eq(EnumSet.of(TaskStatus.NEW, TaskStatus.IN_PROGRESS)), isNull(),
+            isNull(), isNull(), patchCaptor.capture());
+        assertThat(patchCaptor.getValue()).isEqualToComparingFieldByField(patchSpec);
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        Long projectId = RandomUtils.nextLong(1, 100000);
+        List<TaskDescription> descriptions = Arrays.asList(DtoCreator.createTaskDescription(), DtoCreator.createTaskDescription());
+
+        doAnswer(invocation -> {
+            Consumer<TaskDescription> consumer = invocation.getArgument(5);
+            descriptions.forEach(consumer);
+            return null;
+        }).when(taskService).exportTasks(nullable(Long.class), nullable(Set.class), nullable(Set.class),
+            nullable(LocalDateTime.class), nullable(LocalDateTime.class), any());
+        MvcResult result = mvc.perform(get("/api/tasks/export").param("projectId", projectId.toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(objectMapper.writeValueAsString(descriptions.get(0)) + "\n"
+                + objectMapper.writeValueAsString(descriptions.get(1)) + "\n"));
+
+        verify(taskService).exportTasks(eq(projectId), isNull(), isNull(), isNull(), isNull(), any());
+    }
+
+    @Test
+    public void testListWithFields() throws Exception {
+        TaskDescription task = DtoCreator.createTaskDescription();
+        GetTasksDescription description = new GetTasksDescription();
+        description.setItems(Collections.singletonList(task));
+
+        given(taskService.getTasks(nullable(Integer.class), nullable(Integer.class), nullable(Sort.Direction.class),
+            nullable(TaskOrderFormat.class), nullable(Long.class), nullable(Set.class), nullable(Set.class),
+            nullable(LocalDateTime.class), nullable(LocalDateTime.class), nullable(String.class),
+            nullable(TotalCountMode.class), nullable(Set.class))).willReturn(description);
+        mvc.perform(get("/api/tasks").param("fields", "id,name"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].id").value(task.getId()))
+            .andExpect(jsonPath("$.items[0].name").value(task.getName()))
+            .andExpect(jsonPath("$.items[0].description").doesNotExist())
+            .andExpect(jsonPath("$.items[0].priority").doesNotExist());
+        mvc.perform(get("/api/tasks").param("view", ListView.SUMMARY.name()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].priority").value(task.getPriority()))
+            .andExpect(jsonPath("$.items[0].description").doesNotExist());
+        mvc.perform(get("/api/tasks"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].description").value(task.getDescription()));
+
+        verify(taskService).getTasks(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+            isNull(), isNull(), isNull(), eq(new HashSet<>(Arrays.asList("id", "name"))));
+        verify(taskService).getTasks(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+            isNull(), isNull(), isNull(), eq(TaskDescription.SUMMARY_FIELDS));
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        Long projectId = RandomUtils.nextLong(1, 100000);
+        TaskDescription task = DtoCreator.createTaskDescription();
+        GetTasksDescription description = new GetTasksDescription();
+        description.setHasMore(true);
+        description.setItems(Collections.singletonList(task));
+
+        given(taskService.searchTasks(nullable(String.class), nullable(Integer.class), nullable(Integer.class),
+            nullable(Long.class), nullable(Set.class), nullable(Set.class))).willReturn(description);
+        mvc.perform(get("/api/tasks/search")
+            .param("q", "login crash")
+            .param("limit", "20")
+            .param("projectId", projectId.toString())
+            .param("status", TaskStatus.NEW.name()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.hasMore").value(true))
+            .andExpect(jsonPath("$.items[0].id").value(task.getId()));
+        mvc.perform(get("/api/tasks/search").param("q", " "))
+            .andExpect(status().isBadRequest());
+
+        verify(taskService).searchTasks(eq("login crash"), eq(20), isNull(), eq(projectId),
+            eq(EnumSet.of(TaskStatus.NEW)), isNull());
+        verify(taskService, times(1)).searchTasks(any(), any(), any(), any(), any(), any());
+    }
+
     @Test
     public void testDelete() throws Exception {
         Long taskId = RandomUtils.nextLong(1, 100000);
@@ -118,4 +336,48 @@ public class TaskRestControllerTest {
         verify(taskService).getTaskDetails(idCaptor.capture());
         assertThat(idCaptor.getValue()).isEqualTo(taskId);
     }
+
+    @Test
+    public void testGetDetailsNotModified() throws Exception {
+        TaskDescription description = DtoCreator.createTaskDescription();
+        Long taskId = description.getId();
+
+        given(taskService.getTaskDetails(nullable(long.class))).willReturn(description);
+        given(taskService.getTaskVersion(nullable(long.class))).willReturn(description.getVersion());
+        String eTag = mvc.perform(get("/api/tasks/{id}", taskId))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        mvc.perform(get("/api/tasks/{id}", taskId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().bytes(new byte[0]));
+        verify(taskService, times(1)).getTaskDetails(taskId);
+
+        given(taskService.getTaskVersion(nullable(long.class))).willReturn(description.getVersion() + 1);
+        mvc.perform(get("/api/tasks/{id}", taskId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testListNotModified() throws Exception {
+        GetTasksDescription description = new GetTasksDescription();
+        description.setItems(Arrays.asList(DtoCreator.createTaskDescription(), DtoCreator.createTaskDescription()));
+
+        given(taskService.getTasks(nullable(Integer.class), nullable(Integer.class), nullable(Sort.Direction.class),
+            nullable(TaskOrderFormat.class), nullable(Long.class), nullable(Set.class), nullable(Set.class),
+            nullable(LocalDateTime.class), nullable(LocalDateTime.class), nullable(String.class),
+            nullable(TotalCountMode.class), nullable(Set.class))).willReturn(description);
+        String eTag = mvc.perform(get("/api/tasks"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(get("/api/tasks").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+        mvc.perform(get("/api/tasks").param("fields", "id").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+
+        description.getItems().get(1).setModifiedAt(description.getItems().get(1).getModifiedAt().plusSeconds(1));
+        mvc.perform(get("/api/tasks").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+    }
 }
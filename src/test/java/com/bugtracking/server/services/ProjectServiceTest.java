@@ -1,9 +1,18 @@
 package com.bugtracking.server.services;
 
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
+import com.bugtracking.server.domain.exceptions.ObjectAlreadyExistsException;
+import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
+import com.bugtracking.server.domain.project.ProjectPurger;
+import com.bugtracking.server.dto.TotalCountMode;
 import com.bugtracking.server.dto.project.GetProjectsDescription;
 import com.bugtracking.server.dto.project.NewProjectSpec;
+import com.bugtracking.server.dto.project.PartialProjectSpec;
+import com.bugtracking.server.dto.project.ProjectDeletionDescription;
+import com.bugtracking.server.dto.project.ProjectDeletionStatus;
 import com.bugtracking.server.dto.project.ProjectDescription;
 import com.bugtracking.server.dto.project.ProjectSpec;
+import com.bugtracking.server.dto.task.NewTaskSpec;
 import com.bugtracking.server.utils.DtoCreator;
 import org.junit.After;
 import org.junit.Test;
@@ -13,11 +22,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Sort;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -26,11 +45,16 @@ public class ProjectServiceTest {
     @Autowired
     private ProjectService projectService;
     @Autowired
+    private TaskService taskService;
+    @Autowired
+    private ProjectPurger projectPurger;
+    @Autowired
     private JdbcTemplate jdbc = new JdbcTemplate();
 
     @After
     public void tearDown() {
         jdbc.update("DELETE FROM projects");
+        jdbc.update("DELETE FROM project_deletions");
     }
 
     @Test
@@ -53,16 +77,145 @@ public class ProjectServiceTest {
         assertProject(projectId, updateProjectSpec);
     }
 
+    @Test
+    public void testPatchProject() throws Exception {
+        NewProjectSpec newProjectSpec = DtoCreator.createProjectSpec();
+        Long projectId = projectService.createProject(newProjectSpec);
+
+        PartialProjectSpec patch = new PartialProjectSpec();
+        patch.setName(newProjectSpec.getName() + " renamed");
+        projectService.patchProject(projectId, patch);
+        newProjectSpec.setName(patch.getName());
+        assertProject(projectId, newProjectSpec);
+
+        NewProjectSpec otherProjectSpec = DtoCreator.createProjectSpec();
+        Long otherProjectId = projectService.createProject(otherProjectSpec);
+        assertThatThrownBy(() -> projectService.patchProject(otherProjectId, patch))
+            .isInstanceOf(ObjectAlreadyExistsException.class)
+            .hasFieldOrPropertyWithValue("existingObjectId", projectId);
+        assertThatThrownBy(() -> projectService.patchProject(otherProjectId, new PartialProjectSpec()))
+            .isInstanceOf(InvalidRequestException.class);
+        assertProject(otherProjectId, otherProjectSpec);
+    }
+
+    @Test
+    public void testCreateProjectWithDuplicateName() throws Exception {
+        NewProjectSpec projectSpec = DtoCreator.createProjectSpec();
+        Long projectId = projectService.createProject(projectSpec);
+
+        assertThatThrownBy(() -> projectService.createProject(projectSpec))
+            .isInstanceOf(ObjectAlreadyExistsException.class)
+            .hasFieldOrPropertyWithValue("existingObjectId", projectId);
+
+        NewProjectSpec otherProjectSpec = DtoCreator.createProjectSpec();
+        Long otherProjectId = projectService.createProject(otherProjectSpec);
+        assertThatThrownBy(() -> projectService.updateProject(otherProjectId, projectSpec))
+            .isInstanceOf(ObjectAlreadyExistsException.class)
+            .hasFieldOrPropertyWithValue("existingObjectId", projectId);
+        assertProject(otherProjectId, otherProjectSpec);
+    }
+
+    @Test
+    public void testConcurrentCreateProjectWithSameName() throws Exception {
+        int threads = 8;
+        int rounds = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < rounds; ++round) {
+                NewProjectSpec projectSpec = DtoCreator.createProjectSpec();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Long>> results = new ArrayList<>();
+                for (int i = 0; i < threads; ++i) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return projectService.createProject(projectSpec);
+                    }));
+                }
+                start.countDown();
+
+                List<Long> createdIds = new ArrayList<>();
+                List<ObjectAlreadyExistsException> conflicts = new ArrayList<>();
+                for (Future<Long> result : results) {
+                    try {
+                        createdIds.add(result.get(30, TimeUnit.SECONDS));
+                    } catch (ExecutionException ex) {
+                        assertThat(ex.getCause()).isInstanceOf(ObjectAlreadyExistsException.class);
+                        conflicts.add((ObjectAlreadyExistsException) ex.getCause());
+                    }
+                }
+
+                assertThat(createdIds).hasSize(1);
+                assertThat(conflicts).hasSize(threads - 1);
+                assertThat(conflicts).extracting(ObjectAlreadyExistsException::getExistingObjectId)
+                    .containsOnly(createdIds.get(0));
+                assertThat(jdbc.queryForObject("SELECT count(1) FROM projects WHERE name = ?", Long.class, projectSpec.getName()))
+                    .isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testDeleteProject() throws Exception {
         NewProjectSpec projectSpec = DtoCreator.createProjectSpec();
         Long projectId = projectService.createProject(projectSpec);
         assertThat(projectId).isNotNull();
 
-        projectService.deleteProject(projectId);
+        List<NewTaskSpec> taskSpecs = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            taskSpecs.add(DtoCreator.createNewTaskSpec(projectId));
+        }
+        List<Long> taskIds = taskService.createTasks(taskSpecs);
+        // one of the tasks is purged from the archive
+        jdbc.update("INSERT INTO tasks_archive (task_id, project_id, name, description, priority, status, created_at, modified_at) "
+            + "SELECT task_id, project_id, name, description, priority, status, created_at, modified_at FROM tasks WHERE task_id = ?",
+            taskIds.get(4));
+        jdbc.update("DELETE FROM tasks WHERE task_id = ?", taskIds.get(4));
+
+        ProjectDeletionDescription deletion = projectService.deleteProject(projectId);
+        assertThat(deletion.getStatus()).isEqualTo(ProjectDeletionStatus.PENDING);
+        assertThat(deletion.getTotalTasks()).isEqualTo(5);
+        assertThatThrownBy(() -> projectService.getProjectDetails(projectId)).isInstanceOf(ObjectNotFoundException.class);
+        assertThatThrownBy(() -> taskService.getTaskDetails(taskIds.get(0))).isInstanceOf(ObjectNotFoundException.class);
+        assertThat(taskService.getTasks(null, null, null, null, null, null, null, null, null, null, TotalCountMode.EXACT, null)
+            .getTotal()).isEqualTo(0);
+        assertThat(projectService.getProjects(null, null, null, TotalCountMode.EXACT, null, false).getTotal()).isEqualTo(0);
+        List<String> deletedEntities = jdbc.queryForList(
+            "SELECT entity_type FROM change_events WHERE project_id = ? AND operation = 'DELETED'", String.class, projectId);
+        assertThat(deletedEntities).containsExactly("PROJECT");
 
+        ReflectionTestUtils.setField(projectPurger, "batchSize", 2);
+        while (projectPurger.purgeNextBatch()) {
+            assertThat(projectService.getProjectDeletion(projectId).getStatus()).isNotEqualTo(ProjectDeletionStatus.PENDING);
+        }
+
+        deletion = projectService.getProjectDeletion(projectId);
+        assertThat(deletion.getStatus()).isEqualTo(ProjectDeletionStatus.COMPLETED);
+        assertThat(deletion.getDeletedTasks()).isEqualTo(5);
         List<Map<String, Object>> queryResults = jdbc.queryForList("SELECT 1 FROM projects WHERE project_id = ?", projectId);
         assertThat(queryResults.size()).isEqualTo(0);
+        queryResults = jdbc.queryForList("SELECT 1 FROM tasks WHERE project_id = ?", projectId);
+        assertThat(queryResults.size()).isEqualTo(0);
+        queryResults = jdbc.queryForList("SELECT 1 FROM task_counters WHERE project_id = ?", projectId);
+        assertThat(queryResults.size()).isEqualTo(0);
+        queryResults = jdbc.queryForList("SELECT 1 FROM task_activity WHERE project_id = ?", projectId);
+        assertThat(queryResults.size()).isEqualTo(0);
+        deletedEntities = jdbc.queryForList(
+            "SELECT entity_type FROM change_events WHERE project_id = ? AND operation = 'DELETED'", String.class, projectId);
+        assertThat(deletedEntities).containsExactly("PROJECT");
+    }
+
+    @Test
+    public void testReuseNameOfDeletedProject() throws Exception {
+        NewProjectSpec projectSpec = DtoCreator.createProjectSpec();
+        Long projectId = projectService.createProject(projectSpec);
+        projectService.deleteProject(projectId);
+
+        Long newProjectId = projectService.createProject(projectSpec);
+        assertThat(newProjectId).isNotEqualTo(projectId);
+        assertThat(projectService.getProjectDetails(newProjectId).getName()).isEqualTo(projectSpec.getName());
+        assertThatThrownBy(() -> projectService.deleteProject(projectId)).isInstanceOf(ObjectNotFoundException.class);
     }
 
     @Test
@@ -97,7 +250,7 @@ public class ProjectServiceTest {
         Long projectId2 = projectService.createProject(projectSpec2);
         Long projectId3 = projectService.createProject(projectSpec3);
 
-        GetProjectsDescription result = projectService.getProjects(null, null, null);
+        GetProjectsDescription result = projectService.getProjects(null, null, null, null, null, false);
         assertThat(result.getTotal()).isEqualTo(3);
         assertThat(result.getItems().size()).isEqualTo(3);
 
@@ -105,14 +258,32 @@ public class ProjectServiceTest {
         assertProjectDetails(result.getItems().get(1), generateExpectedProjectDescription(projectId2, projectSpec2));
         assertProjectDetails(result.getItems().get(2), generateExpectedProjectDescription(projectId3, projectSpec3));
 
-        result = projectService.getProjects(null, null, Sort.Direction.DESC);
+        result = projectService.getProjects(null, null, Sort.Direction.DESC, null, null, false);
         assertThat(result.getItems().get(0).getId()).isEqualTo(projectId3);
         assertThat(result.getItems().get(1).getId()).isEqualTo(projectId2);
         assertThat(result.getItems().get(2).getId()).isEqualTo(projectId1);
 
-        result = projectService.getProjects(2, null, Sort.Direction.DESC);
+        result = projectService.getProjects(2, null, Sort.Direction.DESC, null, null, false);
         assertThat(result.getTotal()).isEqualTo(3);
         assertThat(result.getItems().size()).isEqualTo(2);
+
+        result = projectService.getProjects(2, null, Sort.Direction.DESC, TotalCountMode.NONE, null, false);
+        assertThat(result.getTotal()).isNull();
+        assertThat(result.isHasMore()).isTrue();
+        assertThat(result.getItems().size()).isEqualTo(2);
+
+        result = projectService.getProjects(2, 1, Sort.Direction.DESC, TotalCountMode.NONE, null, false);
+        assertThat(result.isHasMore()).isFalse();
+        assertThat(result.getItems().size()).isEqualTo(1);
+
+        result = projectService.getProjects(null, null, null, TotalCountMode.NONE, ProjectDescription.SUMMARY_FIELDS, false);
+        assertThat(result.getItems()).extracting(ProjectDescription::getId).containsExactly(projectId1, projectId2, projectId3);
+        assertThat(result.getItems().get(0).getName()).isEqualTo(projectSpec1.getName());
+        assertThat(result.getItems().get(0).getDescription()).isNull();
+
+        result = projectService.getProjects(null, null, null, TotalCountMode.NONE, Collections.singleton("id"), false);
+        assertThat(result.getItems()).extracting(ProjectDescription::getId).containsExactly(projectId1, projectId2, projectId3);
+        assertThat(result.getItems().get(0).getName()).isNull();
     }
 
     private static ProjectDescription generateExpectedProjectDescription(Long projectId, ProjectSpec spec) {
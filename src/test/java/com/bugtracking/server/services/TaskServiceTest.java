@@ -1,13 +1,32 @@
 package com.bugtracking.server.services;
 
+import com.bugtracking.server.domain.change.ChangeEntityType;
+import com.bugtracking.server.domain.change.ChangeEventRepository;
+import com.bugtracking.server.domain.change.ChangeOperation;
+import com.bugtracking.server.domain.exceptions.InvalidRequestException;
+import com.bugtracking.server.domain.exceptions.ObjectModifiedException;
+import com.bugtracking.server.domain.exceptions.ObjectNotFoundException;
+import com.bugtracking.server.domain.task.TaskArchiver;
+import com.bugtracking.server.domain.task.TaskCountersReconciler;
+import com.bugtracking.server.domain.task.TaskDescriptionCache;
 import com.bugtracking.server.domain.task.TaskStatus;
+import com.bugtracking.server.dto.ActivityBucket;
 import com.bugtracking.server.dto.TaskOrderFormat;
+import com.bugtracking.server.dto.TotalCountMode;
+import com.bugtracking.server.dto.change.ChangeEventDescription;
+import com.bugtracking.server.dto.project.ActivityBucketDescription;
+import com.bugtracking.server.dto.project.GetProjectsDescription;
+import com.bugtracking.server.dto.project.ProjectActivityDescription;
+import com.bugtracking.server.dto.project.ProjectStatsDescription;
 import com.bugtracking.server.dto.task.GetTasksDescription;
 import com.bugtracking.server.dto.task.NewTaskSpec;
+import com.bugtracking.server.dto.task.PartialTaskSpec;
 import com.bugtracking.server.dto.task.TaskDescription;
+import com.bugtracking.server.dto.task.TaskPatchSpec;
 import com.bugtracking.server.dto.task.TaskSpec;
 import com.bugtracking.server.dto.task.TaskSpecBaseInfo;
 import com.bugtracking.server.utils.DtoCreator;
+import org.hibernate.Session;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -17,11 +36,26 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Sort;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
 
 @SpringBootTest
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -32,7 +66,19 @@ public class TaskServiceTest {
     @Autowired
     private TaskService taskService;
     @Autowired
+    private TaskCountersReconciler taskCountersReconciler;
+    @Autowired
+    private TaskArchiver taskArchiver;
+    @Autowired
+    private TaskDescriptionCache taskDescriptionCache;
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+    @Autowired
     private JdbcTemplate jdbc = new JdbcTemplate();
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager em;
 
     private Long projectId;
 
@@ -45,6 +91,7 @@ public class TaskServiceTest {
     @After
     public void tearDown() {
         jdbc.update("DELETE FROM tasks");
+        jdbc.update("DELETE FROM tasks_archive");
         jdbc.update("DELETE FROM projects");
     }
 
@@ -56,6 +103,34 @@ public class TaskServiceTest {
         assertTask(taskId, taskSpec);
     }
 
+    @Test
+    public void testCreateTasks() throws Exception {
+        Long anotherProjectId = projectService.createProject(DtoCreator.createProjectSpec());
+        List<NewTaskSpec> taskSpecs = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            taskSpecs.add(DtoCreator.createNewTaskSpec(i % 2 == 0 ? projectId : anotherProjectId));
+        }
+
+        List<Long> taskIds = taskService.createTasks(taskSpecs);
+        assertThat(taskIds.size()).isEqualTo(taskSpecs.size());
+        for (int i = 0; i < taskIds.size(); ++i) {
+            assertTask(taskIds.get(i), taskSpecs.get(i));
+        }
+    }
+
+    @Test(expected = ObjectNotFoundException.class)
+    public void testCreateTasksOfMissingProject() throws Exception {
+        List<NewTaskSpec> taskSpecs = Arrays.asList(
+            DtoCreator.createNewTaskSpec(projectId),
+            DtoCreator.createNewTaskSpec(projectId + 1000)
+        );
+        try {
+            taskService.createTasks(taskSpecs);
+        } finally {
+            assertThat(jdbc.queryForObject("SELECT count(1) FROM tasks", Long.class)).isEqualTo(0);
+        }
+    }
+
     @Test
     public void testUpdateTask() throws Exception {
         NewTaskSpec newTaskSpec = DtoCreator.createNewTaskSpec(projectId);
@@ -63,11 +138,131 @@ public class TaskServiceTest {
         assertThat(taskId).isNotNull();
 
         TaskSpec updateTaskSpec = DtoCreator.createTaskSpec();
-        taskService.updateTask(taskId, updateTaskSpec);
+        taskService.updateTask(taskId, null, updateTaskSpec);
 
         assertTask(taskId, updateTaskSpec);
     }
 
+    @Test
+    public void testUpdateTaskWithExpectedVersion() throws Exception {
+        Long taskId = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        assertThat(taskService.getTaskVersion(taskId)).isEqualTo(0);
+
+        TaskSpec spec = DtoCreator.createTaskSpec();
+        taskService.updateTask(taskId, 0, spec);
+        assertTask(taskId, spec);
+        assertThat(taskService.getTaskVersion(taskId)).isEqualTo(1);
+        assertThat(taskService.getTaskDetails(taskId).getVersion()).isEqualTo(1);
+
+        try {
+            taskService.updateTask(taskId, 0, DtoCreator.createTaskSpec());
+            fail("Task has been updated at a stale version");
+        } catch (ObjectModifiedException ex) {
+            assertThat(ex.objectId).isEqualTo(taskId);
+        }
+        assertTask(taskId, spec);
+
+        TaskPatchSpec patch = new TaskPatchSpec();
+        patch.setPriority(3);
+        taskService.updateTasks(projectId, null, null, null, null, patch);
+        assertThat(taskService.getTaskVersion(taskId)).isEqualTo(2);
+
+        try {
+            taskService.updateTask(taskId + 1000, 2, spec);
+            fail("Missing task has been updated");
+        } catch (ObjectNotFoundException ex) {
+            assertThat(ex.objectId).isEqualTo(taskId + 1000);
+        }
+        spec.setStatus(TaskStatus.CLOSED);
+        taskService.updateTask(taskId, 2, spec);
+        try {
+            taskService.updateTask(taskId, 3, spec);
+            fail("Closed task has been updated");
+        } catch (InvalidRequestException ex) {
+            assertThat(ex.getMessage()).isEqualTo("You can not modify closed task.");
+        }
+    }
+
+    @Test
+    public void testPatchTask() throws Exception {
+        Long taskId = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        TaskSpec spec = DtoCreator.createTaskSpec();
+        taskService.updateTask(taskId, null, spec);
+
+        PartialTaskSpec statusPatch = new PartialTaskSpec();
+        statusPatch.setStatus(TaskStatus.IN_PROGRESS);
+        taskService.patchTask(taskId, 1, statusPatch);
+        spec.setStatus(TaskStatus.IN_PROGRESS);
+        assertTask(taskId, spec);
+        assertThat(taskService.getTaskVersion(taskId)).isEqualTo(2);
+
+        PartialTaskSpec descriptionPatch = new PartialTaskSpec();
+        descriptionPatch.setDescription(null);
+        descriptionPatch.setPriority(9);
+        taskService.patchTask(taskId, null, descriptionPatch);
+        spec.setDescription(null);
+        spec.setPriority(9);
+        assertTask(taskId, spec);
+
+        PartialTaskSpec namePatch = new PartialTaskSpec();
+        namePatch.setName(null);
+        assertThatThrownBy(() -> taskService.patchTask(taskId, null, namePatch))
+            .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> taskService.patchTask(taskId, null, new PartialTaskSpec()))
+            .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> taskService.patchTask(taskId, 2, descriptionPatch))
+            .isInstanceOf(ObjectModifiedException.class);
+
+        PartialTaskSpec closePatch = new PartialTaskSpec();
+        closePatch.setStatus(TaskStatus.CLOSED);
+        taskService.patchTask(taskId, null, closePatch);
+        assertThatThrownBy(() -> taskService.patchTask(taskId, null, statusPatch))
+            .isInstanceOf(InvalidRequestException.class)
+            .hasMessage("You can not modify closed task.");
+        spec.setStatus(TaskStatus.CLOSED);
+        assertTask(taskId, spec);
+    }
+
+    @Test
+    public void testUpdateTasks() throws Exception {
+        List<Long> taskIds = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            taskIds.add(taskService.createTask(DtoCreator.createNewTaskSpec(projectId)));
+        }
+        Long anotherProjectId = projectService.createProject(DtoCreator.createProjectSpec());
+        Long anotherProjectTaskId = taskService.createTask(DtoCreator.createNewTaskSpec(anotherProjectId));
+
+        TaskSpec closeSpec = DtoCreator.createTaskSpec();
+        closeSpec.setStatus(TaskStatus.CLOSED);
+        taskService.updateTask(taskIds.get(0), null, closeSpec);
+
+        TaskPatchSpec patch = new TaskPatchSpec();
+        patch.setStatus(TaskStatus.IN_PROGRESS);
+        patch.setPriority(7);
+        ReflectionTestUtils.setField(taskService, "bulkUpdateChunkSize", 2);
+        try {
+            long updated = taskService.updateTasks(projectId, null, null, null, null, patch);
+            assertThat(updated).isEqualTo(4);
+        } finally {
+            ReflectionTestUtils.setField(taskService, "bulkUpdateChunkSize", 1000);
+        }
+
+        assertThat(jdbc.queryForObject("SELECT status FROM tasks WHERE task_id = ?", String.class, taskIds.get(0)))
+            .isEqualTo(TaskStatus.CLOSED.name());
+        for (Long taskId : taskIds.subList(1, taskIds.size())) {
+            Map<String, Object> row = jdbc.queryForMap("SELECT status, priority FROM tasks WHERE task_id = ?", taskId);
+            assertThat(row).containsEntry("status", TaskStatus.IN_PROGRESS.name());
+            assertThat(row).containsEntry("priority", 7);
+        }
+        assertThat(jdbc.queryForObject("SELECT status FROM tasks WHERE task_id = ?", String.class, anotherProjectTaskId))
+            .isEqualTo(TaskStatus.NEW.name());
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void testUpdateTasksWithEmptyPatch() throws Exception {
+        taskService.updateTasks(projectId, null, null, null, null, new TaskPatchSpec());
+    }
+
     @Test
     public void testGetTaskDetails() throws Exception {
         NewTaskSpec newTaskSpec = DtoCreator.createNewTaskSpec(projectId);
@@ -79,13 +274,22 @@ public class TaskServiceTest {
         assertTaskDetails(taskDescription, expected);
 
         TaskSpec updateTaskSpec = DtoCreator.createTaskSpec();
-        taskService.updateTask(taskId, updateTaskSpec);
+        taskService.updateTask(taskId, null, updateTaskSpec);
         taskDescription = taskService.getTaskDetails(taskId);
 
         expected = generateExpectedTaskDescription(taskId, updateTaskSpec, projectId, updateTaskSpec.getStatus());
         assertTaskDetails(taskDescription, expected);
     }
 
+    @Test(expected = ObjectNotFoundException.class)
+    public void testGetTaskDetailsOfDeletedProject() throws Exception {
+        Long taskId = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        assertThat(taskService.getTaskDetails(taskId).getId()).isEqualTo(taskId);
+
+        projectService.deleteProject(projectId);
+        taskService.getTaskDetails(taskId);
+    }
+
     @Test
     public void testGetTasks() throws Exception {
         NewTaskSpec newTaskSpec1 = DtoCreator.createNewTaskSpec(projectId);
@@ -100,7 +304,7 @@ public class TaskServiceTest {
         Long taskId2 = taskService.createTask(newTaskSpec2);
         Long taskId3 = taskService.createTask(newTaskSpec3);
 
-        GetTasksDescription result = taskService.getTasks(null, null, null, TaskOrderFormat.PRIORITY, null, null, null, null, null);
+        GetTasksDescription result = taskService.getTasks(null, null, null, TaskOrderFormat.PRIORITY, null, null, null, null, null, null, null, null);
         assertThat(result.getTotal()).isEqualTo(3);
         assertThat(result.getItems().size()).isEqualTo(3);
 
@@ -108,7 +312,7 @@ public class TaskServiceTest {
         assertTaskDetails(result.getItems().get(1), generateExpectedTaskDescription(taskId2, newTaskSpec2, projectId, TaskStatus.NEW));
         assertTaskDetails(result.getItems().get(2), generateExpectedTaskDescription(taskId3, newTaskSpec3, projectId, TaskStatus.NEW));
 
-        result = taskService.getTasks(2, null, Sort.Direction.DESC, TaskOrderFormat.PRIORITY, null, null, null, null, null);
+        result = taskService.getTasks(2, null, Sort.Direction.DESC, TaskOrderFormat.PRIORITY, null, null, null, null, null, null, null, null);
         assertThat(result.getTotal()).isEqualTo(3);
         assertThat(result.getItems().size()).isEqualTo(2);
         assertThat(result.getItems().get(0).getId()).isEqualTo(taskId3);
@@ -117,11 +321,309 @@ public class TaskServiceTest {
         NewTaskSpec anotherTaskSpec = DtoCreator.createNewTaskSpec(anotherProjectId);
         taskService.createTask(anotherTaskSpec);
 
-        result = taskService.getTasks(null, null, null, null, anotherProjectId, null, null, null, null);
+        result = taskService.getTasks(null, null, null, null, anotherProjectId, null, null, null, null, null, null, null);
         assertThat(result.getTotal()).isEqualTo(1);
         assertThat(result.getItems().size()).isEqualTo(1);
     }
 
+    @Test
+    public void testGetTasksDoesNotManageEntities() throws Exception {
+        Long taskId = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            GetTasksDescription result = taskService.getTasks(null, null, null, null, projectId, null, null, null, null, null, null, null);
+            assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(taskId);
+            assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(0);
+            return null;
+        });
+    }
+
+    @Test
+    public void testGetTasksWithCursor() throws Exception {
+        Long[] taskIds = new Long[5];
+        for (int i = 0; i < taskIds.length; ++i) {
+            taskIds[i] = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        }
+
+        GetTasksDescription result = taskService.getTasks(2, null, null, null, null, null, null, null, null, null, null, null);
+        assertThat(result.getTotal()).isEqualTo(5);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(taskIds[0], taskIds[1]);
+        assertThat(result.getNextCursor()).isNotNull();
+
+        result = taskService.getTasks(2, null, null, null, null, null, null, null, null, result.getNextCursor(), null, null);
+        assertThat(result.getTotal()).isEqualTo(5);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(taskIds[2], taskIds[3]);
+
+        result = taskService.getTasks(2, null, null, null, null, null, null, null, null, result.getNextCursor(), null, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(taskIds[4]);
+        assertThat(result.getNextCursor()).isNull();
+
+        result = taskService.getTasks(3, null, Sort.Direction.DESC, null, null, null, null, null, null, null, null, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(taskIds[4], taskIds[3], taskIds[2]);
+
+        result = taskService.getTasks(3, null, Sort.Direction.DESC, null, null, null, null, null, null, result.getNextCursor(), null, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(taskIds[1], taskIds[0]);
+    }
+
+    @Test
+    public void testGetTasksWithTotalCountModes() throws Exception {
+        for (int i = 0; i < 3; ++i) {
+            taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        }
+
+        GetTasksDescription result = taskService.getTasks(2, null, null, null, projectId, null, null, null, null, null, TotalCountMode.NONE, null);
+        assertThat(result.getTotal()).isNull();
+        assertThat(result.isHasMore()).isTrue();
+        assertThat(result.getItems().size()).isEqualTo(2);
+
+        result = taskService.getTasks(2, 1, null, null, projectId, null, null, null, null, null, TotalCountMode.NONE, null);
+        assertThat(result.getTotal()).isNull();
+        assertThat(result.isHasMore()).isFalse();
+        assertThat(result.getItems().size()).isEqualTo(1);
+
+        result = taskService.getTasks(2, null, null, null, projectId, null, null, null, null, null, TotalCountMode.ESTIMATED, null);
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.isHasMore()).isTrue();
+
+        result = taskService.getTasks(2, null, null, null, projectId, null, null, null, null, null, TotalCountMode.EXACT, null);
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.isHasMore()).isTrue();
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void testGetTasksWithCursorOfAnotherOrdering() throws Exception {
+        for (int i = 0; i < 3; ++i) {
+            taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        }
+
+        GetTasksDescription result = taskService.getTasks(2, null, null, TaskOrderFormat.DATE, null, null, null, null, null, null, null, null);
+        taskService.getTasks(2, null, null, TaskOrderFormat.PRIORITY, null, null, null, null, null, result.getNextCursor(), null, null);
+    }
+
+    @Test
+    public void testExportTasks() throws Exception {
+        List<Long> taskIds = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            taskIds.add(taskService.createTask(DtoCreator.createNewTaskSpec(projectId)));
+        }
+        Long anotherProjectId = projectService.createProject(DtoCreator.createProjectSpec());
+        taskService.createTask(DtoCreator.createNewTaskSpec(anotherProjectId));
+
+        List<TaskDescription> exported = new ArrayList<>();
+        taskService.exportTasks(projectId, null, null, null, null, exported::add);
+        assertThat(exported).extracting(TaskDescription::getId).containsExactlyElementsOf(taskIds);
+        assertThat(exported).extracting(TaskDescription::getProjectId).containsOnly(projectId);
+    }
+
+    @Test
+    public void testSearchTasks() throws Exception {
+        Long crashTaskId = taskService.createTask(createNewTaskSpec(projectId, "Login crash", "Application crash on login page"));
+        Long loginTaskId = taskService.createTask(createNewTaskSpec(projectId, "Login form layout", "Labels overlap the inputs"));
+        Long anotherProjectId = projectService.createProject(DtoCreator.createProjectSpec());
+        Long anotherTaskId = taskService.createTask(createNewTaskSpec(anotherProjectId, "Crash report", "Startup crash"));
+
+        GetTasksDescription result = taskService.searchTasks("crash", null, null, null, null, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsOnly(crashTaskId, anotherTaskId);
+        assertThat(result.getTotal()).isNull();
+        assertThat(result.isHasMore()).isFalse();
+
+        result = taskService.searchTasks("login crash", null, null, projectId, null, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(crashTaskId, loginTaskId);
+
+        result = taskService.searchTasks("login crash", 1, null, projectId, null, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(crashTaskId);
+        assertThat(result.isHasMore()).isTrue();
+
+        TaskSpec spec = createTaskSpec("Login button color", "Wrong shade of blue");
+        spec.setStatus(TaskStatus.CLOSED);
+        taskService.updateTask(crashTaskId, null, spec);
+        result = taskService.searchTasks("crash", null, null, null, null, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(anotherTaskId);
+        result = taskService.searchTasks("login", null, null, projectId, Collections.singleton(TaskStatus.CLOSED), null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(crashTaskId);
+
+        taskService.deleteTask(anotherTaskId);
+        result = taskService.searchTasks("crash", null, null, null, null, null);
+        assertThat(result.getItems()).isEmpty();
+    }
+
+    @Test
+    public void testTaskCounters() throws Exception {
+        Long taskId1 = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        List<NewTaskSpec> specs = Arrays.asList(DtoCreator.createNewTaskSpec(projectId), DtoCreator.createNewTaskSpec(projectId));
+        specs.forEach(spec -> spec.setPriority(7));
+        List<Long> taskIds = taskService.createTasks(specs);
+
+        TaskSpec spec = DtoCreator.createTaskSpec();
+        spec.setStatus(TaskStatus.CLOSED);
+        spec.setPriority(7);
+        taskService.updateTask(taskId1, null, spec);
+        TaskPatchSpec patch = new TaskPatchSpec();
+        patch.setStatus(TaskStatus.IN_PROGRESS);
+        taskService.updateTasks(projectId, Collections.singleton(TaskStatus.NEW), null, null, null, patch);
+        taskService.deleteTask(taskIds.get(0));
+
+        ProjectStatsDescription stats = projectService.getProjectStats(projectId);
+        assertThat(stats.getTotal()).isEqualTo(2);
+        assertThat(stats.getByStatus()).containsEntry(TaskStatus.NEW, 0L)
+            .containsEntry(TaskStatus.IN_PROGRESS, 1L)
+            .containsEntry(TaskStatus.CLOSED, 1L);
+        assertThat(stats.getByPriority()).containsOnlyKeys(7);
+        assertThat(stats.getByPriority().get(7)).containsEntry(TaskStatus.IN_PROGRESS, 1L).containsEntry(TaskStatus.CLOSED, 1L);
+
+        GetProjectsDescription projects = projectService.getProjects(null, null, null, null, null, true);
+        assertThat(projects.getItems().get(0).getTaskCounts()).isEqualTo(stats.getByStatus());
+
+        assertThat(taskCountersReconciler.reconcile()).isEqualTo(0);
+        jdbc.update("UPDATE task_counters SET task_count = task_count + 5 WHERE project_id = ?", projectId);
+        assertThat(taskCountersReconciler.reconcile()).isEqualTo(1);
+        assertThat(projectService.getProjectStats(projectId).getByStatus()).isEqualTo(stats.getByStatus());
+    }
+
+    @Test
+    public void testProjectActivity() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2018, 3, 1, 10, 0);
+        String insert = "INSERT INTO tasks (project_id, name, priority, status, created_at, modified_at) VALUES (?, ?, 1, 'NEW', ?, ?)";
+        jdbc.update(insert, projectId, "Task_1", Timestamp.valueOf(base.plusMinutes(5)), Timestamp.valueOf(base.plusMinutes(5)));
+        jdbc.update(insert, projectId, "Task_2", Timestamp.valueOf(base.plusMinutes(50)), Timestamp.valueOf(base.plusMinutes(50)));
+        jdbc.update(insert, projectId, "Task_3", Timestamp.valueOf(base.plusHours(2)), Timestamp.valueOf(base.plusHours(2)));
+        jdbc.update("UPDATE tasks SET status = 'CLOSED', modified_at = ? WHERE name = 'Task_1'", Timestamp.valueOf(base.plusDays(1)));
+        jdbc.update("UPDATE tasks SET priority = 2, modified_at = ? WHERE name = 'Task_2'", Timestamp.valueOf(base.plusHours(2)));
+
+        ProjectActivityDescription activity = projectService.getProjectActivity(projectId, ActivityBucket.HOUR,
+            base.plusMinutes(30), base.plusHours(2).plusMinutes(1));
+        assertThat(activity.getItems()).extracting(ActivityBucketDescription::getStart)
+            .containsExactly(base, base.plusHours(1), base.plusHours(2));
+        assertThat(activity.getItems()).extracting(ActivityBucketDescription::getCreated).containsExactly(2L, 0L, 1L);
+        assertThat(activity.getItems()).extracting(ActivityBucketDescription::getModified).containsExactly(0L, 0L, 1L);
+
+        activity = projectService.getProjectActivity(projectId, ActivityBucket.DAY, base,
+            base.toLocalDate().plusDays(2).atStartOfDay());
+        assertThat(activity.getItems()).extracting(ActivityBucketDescription::getStart)
+            .containsExactly(base.toLocalDate().atStartOfDay(), base.toLocalDate().plusDays(1).atStartOfDay());
+        assertThat(activity.getItems()).extracting(ActivityBucketDescription::getCreated).containsExactly(3L, 0L);
+        assertThat(activity.getItems()).extracting(ActivityBucketDescription::getModified).containsExactly(1L, 1L);
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void testProjectActivityOfEmptyRange() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        projectService.getProjectActivity(projectId, ActivityBucket.HOUR, now, now.minusHours(1));
+    }
+
+    @Test(expected = ObjectNotFoundException.class)
+    public void testGetStatsOfMissingProject() throws Exception {
+        projectService.getProjectStats(projectId + 1);
+    }
+
+    @Test
+    public void testChangeEvents() throws Exception {
+        long lastEventId = changeEventRepository.findLastId();
+        Long taskId = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        taskService.updateTask(taskId, null, createTaskSpec("Renamed task", "Changed description"));
+        taskService.deleteTask(taskId);
+
+        List<ChangeEventDescription> events = changeEventRepository.findRange(lastEventId, Long.MAX_VALUE, 100);
+        assertThat(events).extracting(ChangeEventDescription::getOperation)
+            .containsExactly(ChangeOperation.CREATED, ChangeOperation.UPDATED, ChangeOperation.DELETED);
+        assertThat(events).extracting(ChangeEventDescription::getEntityType).containsOnly(ChangeEntityType.TASK);
+        assertThat(events).extracting(ChangeEventDescription::getEntityId).containsOnly(taskId);
+        assertThat(events).extracting(ChangeEventDescription::getProjectId).containsOnly(projectId);
+    }
+
+    @Test
+    public void testArchivedTaskIdIsNotReused() throws Exception {
+        Long closedTaskId = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        Long newestTaskId = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        TaskSpec spec = createTaskSpec("Login crash", "Application crash on login page");
+        spec.setStatus(TaskStatus.CLOSED);
+        taskService.updateTask(closedTaskId, null, spec);
+        jdbc.update("UPDATE tasks SET modified_at = ? WHERE task_id = ?",
+            Timestamp.valueOf(LocalDateTime.now().minusDays(60)), closedTaskId);
+        taskService.deleteTask(newestTaskId);
+        assertThat(taskArchiver.archiveNextBatch()).isEqualTo(1);
+
+        // MySQL 5.7 recomputes the counter from the remaining tasks on restart, which this resets it to
+        jdbc.execute("ALTER TABLE tasks AUTO_INCREMENT = 1");
+        assertThat(jdbc.queryForObject("SELECT AUTO_INCREMENT FROM information_schema.TABLES "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'tasks'", Long.class)).isLessThanOrEqualTo(closedTaskId);
+        taskArchiver.afterSingletonsInstantiated();
+
+        assertThat(taskService.createTask(DtoCreator.createNewTaskSpec(projectId))).isGreaterThan(closedTaskId);
+    }
+
+    @Test
+    public void testArchiveClosedTasks() throws Exception {
+        Long closedTaskId = taskService.createTask(createNewTaskSpec(projectId, "Login crash", "Application crash on login page"));
+        Long recentlyClosedTaskId = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        Long openTaskId = taskService.createTask(DtoCreator.createNewTaskSpec(projectId));
+        TaskSpec spec = createTaskSpec("Login crash", "Application crash on login page");
+        spec.setStatus(TaskStatus.CLOSED);
+        taskService.updateTask(closedTaskId, null, spec);
+        taskService.updateTask(recentlyClosedTaskId, null, spec);
+        jdbc.update("UPDATE tasks SET modified_at = ? WHERE task_id = ?",
+            Timestamp.valueOf(LocalDateTime.now().minusDays(60)), closedTaskId);
+        TaskDescription details = taskService.getTaskDetails(closedTaskId);
+        ProjectStatsDescription stats = projectService.getProjectStats(projectId);
+        long lastEventId = changeEventRepository.findLastId();
+
+        assertThat(taskArchiver.archiveNextBatch()).isEqualTo(1);
+        assertThat(taskArchiver.archiveNextBatch()).isEqualTo(0);
+        assertThat(jdbc.queryForList("SELECT 1 FROM tasks WHERE task_id = ?", closedTaskId)).isEmpty();
+        assertThat(jdbc.queryForList("SELECT 1 FROM tasks_archive WHERE task_id = ?", closedTaskId)).hasSize(1);
+        assertThat(changeEventRepository.findRange(lastEventId, Long.MAX_VALUE, 100)).isEmpty();
+        assertThat(projectService.getProjectStats(projectId).getByStatus()).isEqualTo(stats.getByStatus());
+        assertThat(taskCountersReconciler.reconcile()).isEqualTo(0);
+
+        taskDescriptionCache.invalidateAfterCommit(closedTaskId);
+        assertThat(taskService.getTaskDetails(closedTaskId)).isEqualToComparingFieldByField(details);
+        assertThat(taskService.getTaskVersion(closedTaskId)).isEqualTo(details.getVersion());
+
+        GetTasksDescription result = taskService.getTasks(10, 0, Sort.Direction.ASC, TaskOrderFormat.DATE, projectId,
+            null, null, null, null, null, TotalCountMode.EXACT, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(closedTaskId, openTaskId, recentlyClosedTaskId);
+        assertThat(result.getTotal()).isEqualTo(3);
+        result = taskService.getTasks(1, 0, Sort.Direction.DESC, null, projectId, Collections.singleton(TaskStatus.CLOSED),
+            null, null, null, null, TotalCountMode.EXACT, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(recentlyClosedTaskId);
+        assertThat(result.getTotal()).isEqualTo(2);
+        result = taskService.getTasks(1, 1, Sort.Direction.DESC, null, projectId, Collections.singleton(TaskStatus.CLOSED),
+            null, null, null, null, null, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(closedTaskId);
+        assertThat(result.isHasMore()).isFalse();
+        result = taskService.getTasks(10, 0, null, null, projectId, Collections.singleton(TaskStatus.NEW),
+            null, null, null, null, TotalCountMode.EXACT, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsExactly(openTaskId);
+        result = taskService.getTasks(1, 0, Sort.Direction.DESC, null, projectId, EnumSet.of(TaskStatus.NEW, TaskStatus.CLOSED),
+            null, LocalDateTime.now().minusDays(90), null, null, TotalCountMode.EXACT, null);
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThatThrownBy(() -> taskService.getTasks(1000, 11, null, null, projectId, null, null, null, null, null, null, null))
+            .isInstanceOf(InvalidRequestException.class);
+        assertThat(taskService.getTasks(1000, 11, null, null, projectId, Collections.singleton(TaskStatus.NEW),
+            null, null, null, null, null, null).getItems()).isEmpty();
+
+        result = taskService.searchTasks("crash", null, null, projectId, null, null);
+        assertThat(result.getItems()).extracting(TaskDescription::getId).containsOnly(closedTaskId, recentlyClosedTaskId);
+        List<TaskDescription> exported = new ArrayList<>();
+        taskService.exportTasks(projectId, null, null, null, null, exported::add);
+        assertThat(exported).extracting(TaskDescription::getId).containsExactly(closedTaskId, recentlyClosedTaskId, openTaskId);
+        exported.clear();
+        taskService.exportTasks(projectId, Collections.singleton(TaskStatus.CLOSED), null, null, null, exported::add);
+        assertThat(exported).extracting(TaskDescription::getId).containsExactly(closedTaskId, recentlyClosedTaskId);
+
+        try {
+            taskService.updateTask(closedTaskId, null, spec);
+            fail("Archived task has been modified");
+        } catch (InvalidRequestException ex) {
+            assertThat(ex.getMessage()).isEqualTo("You can not modify closed task.");
+        }
+        taskService.deleteTask(closedTaskId);
+        assertThat(jdbc.queryForList("SELECT 1 FROM tasks_archive WHERE task_id = ?", closedTaskId)).isEmpty();
+        assertThat(changeEventRepository.findRange(lastEventId, Long.MAX_VALUE, 100))
+            .extracting(ChangeEventDescription::getOperation).containsExactly(ChangeOperation.DELETED);
+        assertThat(projectService.getProjectStats(projectId).getTotal()).isEqualTo(2);
+    }
+
     @Test
     public void testDeleteTask() throws Exception {
         NewTaskSpec taskSpec = DtoCreator.createNewTaskSpec(projectId);
@@ -134,6 +636,20 @@ public class TaskServiceTest {
         assertThat(queryResults.size()).isEqualTo(0);
     }
 
+    private static NewTaskSpec createNewTaskSpec(Long projectId, String name, String description) {
+        NewTaskSpec spec = DtoCreator.createNewTaskSpec(projectId);
+        spec.setName(name);
+        spec.setDescription(description);
+        return spec;
+    }
+
+    private static TaskSpec createTaskSpec(String name, String description) {
+        TaskSpec spec = DtoCreator.createTaskSpec();
+        spec.setName(name);
+        spec.setDescription(description);
+        return spec;
+    }
+
     private static TaskDescription generateExpectedTaskDescription(Long taskId, TaskSpecBaseInfo spec, Long projectId, TaskStatus status) {
         TaskDescription taskDescription = new TaskDescription();
         taskDescription.setId(taskId);
@@ -0,0 +1,45 @@
+package com.bugtracking.server.web;
+
+import com.bugtracking.server.config.JdbcInstrumentation;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collections;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class RepeatedStatementFilterTest {
+
+    private JdbcInstrumentation jdbcInstrumentation;
+    private RepeatedStatementFilter filter;
+
+    @Before
+    public void setUp() {
+        jdbcInstrumentation = mock(JdbcInstrumentation.class);
+        given(jdbcInstrumentation.endRequest()).willReturn(Collections.emptyMap());
+        filter = new RepeatedStatementFilter(jdbcInstrumentation, Collections.singleton("PATCH /api/tasks"));
+    }
+
+    @Test
+    public void testCountsStatementsOfRequest() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/tasks"), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(jdbcInstrumentation).beginRequest();
+        verify(jdbcInstrumentation).endRequest();
+    }
+
+    @Test
+    public void testSkipsExemptRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/bugtracking/api/tasks");
+        request.setContextPath("/bugtracking");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(jdbcInstrumentation, never()).beginRequest();
+    }
+}